@@ -9,11 +9,79 @@ repositories {
     mavenCentral()
 }
 
+// JMH benchmarks live in src/jmh/java and see the main classes
+val jmh: SourceSet by sourceSets.creating {
+    compileClasspath += sourceSets.main.get().output
+    runtimeClasspath += sourceSets.main.get().output
+}
+
+val jmhVersion = "1.37"
+
 dependencies {
     testImplementation(platform("org.junit:junit-bom:5.10.0"))
     testImplementation("org.junit.jupiter:junit-jupiter")
+
+    "jmhImplementation"("org.openjdk.jmh:jmh-core:$jmhVersion")
+    "jmhAnnotationProcessor"("org.openjdk.jmh:jmh-generator-annprocess:$jmhVersion")
 }
 
 tasks.test {
     useJUnitPlatform()
-}
\ No newline at end of file
+}
+
+// Runnable jar: java -jar build/libs/snake-game-1.0-SNAPSHOT.jar
+tasks.jar {
+    manifest {
+        attributes("Main-Class" to "Main")
+    }
+}
+
+// AppCDS archive of the classes a launch loads up to the start menu's first paint:
+// java -XX:SharedArchiveFile=build/cds/snake.jsa -jar build/libs/snake-game-1.0-SNAPSHOT.jar
+val cdsArchiveFile = layout.buildDirectory.file("cds/snake.jsa")
+
+tasks.register<JavaExec>("cdsArchive") {
+    group = "distribution"
+    description = "Creates an AppCDS archive for faster game startup"
+    dependsOn(tasks.jar)
+    classpath = files(tasks.jar.flatMap { it.archiveFile })
+    mainClass.set("Main")
+    inputs.files(tasks.jar)
+    outputs.file(cdsArchiveFile)
+    jvmArgs("-XX:ArchiveClassesAtExit=" + cdsArchiveFile.get().asFile.absolutePath,
+            "-Dsnake.exitAfterFirstPaint=true")
+    doFirst {
+        cdsArchiveFile.get().asFile.parentFile.mkdirs()
+    }
+}
+
+// ./gradlew startupBenchmark [-PstartupRuns=20]
+// Times fresh launches to the start menu's first paint, with and without the AppCDS archive
+tasks.register<JavaExec>("startupBenchmark") {
+    group = "benchmark"
+    description = "Measures time from launch to the first start menu paint"
+    dependsOn("cdsArchive")
+    classpath = jmh.runtimeClasspath
+    mainClass.set("bench.StartupBenchmark")
+    outputs.upToDateWhen { false }
+    args(tasks.jar.get().archiveFile.get().asFile.absolutePath,
+            (project.findProperty("startupRuns") as String?) ?: "10",
+            cdsArchiveFile.get().asFile.absolutePath)
+}
+
+// ./gradlew jmh [-PjmhInclude=EngineBenchmark]
+// Results are written as JSON to build/reports/jmh/results.json for regression tracking
+tasks.register<JavaExec>("jmh") {
+    group = "benchmark"
+    description = "Runs the JMH benchmarks"
+    classpath = jmh.runtimeClasspath
+    mainClass.set("org.openjdk.jmh.Main")
+    val results = layout.buildDirectory.file("reports/jmh/results.json")
+    outputs.file(results)
+    outputs.upToDateWhen { false }
+    doFirst {
+        results.get().asFile.parentFile.mkdirs()
+    }
+    args("-rf", "json", "-rff", results.get().asFile.absolutePath)
+    (project.findProperty("jmhInclude") as String?)?.let { args(it) }
+}
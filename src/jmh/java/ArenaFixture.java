@@ -0,0 +1,34 @@
+import java.util.Random;
+
+// The bot league load: the given number of greedy bots on a 1000x1000 board, measuring
+// one tick including bot decisions and respawns.
+public class ArenaFixture implements bench.Fixture {
+    private static final int SIZE = 1000;
+    
+    private ArenaEngine engine;
+    private ArenaBots bots;
+    private Direction[] moves;
+    
+    @Override
+    public void setUp(int snakes) {
+        engine = new ArenaEngine(SIZE, SIZE, snakes, snakes * 2, new Random(42));
+        bots = new ArenaBots(snakes, new Random(43));
+        moves = new Direction[snakes];
+        // Let the bots grow before measuring
+        for (int i = 0; i < 500; i++) {
+            run();
+        }
+    }
+    
+    @Override
+    public int run() {
+        bots.decide(engine, moves, 0, moves.length);
+        int deaths = engine.step(moves);
+        for (int i = 0; i < moves.length; i++) {
+            if (!engine.isAlive(i)) {
+                engine.respawn(i);
+            }
+        }
+        return deaths;
+    }
+}
@@ -0,0 +1,45 @@
+import java.util.concurrent.ForkJoinPool;
+
+// A fixed batch of games on a pool with the given parallelism, for checking that
+// BatchRunner scales with cores. Returns the total score so the work is not elided.
+public class BatchFixture implements bench.Fixture {
+    private static final int GAMES = 256;
+    
+    private BatchRunner runner;
+    private ForkJoinPool pool;
+    
+    @Override
+    public void setUp(int parallelism) {
+        runner = new BatchRunner(() -> BatchFixture::choose, Difficulty.NORMAL, new BoardSize(20, 20), 10_000);
+        pool = new ForkJoinPool(parallelism);
+    }
+    
+    @Override
+    public int run() {
+        return (int) runner.run(0, GAMES, pool).getTotalScore();
+    }
+    
+    // Turns toward the food, or away from danger when the way ahead is blocked
+    private static Direction choose(SnakeEngine engine) {
+        int x = engine.getX(0);
+        int y = engine.getY(0);
+        Direction toFood = engine.getFoodX() != x
+                ? (engine.getFoodX() > x ? Direction.RIGHT : Direction.LEFT)
+                : (engine.getFoodY() > y ? Direction.DOWN : Direction.UP);
+        if (isSafe(engine, toFood)) {
+            return toFood;
+        }
+        for (Direction direction : Direction.values()) {
+            if (isSafe(engine, direction)) {
+                return direction;
+            }
+        }
+        return engine.getDirection();
+    }
+    
+    private static boolean isSafe(SnakeEngine engine, Direction direction) {
+        int x = engine.getX(0) + direction.getDx();
+        int y = engine.getY(0) + direction.getDy();
+        return x >= 0 && y >= 0 && x < engine.getWidth() && y < engine.getHeight() && !engine.isOccupied(x, y);
+    }
+}
@@ -0,0 +1,54 @@
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+// A whole SnakeGame frame headless: step, update the back buffer, blit the dirty cells
+// and the pre-rasterised HUD onto an offscreen image standing in for the screen.
+public class FrameFixture implements bench.Fixture {
+    private static final int WIDTH = 150;
+    private static final int HEIGHT = 100;
+    private static final int TILE_SIZE = 5;
+    
+    private SnakeEngine engine;
+    private Direction[] next;
+    private BoardRenderer renderer;
+    private Graphics2D screen;
+    private HudText scoreHud;
+    private int scoreValue = -1;
+    private String scoreText;
+    
+    @Override
+    public void setUp(int length) {
+        engine = new SnakeEngine(WIDTH, HEIGHT, new Random(42));
+        next = HamiltonianPath.cycle(WIDTH, HEIGHT, WIDTH - 1);
+        HamiltonianPath.grow(engine, next, length);
+        engine.setFood(WIDTH - 1, 0);
+        renderer = new BoardRenderer(new BoardSize(WIDTH, HEIGHT), TILE_SIZE);
+        renderer.renderAll(engine);
+        BufferedImage target = new BufferedImage(WIDTH * TILE_SIZE, HEIGHT * TILE_SIZE, BufferedImage.TYPE_INT_RGB);
+        screen = target.createGraphics();
+        scoreHud = new HudText(new Font("Arial", Font.BOLD, 16), Color.WHITE);
+    }
+    
+    @Override
+    public int run() {
+        engine.step(next[engine.getY(0) * WIDTH + engine.getX(0)]);
+        renderer.update(engine);
+        for (int i = 0; i < renderer.getDirtyCount(); i++) {
+            int cell = renderer.getDirtyCell(i);
+            int px = (cell % WIDTH) * TILE_SIZE;
+            int py = (cell / WIDTH) * TILE_SIZE;
+            screen.drawImage(renderer.getImage(), px, py, px + TILE_SIZE, py + TILE_SIZE,
+                    px, py, px + TILE_SIZE, py + TILE_SIZE, null);
+        }
+        if (engine.getScore() != scoreValue) {
+            scoreValue = engine.getScore();
+            scoreText = "Score: " + scoreValue;
+        }
+        scoreHud.setText(scoreText);
+        scoreHud.draw(screen, 10, 20);
+        return renderer.getDirtyCount();
+    }
+}
@@ -0,0 +1,35 @@
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+// Baseline for PaintFixture: redraws every segment each tick the way
+// paintComponent did before the back buffer, so cost grows with length.
+public class FullPaintFixture implements bench.Fixture {
+    private static final int WIDTH = 150;
+    private static final int HEIGHT = 100;
+    private static final int TILE_SIZE = 5;
+    
+    private SnakeEngine engine;
+    private Direction[] next;
+    private BoardRenderer renderer;
+    private Graphics2D screen;
+    
+    @Override
+    public void setUp(int length) {
+        engine = new SnakeEngine(WIDTH, HEIGHT, new Random(42));
+        next = HamiltonianPath.cycle(WIDTH, HEIGHT, WIDTH - 1);
+        HamiltonianPath.grow(engine, next, length);
+        engine.setFood(WIDTH - 1, 0);
+        renderer = new BoardRenderer(new BoardSize(WIDTH, HEIGHT), TILE_SIZE);
+        BufferedImage target = new BufferedImage(WIDTH * TILE_SIZE, HEIGHT * TILE_SIZE, BufferedImage.TYPE_INT_RGB);
+        screen = target.createGraphics();
+    }
+    
+    @Override
+    public int run() {
+        engine.step(next[engine.getY(0) * WIDTH + engine.getX(0)]);
+        renderer.renderAll(engine);
+        screen.drawImage(renderer.getImage(), 0, 0, null);
+        return engine.getLength();
+    }
+}
@@ -0,0 +1,40 @@
+// Direction table for a cycle through every cell of the left cycleWidth columns:
+// along row 0, zig-zag down the remaining rows and back up column 0.
+// Requires an even number of rows.
+final class HamiltonianPath {
+    private HamiltonianPath() {
+    }
+    
+    static Direction[] cycle(int boardWidth, int boardHeight, int cycleWidth) {
+        Direction[] next = new Direction[boardWidth * boardHeight];
+        for (int y = 0; y < boardHeight; y++) {
+            for (int x = 0; x < cycleWidth; x++) {
+                Direction dir;
+                if (x == 0) {
+                    dir = y == 0 ? Direction.RIGHT : Direction.UP;
+                } else if (y == 0) {
+                    dir = x == cycleWidth - 1 ? Direction.DOWN : Direction.RIGHT;
+                } else if (y % 2 == 1) {
+                    dir = x == 1 ? Direction.DOWN : Direction.LEFT;
+                } else {
+                    dir = x == cycleWidth - 1 ? Direction.DOWN : Direction.RIGHT;
+                }
+                if (y == boardHeight - 1 && x == 1) {
+                    dir = Direction.LEFT;
+                }
+                next[y * boardWidth + x] = dir;
+            }
+        }
+        return next;
+    }
+    
+    // Steps the engine along the cycle, feeding it every step, until the snake has the given length
+    static void grow(SnakeEngine engine, Direction[] next, int length) {
+        int width = engine.getWidth();
+        while (engine.getLength() < length) {
+            Direction dir = next[engine.getY(0) * width + engine.getX(0)];
+            engine.setFood(engine.getX(0) + dir.getDx(), engine.getY(0) + dir.getDy());
+            engine.step(dir);
+        }
+    }
+}
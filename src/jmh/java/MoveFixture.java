@@ -0,0 +1,25 @@
+import java.util.Random;
+
+// A snake of fixed length circling a Hamiltonian cycle. The rightmost column
+// is left out of the cycle and holds the food, so the snake never grows.
+public class MoveFixture implements bench.Fixture {
+    private static final int WIDTH = 150;
+    private static final int HEIGHT = 100;
+    
+    private SnakeEngine engine;
+    private Direction[] next;
+    
+    @Override
+    public void setUp(int length) {
+        engine = new SnakeEngine(WIDTH, HEIGHT, new Random(42));
+        next = HamiltonianPath.cycle(WIDTH, HEIGHT, WIDTH - 1);
+        HamiltonianPath.grow(engine, next, length);
+        engine.setFood(WIDTH - 1, 0);
+    }
+    
+    @Override
+    public int run() {
+        engine.step(next[engine.getY(0) * WIDTH + engine.getX(0)]);
+        return engine.getX(0);
+    }
+}
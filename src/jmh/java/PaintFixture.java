@@ -0,0 +1,43 @@
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+// One tick of what SnakeGame paints: step the engine, update the back buffer
+// and copy the dirty cells into an offscreen image standing in for the screen.
+public class PaintFixture implements bench.Fixture {
+    private static final int WIDTH = 150;
+    private static final int HEIGHT = 100;
+    private static final int TILE_SIZE = 5;
+    
+    private SnakeEngine engine;
+    private Direction[] next;
+    private BoardRenderer renderer;
+    private Graphics2D screen;
+    
+    @Override
+    public void setUp(int length) {
+        engine = new SnakeEngine(WIDTH, HEIGHT, new Random(42));
+        next = HamiltonianPath.cycle(WIDTH, HEIGHT, WIDTH - 1);
+        HamiltonianPath.grow(engine, next, length);
+        engine.setFood(WIDTH - 1, 0);
+        renderer = new BoardRenderer(new BoardSize(WIDTH, HEIGHT), TILE_SIZE);
+        renderer.renderAll(engine);
+        BufferedImage target = new BufferedImage(WIDTH * TILE_SIZE, HEIGHT * TILE_SIZE, BufferedImage.TYPE_INT_RGB);
+        screen = target.createGraphics();
+    }
+    
+    @Override
+    public int run() {
+        engine.step(next[engine.getY(0) * WIDTH + engine.getX(0)]);
+        renderer.update(engine);
+        Image board = renderer.getImage();
+        for (int i = 0; i < renderer.getDirtyCount(); i++) {
+            int cell = renderer.getDirtyCell(i);
+            int px = (cell % WIDTH) * TILE_SIZE;
+            int py = (cell / WIDTH) * TILE_SIZE;
+            screen.drawImage(board, px, py, px + TILE_SIZE, py + TILE_SIZE, px, py, px + TILE_SIZE, py + TILE_SIZE, null);
+        }
+        return renderer.getDirtyCount();
+    }
+}
@@ -0,0 +1,22 @@
+import java.util.Random;
+
+// Board filled to the given percentage by a snake, measuring a single food spawn.
+public class SpawnFoodFixture implements bench.Fixture {
+    private static final int WIDTH = 200;
+    private static final int HEIGHT = 200;
+    
+    private SnakeEngine engine;
+    
+    @Override
+    public void setUp(int fillPercent) {
+        engine = new SnakeEngine(WIDTH, HEIGHT, new Random(42));
+        int length = Math.max(1, (int) ((long) WIDTH * HEIGHT * fillPercent / 100));
+        HamiltonianPath.grow(engine, HamiltonianPath.cycle(WIDTH, HEIGHT, WIDTH), length);
+    }
+    
+    @Override
+    public int run() {
+        engine.spawnFood();
+        return engine.getFoodCell();
+    }
+}
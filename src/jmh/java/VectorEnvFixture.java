@@ -0,0 +1,32 @@
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+// One lockstep step of VectorEnv.ENVS training envs on a 10x10 board, on a pool with the
+// given parallelism. Actions come from pre-drawn random tables so the policy costs nothing.
+public class VectorEnvFixture implements bench.Fixture {
+    public static final int ENVS = 16_384;
+    private static final int ACTION_TABLES = 64;
+    
+    private VectorEnv env;
+    private int[][] actions;
+    private int step;
+    
+    @Override
+    public void setUp(int parallelism) {
+        env = new VectorEnv(ENVS, new BoardSize(10, 10), 1_000, new ForkJoinPool(parallelism));
+        env.reset(42);
+        Random random = new Random(43);
+        actions = new int[ACTION_TABLES][ENVS];
+        for (int[] table : actions) {
+            for (int i = 0; i < ENVS; i++) {
+                table[i] = random.nextInt(4);
+            }
+        }
+    }
+    
+    @Override
+    public int run() {
+        env.step(actions[step++ & (ACTION_TABLES - 1)]);
+        return env.getDones()[0];
+    }
+}
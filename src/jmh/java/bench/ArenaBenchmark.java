@@ -0,0 +1,32 @@
+package bench;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ArenaBenchmark {
+    
+    @State(Scope.Thread)
+    public static class Arena {
+        // 60 ticks per second leaves 16,667 us per tick
+        @Param({"100", "1000"})
+        int bots;
+        
+        Fixture fixture;
+        
+        @Setup
+        public void setUp() {
+            fixture = Fixture.create("ArenaFixture", bots);
+        }
+    }
+    
+    @Benchmark
+    public int tick(Arena state) {
+        return state.fixture.run();
+    }
+}
@@ -0,0 +1,32 @@
+package bench;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchBenchmark {
+    
+    @State(Scope.Benchmark)
+    public static class Batch {
+        // Time should fall roughly as 1/parallelism up to the number of cores
+        @Param({"1", "2", "4", "8"})
+        int parallelism;
+        
+        Fixture fixture;
+        
+        @Setup
+        public void setUp() {
+            fixture = Fixture.create("BatchFixture", parallelism);
+        }
+    }
+    
+    @Benchmark
+    public int batch(Batch state) {
+        return state.fixture.run();
+    }
+}
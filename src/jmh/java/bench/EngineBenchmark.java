@@ -0,0 +1,49 @@
+package bench;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EngineBenchmark {
+    
+    @State(Scope.Thread)
+    public static class Move {
+        @Param({"1", "100", "10000"})
+        int length;
+        
+        Fixture fixture;
+        
+        @Setup
+        public void setUp() {
+            fixture = Fixture.create("MoveFixture", length);
+        }
+    }
+    
+    @State(Scope.Thread)
+    public static class SpawnFood {
+        @Param({"10", "50", "90", "99"})
+        int fillPercent;
+        
+        Fixture fixture;
+        
+        @Setup
+        public void setUp() {
+            fixture = Fixture.create("SpawnFoodFixture", fillPercent);
+        }
+    }
+    
+    @Benchmark
+    public int move(Move state) {
+        return state.fixture.run();
+    }
+    
+    @Benchmark
+    public int spawnFood(SpawnFood state) {
+        return state.fixture.run();
+    }
+}
@@ -0,0 +1,20 @@
+package bench;
+
+// JMH cannot generate benchmarks in the default package, and named packages
+// cannot import the game classes from it. Benchmarks therefore drive the game
+// through fixtures that live in the default package and implement this interface.
+public interface Fixture {
+    void setUp(int param);
+    
+    int run();
+    
+    static Fixture create(String className, int param) {
+        try {
+            Fixture fixture = (Fixture) Class.forName(className).getDeclaredConstructor().newInstance();
+            fixture.setUp(param);
+            return fixture;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot create fixture " + className, e);
+        }
+    }
+}
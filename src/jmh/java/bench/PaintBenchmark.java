@@ -0,0 +1,43 @@
+package bench;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Thread)
+public class PaintBenchmark {
+    @Param({"1", "100", "10000"})
+    int length;
+    
+    Fixture incremental;
+    Fixture full;
+    Fixture frame;
+    
+    @Setup
+    public void setUp() {
+        incremental = Fixture.create("PaintFixture", length);
+        full = Fixture.create("FullPaintFixture", length);
+        frame = Fixture.create("FrameFixture", length);
+    }
+    
+    @Benchmark
+    public int paintIncremental() {
+        return incremental.run();
+    }
+    
+    @Benchmark
+    public int paintFull() {
+        return full.run();
+    }
+    
+    // Board and HUD together, as SnakeGame paints a frame
+    @Benchmark
+    public int paintFrame() {
+        return frame.run();
+    }
+}
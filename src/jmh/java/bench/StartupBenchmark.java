@@ -0,0 +1,71 @@
+package bench;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Cold start is not something JMH can measure, so this launches the game in fresh JVMs
+// and times each launch until the start menu's first paint (Startup prints the line).
+// Arguments: JAR [RUNS] [CDS_ARCHIVE]
+public class StartupBenchmark {
+    private static final String FIRST_PAINT_LINE = "first-paint";
+    
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Path jar = Paths.get(args[0]);
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        Path archive = args.length > 2 ? Paths.get(args[2]) : null;
+        
+        report("default", measure(jar, runs, new ArrayList<>()));
+        if (archive != null && Files.exists(archive)) {
+            List<String> cds = new ArrayList<>();
+            cds.add("-XX:SharedArchiveFile=" + archive.toAbsolutePath());
+            report("AppCDS", measure(jar, runs, cds));
+        }
+    }
+    
+    private static long[] measure(Path jar, int runs, List<String> jvmArgs) throws IOException, InterruptedException {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        List<String> command = new ArrayList<>();
+        command.add(java);
+        command.addAll(jvmArgs);
+        command.add("-Dsnake.exitAfterFirstPaint=true");
+        command.add("-jar");
+        command.add(jar.toAbsolutePath().toString());
+        
+        long[] millis = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            long start = System.nanoTime();
+            Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+            long painted = -1;
+            try (BufferedReader out = new BufferedReader(
+                    new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = out.readLine()) != null) {
+                    if (painted < 0 && line.equals(FIRST_PAINT_LINE)) {
+                        painted = System.nanoTime();
+                    }
+                }
+            }
+            process.waitFor();
+            if (painted < 0) {
+                throw new IllegalStateException("Game exited without painting; is a display available?");
+            }
+            millis[i] = (painted - start) / 1_000_000;
+        }
+        return millis;
+    }
+    
+    private static void report(String name, long[] millis) {
+        long[] sorted = millis.clone();
+        Arrays.sort(sorted);
+        System.out.printf("%-8s launch to first paint: min %d ms, median %d ms, max %d ms (%d runs)%n",
+                name, sorted[0], sorted[sorted.length / 2], sorted[sorted.length - 1], sorted.length);
+    }
+}
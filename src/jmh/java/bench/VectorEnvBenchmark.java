@@ -0,0 +1,35 @@
+package bench;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// Reports env-steps per second; the target is over 10M across all cores
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VectorEnvBenchmark {
+    // Must match VectorEnvFixture.ENVS, which this package cannot see
+    private static final int ENVS = 16_384;
+    
+    @State(Scope.Benchmark)
+    public static class Envs {
+        @Param({"1", "2", "4", "8"})
+        int parallelism;
+        
+        Fixture fixture;
+        
+        @Setup
+        public void setUp() {
+            fixture = Fixture.create("VectorEnvFixture", parallelism);
+        }
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(ENVS)
+    public int step(Envs state) {
+        return state.fixture.run();
+    }
+}
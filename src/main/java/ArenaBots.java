@@ -0,0 +1,78 @@
+import java.util.Arrays;
+import java.util.Random;
+
+// Greedy steering for arena bots. Each bot heads for a target food cell, picked from
+// a small square around its head or else at random, and turns toward it while avoiding
+// walls and occupied cells. A decision is a few array lookups, so a thousand bots
+// fit easily in one tick.
+public class ArenaBots {
+    // Half the side of the square searched around a head for the nearest food
+    private static final int SEARCH_RADIUS = 6;
+    private static final Direction[] DIRECTIONS = Direction.values();
+    
+    private final int[] targets;
+    private final Random random;
+    
+    public ArenaBots(int snakes, Random random) {
+        targets = new int[snakes];
+        Arrays.fill(targets, -1);
+        this.random = random;
+    }
+    
+    // Fills moves[first..last) for the living snakes in that range
+    public void decide(ArenaEngine engine, Direction[] moves, int first, int last) {
+        for (int i = first; i < last; i++) {
+            moves[i] = engine.isAlive(i) ? choose(engine, i) : null;
+        }
+    }
+    
+    private Direction choose(ArenaEngine engine, int snake) {
+        int width = engine.getWidth();
+        int head = engine.getCell(snake, 0);
+        int x = head % width;
+        int y = head / width;
+        int target = targets[snake];
+        if (target < 0 || !engine.isFood(target)) {
+            target = findFood(engine, x, y);
+            targets[snake] = target;
+        }
+        
+        Direction current = engine.getDirection(snake);
+        Direction best = null;
+        int bestDistance = Integer.MAX_VALUE;
+        for (Direction direction : DIRECTIONS) {
+            int nx = x + direction.getDx();
+            int ny = y + direction.getDy();
+            if (nx < 0 || ny < 0 || nx >= width || ny >= engine.getHeight() || engine.getOwner(ny * width + nx) >= 0) {
+                continue;
+            }
+            int distance = target < 0 ? 0 : Math.abs(target % width - nx) + Math.abs(target / width - ny);
+            // Keep going straight on ties so bots do not wiggle
+            if (distance < bestDistance || (distance == bestDistance && direction == current)) {
+                best = direction;
+                bestDistance = distance;
+            }
+        }
+        return best != null ? best : current;
+    }
+    
+    private int findFood(ArenaEngine engine, int x, int y) {
+        int width = engine.getWidth();
+        int best = -1;
+        int bestDistance = Integer.MAX_VALUE;
+        for (int ny = Math.max(0, y - SEARCH_RADIUS); ny <= Math.min(engine.getHeight() - 1, y + SEARCH_RADIUS); ny++) {
+            for (int nx = Math.max(0, x - SEARCH_RADIUS); nx <= Math.min(width - 1, x + SEARCH_RADIUS); nx++) {
+                int cell = ny * width + nx;
+                int distance = Math.abs(nx - x) + Math.abs(ny - y);
+                if (distance < bestDistance && engine.isFood(cell)) {
+                    best = cell;
+                    bestDistance = distance;
+                }
+            }
+        }
+        if (best < 0 && engine.getFoodCount() > 0) {
+            best = engine.getFoodCell(random.nextInt(engine.getFoodCount()));
+        }
+        return best;
+    }
+}
@@ -0,0 +1,307 @@
+import java.util.Arrays;
+import java.util.Random;
+
+// Headless rules for many snakes and many food items on one board. Cells are packed as
+// y * width + x like SnakeEngine. A shared owner grid records which snake is on each
+// cell, so collisions are found with one lookup per snake instead of comparing bodies.
+// As in SnakeEngine a tail still counts as occupied on the tick it moves away.
+public class ArenaEngine {
+    private final int width;
+    private final int height;
+    private final Random random;
+    private final int foodTarget;
+    
+    private final SnakeBody[] bodies;
+    private final Direction[] directions;
+    private final boolean[] alive;
+    private final int[] scores;
+    
+    // Snake index + 1 on each cell, 0 when no snake is there
+    private final int[] owner;
+    private final OccupancyGrid food;
+    // Cells with neither a snake nor food, and the cells holding food
+    private final FreeCellIndex freeCells;
+    private final FreeCellIndex foodCells;
+    
+    // Per-tick scratch: the cell each snake moves to, and which snake claimed a cell this tick
+    private final int[] nextHead;
+    private final boolean[] dying;
+    private final int[] claimTick;
+    private final int[] claimant;
+    private int tick;
+    
+    // Cells whose contents changed during the last step, for incremental rendering
+    private int[] changed = new int[256];
+    private int changedCount;
+    
+    public ArenaEngine(int width, int height, int snakes, int foodCount, Random random) {
+        if (snakes < 1 || snakes + foodCount > width * height) {
+            throw new IllegalArgumentException("Cannot fit " + snakes + " snakes and " + foodCount
+                    + " food on " + width + "x" + height);
+        }
+        this.width = width;
+        this.height = height;
+        this.random = random;
+        this.foodTarget = foodCount;
+        int cells = width * height;
+        bodies = new SnakeBody[snakes];
+        for (int i = 0; i < snakes; i++) {
+            bodies[i] = new SnakeBody(4);
+        }
+        directions = new Direction[snakes];
+        alive = new boolean[snakes];
+        scores = new int[snakes];
+        owner = new int[cells];
+        food = new OccupancyGrid(cells);
+        freeCells = new FreeCellIndex(cells);
+        foodCells = new FreeCellIndex(cells);
+        nextHead = new int[snakes];
+        dying = new boolean[snakes];
+        claimTick = new int[cells];
+        claimant = new int[cells];
+        reset();
+    }
+    
+    // Places every snake on a random free cell and scatters the food
+    public void reset() {
+        Arrays.fill(owner, 0);
+        food.clearAll();
+        freeCells.fill();
+        foodCells.clear();
+        Arrays.fill(claimTick, 0);
+        tick = 0;
+        for (int i = 0; i < bodies.length; i++) {
+            bodies[i].clear();
+            alive[i] = false;
+            scores[i] = 0;
+            respawn(i);
+        }
+        spawnFood();
+        changedCount = 0;
+    }
+    
+    // Brings a dead snake back with length 1; returns false if the board has no room
+    public boolean respawn(int snake) {
+        if (alive[snake] || freeCells.size() == 0) {
+            return false;
+        }
+        int cell = freeCells.get(random.nextInt(freeCells.size()));
+        bodies[snake].clear();
+        occupy(snake, cell);
+        directions[snake] = Direction.values()[random.nextInt(4)];
+        alive[snake] = true;
+        return true;
+    }
+    
+    // Takes a snake off the board, e.g. when its player leaves; respawn() brings it back
+    public void remove(int snake) {
+        if (alive[snake]) {
+            kill(snake);
+        }
+    }
+    
+    // Moves every living snake one cell. moves[i] is snake i's new direction, or null to
+    // keep going. Returns the number of snakes that died.
+    public int step(Direction[] moves) {
+        changedCount = 0;
+        if (++tick == Integer.MAX_VALUE) {
+            Arrays.fill(claimTick, 0);
+            tick = 1;
+        }
+        
+        // One pass decides every death: walls, any body (including heads), and two or
+        // more heads claiming the same cell
+        int deaths = 0;
+        for (int i = 0; i < bodies.length; i++) {
+            dying[i] = false;
+            if (!alive[i]) {
+                continue;
+            }
+            if (moves != null && moves[i] != null) {
+                directions[i] = moves[i];
+            }
+            int head = bodies[i].head();
+            int x = head % width + directions[i].getDx();
+            int y = head / width + directions[i].getDy();
+            if (x < 0 || x >= width || y < 0 || y >= height || owner[y * width + x] != 0) {
+                dying[i] = true;
+                continue;
+            }
+            int cell = y * width + x;
+            if (claimTick[cell] == tick) {
+                dying[i] = true;
+                dying[claimant[cell]] = true;
+                continue;
+            }
+            claimTick[cell] = tick;
+            claimant[cell] = i;
+            nextHead[i] = cell;
+        }
+        
+        for (int i = 0; i < bodies.length; i++) {
+            if (!alive[i]) {
+                continue;
+            }
+            if (dying[i]) {
+                kill(i);
+                deaths++;
+                continue;
+            }
+            int cell = nextHead[i];
+            if (food.isSet(cell)) {
+                food.clear(cell);
+                foodCells.remove(cell);
+                occupy(i, cell);
+                scores[i]++;
+            } else {
+                occupy(i, cell);
+                int tail = bodies[i].popTail();
+                owner[tail] = 0;
+                freeCells.add(tail);
+                markChanged(tail);
+            }
+        }
+        spawnFood();
+        return deaths;
+    }
+    
+    private void occupy(int snake, int cell) {
+        bodies[snake].pushHead(cell);
+        owner[cell] = snake + 1;
+        freeCells.remove(cell);
+        markChanged(cell);
+    }
+    
+    private void kill(int snake) {
+        SnakeBody body = bodies[snake];
+        for (int i = 0; i < body.size(); i++) {
+            int cell = body.get(i);
+            owner[cell] = 0;
+            freeCells.add(cell);
+            markChanged(cell);
+        }
+        body.clear();
+        alive[snake] = false;
+    }
+    
+    private void spawnFood() {
+        while (foodCells.size() < foodTarget && freeCells.size() > 0) {
+            int cell = freeCells.get(random.nextInt(freeCells.size()));
+            freeCells.remove(cell);
+            foodCells.add(cell);
+            food.set(cell);
+            markChanged(cell);
+        }
+    }
+    
+    private void markChanged(int cell) {
+        if (changedCount == changed.length) {
+            changed = Arrays.copyOf(changed, changed.length * 2);
+        }
+        changed[changedCount++] = cell;
+    }
+    
+    public int getWidth() {
+        return width;
+    }
+    
+    public int getHeight() {
+        return height;
+    }
+    
+    public int getSnakeCount() {
+        return bodies.length;
+    }
+    
+    public boolean isAlive(int snake) {
+        return alive[snake];
+    }
+    
+    public int getAliveCount() {
+        int count = 0;
+        for (boolean living : alive) {
+            if (living) {
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    public int getLength(int snake) {
+        return bodies[snake].size();
+    }
+    
+    // Cell of a body segment, index 0 being the head
+    public int getCell(int snake, int index) {
+        return bodies[snake].get(index);
+    }
+    
+    public Direction getDirection(int snake) {
+        return directions[snake];
+    }
+    
+    // First queued turn for a snake that is neither its direction nor a reversal of it, or
+    // null to keep going; turns it skips are dropped
+    public Direction nextTurn(int snake, InputQueue input) {
+        Direction current = directions[snake];
+        Direction turn;
+        while ((turn = input.poll()) != null) {
+            if (turn != current && (turn != current.opposite() || bodies[snake].size() == 1)) {
+                return turn;
+            }
+        }
+        return null;
+    }
+    
+    public int getScore(int snake) {
+        return scores[snake];
+    }
+    
+    // Index of the snake on a cell, or -1
+    public int getOwner(int cell) {
+        return owner[cell] - 1;
+    }
+    
+    public boolean isFood(int cell) {
+        return food.isSet(cell);
+    }
+    
+    public int getFoodCount() {
+        return foodCells.size();
+    }
+    
+    public int getFoodCell(int index) {
+        return foodCells.get(index);
+    }
+    
+    public int getChangedCount() {
+        return changedCount;
+    }
+    
+    public int getChangedCell(int index) {
+        return changed[index];
+    }
+    
+    // Make setFood package-private for testing
+    void setFood(int cell) {
+        if (owner[cell] == 0 && !food.isSet(cell)) {
+            freeCells.remove(cell);
+            foodCells.add(cell);
+            food.set(cell);
+        }
+    }
+    
+    // Make place package-private for testing: puts a snake's head on a cell and turns it
+    void place(int snake, int cell, Direction direction) {
+        if (alive[snake]) {
+            kill(snake);
+        }
+        if (food.isSet(cell)) {
+            food.clear(cell);
+            foodCells.remove(cell);
+        }
+        occupy(snake, cell);
+        directions[snake] = direction;
+        alive[snake] = true;
+    }
+}
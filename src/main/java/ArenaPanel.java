@@ -0,0 +1,200 @@
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.*;
+import java.util.Random;
+
+// Arena mode: local players and greedy bots share one board. Player 1 steers with the
+// arrow keys and player 2 with WASD; a dead player comes back with SPACE, bots at once.
+public class ArenaPanel extends JPanel {
+    // Boards are scaled so their longer side fits this many pixels
+    private static final int BOARD_PIXELS = 800;
+    private static final Font HUD_FONT = new Font("Arial", Font.BOLD, 14);
+    private static final int FOOD_RGB = Color.RED.getRGB();
+    private static final int BACKGROUND_RGB = BoardRenderer.BACKGROUND.getRGB();
+    private static final int[] PLAYER_RGB = {BoardRenderer.HEAD_COLOR.getRGB(), new Color(60, 140, 255).getRGB()};
+    private static final int MAX_PLAYERS = PLAYER_RGB.length;
+    
+    private final GameManager gameManager;
+    private final ArenaEngine engine;
+    private final ArenaBots bots;
+    private final int players;
+    private final int[] snakeRgb;
+    private final InputQueue[] inputs;
+    private final Direction[] moves;
+    private final GameLoop gameLoop;
+    private final ArenaRaster raster;
+    // Guards engine and raster, which the loop thread updates while the EDT paints
+    private final Object lock = new Object();
+    private String hudText = "";
+    
+    public ArenaPanel(GameManager gameManager, BoardSize boardSize, int players, int bots, int foodCount,
+                      long stepNanos) {
+        this(gameManager, boardSize, players, bots, foodCount, stepNanos, new Random());
+    }
+    
+    ArenaPanel(GameManager gameManager, BoardSize boardSize, int players, int bots, int foodCount,
+               long stepNanos, Random random) {
+        if (players < 0 || players > MAX_PLAYERS) {
+            throw new IllegalArgumentException("Players must be between 0 and " + MAX_PLAYERS + ": " + players);
+        }
+        this.gameManager = gameManager;
+        this.players = players;
+        this.engine = new ArenaEngine(boardSize.getWidth(), boardSize.getHeight(), players + bots, foodCount, random);
+        this.bots = new ArenaBots(players + bots, random);
+        this.moves = new Direction[players + bots];
+        this.inputs = new InputQueue[players];
+        for (int i = 0; i < players; i++) {
+            inputs[i] = new InputQueue(8);
+        }
+        this.snakeRgb = new int[players + bots];
+        for (int i = 0; i < snakeRgb.length; i++) {
+            snakeRgb[i] = i < players ? PLAYER_RGB[i] : ArenaRaster.snakeRgb(i);
+        }
+        this.raster = new ArenaRaster(boardSize.getWidth(), boardSize.getHeight(), boardSize.tileSizeFor(BOARD_PIXELS));
+        this.gameLoop = new GameLoop("arena-loop", stepNanos, this::tick);
+    
+        setPreferredSize(new Dimension(raster.getImage().getWidth(), raster.getImage().getHeight()));
+        setBackground(BoardRenderer.BACKGROUND);
+        setFocusable(true);
+        addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                handleKeyPress(e.getKeyCode());
+            }
+        });
+    
+        synchronized (lock) {
+            drawAll();
+            updateHud();
+        }
+        gameLoop.start();
+    }
+    
+    ArenaEngine getEngine() {
+        return engine;
+    }
+    
+    // Make handleKeyPress package-private for testing
+    void handleKeyPress(int keyCode) {
+        switch (keyCode) {
+            case KeyEvent.VK_UP:
+                offer(0, Direction.UP);
+                break;
+            case KeyEvent.VK_DOWN:
+                offer(0, Direction.DOWN);
+                break;
+            case KeyEvent.VK_LEFT:
+                offer(0, Direction.LEFT);
+                break;
+            case KeyEvent.VK_RIGHT:
+                offer(0, Direction.RIGHT);
+                break;
+            case KeyEvent.VK_W:
+                offer(1, Direction.UP);
+                break;
+            case KeyEvent.VK_S:
+                offer(1, Direction.DOWN);
+                break;
+            case KeyEvent.VK_A:
+                offer(1, Direction.LEFT);
+                break;
+            case KeyEvent.VK_D:
+                offer(1, Direction.RIGHT);
+                break;
+            case KeyEvent.VK_SPACE:
+                synchronized (lock) {
+                    for (int i = 0; i < players; i++) {
+                        if (!engine.isAlive(i)) {
+                            engine.respawn(i);
+                        }
+                    }
+                    drawChanged();
+                }
+                repaint();
+                break;
+            case KeyEvent.VK_ESCAPE:
+                stop();
+                gameManager.showStartMenu();
+                break;
+        }
+    }
+    
+    private void offer(int player, Direction direction) {
+        if (player < players) {
+            inputs[player].offer(direction, System.nanoTime());
+        }
+    }
+    
+    // Stops the game loop; tests call this before driving step() themselves
+    void stop() {
+        gameLoop.stop();
+    }
+    
+    // Runs on the game loop thread
+    private void tick() {
+        step();
+    }
+    
+    // Make step package-private for testing
+    void step() {
+        synchronized (lock) {
+            for (int i = 0; i < players; i++) {
+                moves[i] = engine.isAlive(i) ? engine.nextTurn(i, inputs[i]) : null;
+            }
+            bots.decide(engine, moves, players, moves.length);
+            engine.step(moves);
+            // Bots rejoin at once; players wait for SPACE
+            for (int i = players; i < moves.length; i++) {
+                if (!engine.isAlive(i)) {
+                    engine.respawn(i);
+                }
+            }
+            drawChanged();
+            updateHud();
+        }
+        repaint();
+    }
+    
+    private void drawAll() {
+        for (int cell = 0; cell < engine.getWidth() * engine.getHeight(); cell++) {
+            drawCell(cell);
+        }
+    }
+    
+    private void drawChanged() {
+        for (int i = 0; i < engine.getChangedCount(); i++) {
+            drawCell(engine.getChangedCell(i));
+        }
+    }
+    
+    private void drawCell(int cell) {
+        int owner = engine.getOwner(cell);
+        raster.fill(cell, owner >= 0 ? snakeRgb[owner] : engine.isFood(cell) ? FOOD_RGB : BACKGROUND_RGB);
+    }
+    
+    private void updateHud() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < players; i++) {
+            text.append("P").append(i + 1).append(' ').append(engine.getScore(i))
+                    .append(engine.isAlive(i) ? "" : " (SPACE)").append("   ");
+        }
+        int bestBot = 0;
+        for (int i = players; i < engine.getSnakeCount(); i++) {
+            bestBot = Math.max(bestBot, engine.getScore(i));
+        }
+        if (engine.getSnakeCount() > players) {
+            text.append("Best bot ").append(bestBot);
+        }
+        hudText = text.toString();
+    }
+    
+    @Override
+    protected void paintComponent(Graphics g) {
+        synchronized (lock) {
+            g.drawImage(raster.getImage(), 0, 0, null);
+            g.setColor(Color.WHITE);
+            g.setFont(HUD_FONT);
+            g.drawString(hudText, 10, 20);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+
+// Arena board image with a square tile per cell. Tiles are written straight into the
+// image's pixels, so redrawing thousands of changed cells a tick stays cheap.
+public class ArenaRaster {
+    private final int width;
+    private final int tileSize;
+    private final BufferedImage image;
+    private final int[] pixels;
+    
+    public ArenaRaster(int width, int height, int tileSize) {
+        this.width = width;
+        this.tileSize = tileSize;
+        this.image = new BufferedImage(width * tileSize, height * tileSize, BufferedImage.TYPE_INT_RGB);
+        this.pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+    }
+    
+    // Colour of a snake without a colour of its own; golden-ratio hues keep neighbouring
+    // snakes apart, and every client of a server picks the same ones
+    public static int snakeRgb(int snake) {
+        return Color.HSBtoRGB((snake * 0.618034f) % 1f, 0.6f, 0.85f);
+    }
+    
+    public void fill(int cell, int rgb) {
+        int stride = image.getWidth();
+        int x0 = (cell % width) * tileSize;
+        int y0 = (cell / width) * tileSize;
+        for (int y = y0; y < y0 + tileSize; y++) {
+            int row = y * stride;
+            for (int x = x0; x < x0 + tileSize; x++) {
+                pixels[row + x] = rgb;
+            }
+        }
+    }
+    
+    public BufferedImage getImage() {
+        return image;
+    }
+}
@@ -0,0 +1,461 @@
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Random;
+
+// Headless arena host: one thread runs a non-blocking selector and the simulation.
+// Every connection gets its own snake. Each tick the cells that changed are encoded
+// once (see Wire) and appended to every client's outbound buffer.
+public class ArenaServer {
+    // A client that falls this far behind is disconnected rather than buffered forever
+    private static final int MAX_PENDING_BYTES = 4 << 20;
+    private static final int BACKLOG = 1024;
+    
+    private final ArenaEngine engine;
+    private final ArenaBots bots;
+    private final int maxPlayers;
+    private final long stepNanos;
+    private final Direction[] moves;
+    private final Client[] clients;
+    private final InputQueue[] inputs;
+    private final boolean[] respawnRequested;
+    // Tick in which a cell was last encoded, so a cell changed twice is sent once
+    private final int[] encodedTick;
+    private ByteBuffer delta = ByteBuffer.allocate(4096);
+    private final ByteBuffer readBuffer = ByteBuffer.allocate(256);
+    
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private final LatencyHistogram tickCpu = new LatencyHistogram();
+    private volatile long ticks;
+    private volatile long bytesQueued;
+    private volatile long clientTicks;
+    private volatile int connected;
+    
+    private Selector selector;
+    private ServerSocketChannel serverChannel;
+    private Thread thread;
+    private volatile boolean running;
+    
+    public ArenaServer(BoardSize boardSize, int maxPlayers, int bots, int foodCount, long stepNanos) {
+        this(boardSize, maxPlayers, bots, foodCount, stepNanos, new Random());
+    }
+    
+    ArenaServer(BoardSize boardSize, int maxPlayers, int bots, int foodCount, long stepNanos, Random random) {
+        this.maxPlayers = maxPlayers;
+        this.stepNanos = stepNanos;
+        this.engine = new ArenaEngine(boardSize.getWidth(), boardSize.getHeight(), maxPlayers + bots, foodCount,
+                random);
+        this.bots = new ArenaBots(maxPlayers + bots, random);
+        // Player slots stay off the board until someone connects
+        for (int i = 0; i < maxPlayers; i++) {
+            engine.remove(i);
+        }
+        this.moves = new Direction[maxPlayers + bots];
+        this.clients = new Client[maxPlayers];
+        this.inputs = new InputQueue[maxPlayers];
+        for (int i = 0; i < maxPlayers; i++) {
+            inputs[i] = new InputQueue(8);
+        }
+        this.respawnRequested = new boolean[maxPlayers];
+        this.encodedTick = new int[boardSize.getWidth() * boardSize.getHeight()];
+    }
+    
+    // Binds the port (0 picks a free one) and starts the server thread
+    public void start(int port) throws IOException {
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(port), BACKLOG);
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        running = true;
+        thread = new Thread(this::run, "arena-server");
+        thread.start();
+    }
+    
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+    
+    // Stops ticking, gives clients a moment to receive what is queued and disconnects them
+    public void close() {
+        running = false;
+        if (thread == null) {
+            return;
+        }
+        selector.wakeup();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private void run() {
+        long nextTick = System.nanoTime() + stepNanos;
+        try {
+            while (running) {
+                long wait = nextTick - System.nanoTime();
+                if (wait > 0) {
+                    selector.select(Math.max(1, wait / 1_000_000));
+                } else {
+                    selector.selectNow();
+                }
+                handleKeys();
+                long now = System.nanoTime();
+                if (now - nextTick >= 0) {
+                    tick();
+                    nextTick += stepNanos;
+                    // Skip ticks that can no longer be caught up instead of running them back to back
+                    if (now - nextTick > stepNanos) {
+                        nextTick = now + stepNanos;
+                    }
+                }
+            }
+            flushAll();
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            for (Client client : clients) {
+                if (client != null) {
+                    disconnect(client);
+                }
+            }
+            try {
+                serverChannel.close();
+                selector.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+    
+    private void handleKeys() throws IOException {
+        Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+        while (keys.hasNext()) {
+            SelectionKey key = keys.next();
+            keys.remove();
+            if (!key.isValid()) {
+                continue;
+            }
+            if (key.isAcceptable()) {
+                accept();
+                continue;
+            }
+            Client client = (Client) key.attachment();
+            if (key.isReadable()) {
+                read(client);
+            }
+            if (key.isValid() && key.isWritable()) {
+                write(client);
+            }
+        }
+    }
+    
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = serverChannel.accept()) != null) {
+            int slot = freeSlot();
+            if (slot < 0) {
+                channel.close();
+                continue;
+            }
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            Client client = new Client(slot, channel);
+            client.key = channel.register(selector, SelectionKey.OP_READ, client);
+            clients[slot] = client;
+            inputs[slot].clear();
+            respawnRequested[slot] = true;
+            connected++;
+        }
+    }
+    
+    private int freeSlot() {
+        for (int i = 0; i < maxPlayers; i++) {
+            if (clients[i] == null) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    private void read(Client client) {
+        readBuffer.clear();
+        readBuffer.put(client.partial, 0, client.partialLength);
+        int n;
+        try {
+            n = client.channel.read(readBuffer);
+        } catch (IOException e) {
+            n = -1;
+        }
+        if (n < 0) {
+            disconnect(client);
+            return;
+        }
+        readBuffer.flip();
+        while (readBuffer.remaining() >= 2) {
+            byte type = readBuffer.get();
+            byte value = readBuffer.get();
+            if (type == Wire.TURN && value >= 0 && value < Direction.values().length) {
+                inputs[client.slot].offer(Direction.values()[value], System.nanoTime());
+            } else if (type == Wire.RESPAWN) {
+                respawnRequested[client.slot] = true;
+            } else {
+                disconnect(client);
+                return;
+            }
+        }
+        client.partialLength = readBuffer.remaining();
+        readBuffer.get(client.partial, 0, client.partialLength);
+    }
+    
+    // Runs one simulation step and queues its delta for every client
+    private void tick() {
+        long start = threads.getCurrentThreadCpuTime();
+        for (int i = 0; i < maxPlayers; i++) {
+            moves[i] = engine.isAlive(i) ? engine.nextTurn(i, inputs[i]) : null;
+        }
+        bots.decide(engine, moves, maxPlayers, moves.length);
+        engine.step(moves);
+        // Joins, leaves and respawns land in the engine's change log after the step, so
+        // they go out in the same delta
+        for (int i = 0; i < maxPlayers; i++) {
+            if (clients[i] == null) {
+                engine.remove(i);
+            } else if (respawnRequested[i]) {
+                respawnRequested[i] = false;
+                engine.respawn(i);
+            }
+        }
+        for (int i = maxPlayers; i < moves.length; i++) {
+            if (!engine.isAlive(i)) {
+                engine.respawn(i);
+            }
+        }
+        ticks++;
+        encodeDelta();
+        
+        int recipients = 0;
+        long queued = 0;
+        for (Client client : clients) {
+            if (client == null) {
+                continue;
+            }
+            ByteBuffer message = client.welcomed ? delta : encodeWelcome(client.slot);
+            client.welcomed = true;
+            queued += message.remaining();
+            recipients++;
+            if (!client.queue(message)) {
+                disconnect(client);
+                continue;
+            }
+            write(client);
+        }
+        bytesQueued += queued;
+        clientTicks += recipients;
+        tickCpu.record(threads.getCurrentThreadCpuTime() - start);
+    }
+    
+    private void encodeDelta() {
+        int tick = (int) ticks;
+        int changes = 0;
+        for (int i = 0; i < engine.getChangedCount(); i++) {
+            int cell = engine.getChangedCell(i);
+            if (encodedTick[cell] != tick) {
+                encodedTick[cell] = tick;
+                changes++;
+            }
+        }
+        // Varint length prefix, type, tick, count, then at most 10 bytes per change
+        int maxSize = 5 + 1 + 5 + 5 + changes * 10;
+        if (delta.capacity() < maxSize) {
+            delta = ByteBuffer.allocate(Math.max(maxSize, delta.capacity() * 2));
+        }
+        delta.clear();
+        delta.position(5);
+        delta.put(Wire.DELTA);
+        Wire.putVarint(delta, tick);
+        Wire.putVarint(delta, changes);
+        for (int i = 0; i < engine.getChangedCount(); i++) {
+            int cell = engine.getChangedCell(i);
+            // Each cell is written at its first log entry, with its state after the tick
+            if (encodedTick[cell] != tick) {
+                continue;
+            }
+            encodedTick[cell] = -tick;
+            int owner = engine.getOwner(cell);
+            if (owner >= 0) {
+                Wire.putVarint(delta, cell << 2 | Wire.SNAKE);
+                Wire.putVarint(delta, owner);
+            } else {
+                Wire.putVarint(delta, cell << 2 | (engine.isFood(cell) ? Wire.FOOD : Wire.EMPTY));
+            }
+        }
+        frame(delta);
+    }
+    
+    private ByteBuffer encodeWelcome(int slot) {
+        int cells = 0;
+        for (int i = 0; i < engine.getSnakeCount(); i++) {
+            cells += engine.getLength(i);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(5 + 1 + 5 * 6 + cells * 10 + engine.getFoodCount() * 5);
+        buffer.position(5);
+        buffer.put(Wire.WELCOME);
+        Wire.putVarint(buffer, engine.getWidth());
+        Wire.putVarint(buffer, engine.getHeight());
+        Wire.putVarint(buffer, slot);
+        Wire.putVarint(buffer, (int) ticks);
+        Wire.putVarint(buffer, cells);
+        for (int i = 0; i < engine.getSnakeCount(); i++) {
+            for (int j = 0; j < engine.getLength(i); j++) {
+                Wire.putVarint(buffer, engine.getCell(i, j));
+                Wire.putVarint(buffer, i);
+            }
+        }
+        Wire.putVarint(buffer, engine.getFoodCount());
+        for (int i = 0; i < engine.getFoodCount(); i++) {
+            Wire.putVarint(buffer, engine.getFoodCell(i));
+        }
+        frame(buffer);
+        return buffer;
+    }
+    
+    // Writes the length prefix into the 5 bytes reserved in front of the payload and
+    // leaves the buffer positioned at the prefix, ready to be copied out
+    private static void frame(ByteBuffer buffer) {
+        int end = buffer.position();
+        int length = end - 5;
+        int start = 5 - Wire.varintSize(length);
+        buffer.position(start);
+        Wire.putVarint(buffer, length);
+        buffer.limit(end);
+        buffer.position(start);
+    }
+    
+    private void write(Client client) {
+        try {
+            client.flush();
+        } catch (IOException e) {
+            disconnect(client);
+            return;
+        }
+        if (client.key.isValid()) {
+            client.key.interestOps(client.hasPending()
+                    ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+        }
+    }
+    
+    // Gives slow readers up to a second to take what is already queued
+    private void flushAll() throws IOException {
+        long deadline = System.nanoTime() + 1_000_000_000L;
+        while (System.nanoTime() < deadline) {
+            boolean pending = false;
+            for (Client client : clients) {
+                if (client != null && client.hasPending()) {
+                    pending = true;
+                }
+            }
+            if (!pending) {
+                return;
+            }
+            selector.select(10);
+            handleKeys();
+        }
+    }
+    
+    private void disconnect(Client client) {
+        if (clients[client.slot] != client) {
+            return;
+        }
+        clients[client.slot] = null;
+        connected--;
+        client.key.cancel();
+        try {
+            client.channel.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+    
+    // Only valid once the server has been closed, or from the server thread
+    ArenaEngine getEngine() {
+        return engine;
+    }
+    
+    public int getConnectedCount() {
+        return connected;
+    }
+    
+    public long getTickCount() {
+        return ticks;
+    }
+    
+    // CPU time the server thread spent per tick, in nanoseconds
+    public LatencyHistogram getTickCpu() {
+        return tickCpu;
+    }
+    
+    public double getBytesPerClientTick() {
+        long sent = clientTicks;
+        return sent == 0 ? 0 : (double) bytesQueued / sent;
+    }
+    
+    public String getStats() {
+        return String.format("ticks=%d clients=%d tickCpu p50=%.1fus p99=%.1fus max=%.1fus bytes/client/tick=%.1f",
+                ticks, connected, tickCpu.getPercentile(50) / 1000.0, tickCpu.getPercentile(99) / 1000.0,
+                tickCpu.getMax() / 1000.0, getBytesPerClientTick());
+    }
+    
+    private static final class Client {
+        final int slot;
+        final SocketChannel channel;
+        SelectionKey key;
+        boolean welcomed;
+        // Bytes still to be written, between position 0 and position()
+        ByteBuffer pending = ByteBuffer.allocateDirect(1024);
+        // An incomplete two-byte input message carried over to the next read
+        final byte[] partial = new byte[2];
+        int partialLength;
+        
+        Client(int slot, SocketChannel channel) {
+            this.slot = slot;
+            this.channel = channel;
+        }
+        
+        // Appends a message; returns false if the client has fallen too far behind
+        boolean queue(ByteBuffer message) {
+            int needed = pending.position() + message.remaining();
+            if (needed > MAX_PENDING_BYTES) {
+                return false;
+            }
+            if (needed > pending.capacity()) {
+                ByteBuffer bigger = ByteBuffer.allocateDirect(Math.max(needed, pending.capacity() * 2));
+                pending.flip();
+                bigger.put(pending);
+                pending = bigger;
+            }
+            int position = message.position();
+            pending.put(message);
+            message.position(position);
+            return true;
+        }
+        
+        void flush() throws IOException {
+            pending.flip();
+            channel.write(pending);
+            pending.compact();
+        }
+        
+        boolean hasPending() {
+            return pending.position() > 0;
+        }
+    }
+}
@@ -0,0 +1,501 @@
+import java.util.Arrays;
+
+// Plays the game by itself. On boards with a Hamiltonian cycle the snake keeps its body
+// in cycle order, so it can never trap itself: it follows a breadth-first path to the food
+// as long as each step is a shortcut that stays ahead of the tail on the cycle, and
+// otherwise moves along the cycle. Boards without a cycle (both sides odd) take the path
+// only if the tail stays reachable after eating, and chase the tail when it does not.
+// Search arrays are sized to the board and reused, and a planned path is followed without
+// searching again until the food moves, so one search is spread over the whole path.
+// No search visits more than SEARCH_LIMIT cells, so a decision stays within microseconds
+// on any board: food further away is approached along the cycle, or greedily while the
+// tail has room, until a retried search reaches it.
+public class Autopilot implements Policy {
+    private static final int[] DX = {1, 0, -1, 0};
+    private static final int[] DY = {0, 1, 0, -1};
+    // Free cells kept between the head and the tail on the cycle after a shortcut
+    private static final int SHORTCUT_MARGIN = 2;
+    // How often a failed search for the food is retried, in steps
+    private static final int RETRY_INTERVAL = 8;
+    // Cells one search may visit. A tail search that fills them counts the space as open.
+    private static final int SEARCH_LIMIT = 1024;
+    private static final int OPEN = Integer.MAX_VALUE;
+    
+    private int width;
+    private int height;
+    
+    // Search state, indexed by cell (y * width + x). A cell is visited in the current
+    // search when visited[cell] == stamp, so nothing is cleared between searches.
+    private int[] queue;
+    private int[] visited;
+    // Parent cell during the food search, distance during the tail search
+    private int[] parent;
+    // Cells taken or left by the simulated body; a marked cell in freed counts as free
+    private int[] blocked;
+    private int[] freed;
+    private int stamp;
+    
+    // Cells from the head to the food; path[pathIndex] is the next cell to enter
+    private int[] path;
+    private int pathLength;
+    private int pathIndex;
+    private int pathFood = -1;
+    private int expectedHead = -1;
+    
+    // Position of each cell on a Hamiltonian cycle and the cell at each position,
+    // or null if the board has none
+    private int[] cycleIndex;
+    private int[] cycleCells;
+    // Whether the body lies in cycle order from tail to head
+    private boolean onCycle;
+    // Forward distance along the cycle from the tail through each segment to the head, and
+    // the head, tail and length it was taken at
+    private long cycleSpan;
+    private int spanHead;
+    private int spanTail;
+    private int spanLength;
+    // Steps taken since the food appeared without a safe path to it
+    private int stalledSteps;
+    // Whether the last search for the food gave up at SEARCH_LIMIT cells
+    private boolean foodOutOfReach;
+    
+    @Override
+    public Direction choose(SnakeEngine engine) {
+        if (engine.getWidth() != width || engine.getHeight() != height) {
+            allocate(engine.getWidth(), engine.getHeight());
+        }
+        int head = engine.getY(0) * width + engine.getX(0);
+        int food = engine.getFoodCell();
+        onCycle = cycleIndex != null && bodyFollowsCycle(engine, head);
+        
+        if (food != pathFood) {
+            stalledSteps = 0;
+        } else if (pathIndex >= pathLength) {
+            stalledSteps++;
+        }
+        
+        // The cached path stays valid while the snake follows it toward the same food
+        if (head != expectedHead || food != pathFood
+                || (pathIndex >= pathLength && stalledSteps % RETRY_INTERVAL == 0)) {
+            pathFood = food;
+            pathIndex = 0;
+            pathLength = food < 0 || (onCycle && shortcutLimit(engine, head) <= 1) ? 0 : planPath(engine, head, food);
+        }
+        int next = -1;
+        if (engine.getLength() == 1 && food >= 0) {
+            // Nothing to steer around yet, so no search is needed
+            next = onCycle ? approach(head, entryTo(food), food) : approach(head, food, -1);
+            pathLength = 0;
+        } else if (pathIndex < pathLength) {
+            int candidate = path[pathIndex];
+            // On the cycle a step may pass neither the tail nor the food; a step past the
+            // food would leave a whole lap to go once the path is cut
+            if (!onCycle || cycleDistance(head, candidate)
+                    <= Math.min(shortcutLimit(engine, head), cycleDistance(head, food))) {
+                next = candidate;
+                pathIndex++;
+            } else {
+                // Following the path further would break the cycle order
+                pathLength = 0;
+            }
+        }
+        if (next < 0) {
+            if (onCycle) {
+                next = cycleMove(engine, head, food);
+            } else {
+                next = foodOutOfReach ? approachFood(engine, head, food) : fallback(engine, head);
+            }
+        }
+        expectedHead = next;
+        return next < 0 ? engine.getDirection() : directionTo(head, next);
+    }
+    
+    private void allocate(int width, int height) {
+        this.width = width;
+        this.height = height;
+        int cells = width * height;
+        queue = new int[cells];
+        visited = new int[cells];
+        parent = new int[cells];
+        blocked = new int[cells];
+        freed = new int[cells];
+        path = new int[cells];
+        stamp = 0;
+        pathLength = 0;
+        pathFood = -1;
+        expectedHead = -1;
+        onCycle = false;
+        cycleCells = buildCycle(width, height);
+        if (cycleCells != null) {
+            cycleIndex = new int[cells];
+            for (int i = 0; i < cells; i++) {
+                cycleIndex[cycleCells[i]] = i;
+            }
+        } else {
+            cycleIndex = null;
+        }
+    }
+    
+    private int cellCount() {
+        return width * height;
+    }
+    
+    // Steps from one cell to another going forward along the cycle
+    private int cycleDistance(int from, int to) {
+        int distance = cycleIndex[to] - cycleIndex[from];
+        return distance < 0 ? distance + cycleCells.length : distance;
+    }
+    
+    private int cellAt(SnakeEngine engine, int index) {
+        return engine.getY(index) * width + engine.getX(index);
+    }
+    
+    // The body is in cycle order while its span is less than one lap. After a step the
+    // autopilot chose, the span changes only by the cells added at the head and dropped at
+    // the tail; a body it did not steer, such as a game taken over, is walked once.
+    private boolean bodyFollowsCycle(SnakeEngine engine, int head) {
+        int length = engine.getLength();
+        int tail = cellAt(engine, length - 1);
+        if (head == expectedHead && (length == spanLength || length == spanLength + 1)) {
+            cycleSpan += cycleDistance(spanHead, head);
+            if (length == spanLength) {
+                cycleSpan -= cycleDistance(spanTail, tail);
+            }
+        } else {
+            cycleSpan = 0;
+            for (int i = length - 1; i > 0; i--) {
+                cycleSpan += cycleDistance(cellAt(engine, i), cellAt(engine, i - 1));
+            }
+        }
+        spanHead = head;
+        spanTail = tail;
+        spanLength = length;
+        return cycleSpan < cycleCells.length;
+    }
+    
+    // Farthest a move may jump ahead on the cycle without passing the tail. A long snake
+    // only follows the cycle, since shortcuts gain little once most cells are taken.
+    private int shortcutLimit(SnakeEngine engine, int head) {
+        int length = engine.getLength();
+        if (length == 1) {
+            // The head is the tail, so the whole cycle is free
+            return cycleCells.length - 1;
+        }
+        if (length * 2 > cycleCells.length) {
+            return 1;
+        }
+        return Math.max(1, cycleDistance(head, cellAt(engine, length - 1)) - 1 - SHORTCUT_MARGIN);
+    }
+    
+    // The allowed neighbour farthest ahead on the cycle without passing the food
+    private int cycleMove(SnakeEngine engine, int head, int food) {
+        int best = cycleCells[(cycleIndex[head] + 1) % cycleCells.length];
+        int bestDistance = 1;
+        int limit = Math.min(shortcutLimit(engine, head), food < 0 ? 1 : cycleDistance(head, food));
+        int x = head % width;
+        int y = head / width;
+        for (int d = 0; d < 4; d++) {
+            int nx = x + DX[d];
+            int ny = y + DY[d];
+            if (nx < 0 || ny < 0 || nx >= width || ny >= height || engine.isOccupied(nx, ny)) {
+                continue;
+            }
+            int distance = cycleDistance(head, ny * width + nx);
+            if (distance > bestDistance && distance <= limit) {
+                best = ny * width + nx;
+                bestDistance = distance;
+            }
+        }
+        return best;
+    }
+    
+    // The cell before the food on the cycle. A snake of length 1 enters the food from there,
+    // so the two cells it grows into lie in cycle order with the rest of the cycle ahead.
+    private int entryTo(int food) {
+        return cycleCells[(cycleIndex[food] + cycleCells.length - 1) % cycleCells.length];
+    }
+    
+    // Next cell on a shortest walk across an empty board to target, around the avoided cell:
+    // along the axis with further to go, then the other, then sideways.
+    private int approach(int head, int target, int avoid) {
+        if (head == target) {
+            return avoid;
+        }
+        int x = head % width;
+        int y = head / width;
+        int dx = target % width - x;
+        int dy = target / width - y;
+        boolean vertical = Math.abs(dy) >= Math.abs(dx);
+        int next = vertical ? open(x, y + Integer.signum(dy), head, avoid) : open(x + Integer.signum(dx), y, head, avoid);
+        if (next < 0) {
+            next = vertical ? open(x + Integer.signum(dx), y, head, avoid) : open(x, y + Integer.signum(dy), head, avoid);
+        }
+        // Sideways around the avoided cell, and back only when a wall leaves nothing else
+        for (int side = 1; side >= -1 && next < 0; side -= 2) {
+            next = vertical ? open(x + side, y, head, avoid) : open(x, y + side, head, avoid);
+        }
+        for (int d = 0; d < 4 && next < 0; d++) {
+            next = open(x + DX[d], y + DY[d], head, avoid);
+        }
+        return next;
+    }
+    
+    // The cell at x, y unless it is off the board, the head itself or the avoided cell
+    private int open(int x, int y, int head, int avoid) {
+        if (x < 0 || y < 0 || x >= width || y >= height) {
+            return -1;
+        }
+        int cell = y * width + x;
+        return cell == head || cell == avoid ? -1 : cell;
+    }
+    
+    private int nextStamp() {
+        if (++stamp == Integer.MAX_VALUE) {
+            Arrays.fill(visited, 0);
+            Arrays.fill(blocked, 0);
+            Arrays.fill(freed, 0);
+            stamp = 1;
+        }
+        return stamp;
+    }
+    
+    // Returns the length of a safe path to the food, stored in path, or 0 if there is none
+    // within SEARCH_LIMIT cells
+    private int planPath(SnakeEngine engine, int head, int food) {
+        foodOutOfReach = false;
+        int mark = nextStamp();
+        int readIndex = 0;
+        int writeIndex = 0;
+        visited[head] = mark;
+        queue[writeIndex++] = head;
+        boolean found = false;
+        while (readIndex < writeIndex && !found) {
+            int cell = queue[readIndex++];
+            int x = cell % width;
+            int y = cell / width;
+            for (int d = 0; d < 4; d++) {
+                int nx = x + DX[d];
+                int ny = y + DY[d];
+                if (nx < 0 || ny < 0 || nx >= width || ny >= height) {
+                    continue;
+                }
+                int neighbour = ny * width + nx;
+                if (visited[neighbour] == mark || engine.isOccupied(nx, ny)) {
+                    continue;
+                }
+                visited[neighbour] = mark;
+                parent[neighbour] = cell;
+                if (neighbour == food) {
+                    found = true;
+                    break;
+                }
+                if (writeIndex == SEARCH_LIMIT) {
+                    foodOutOfReach = true;
+                    return 0;
+                }
+                queue[writeIndex++] = neighbour;
+            }
+        }
+        if (!found) {
+            return 0;
+        }
+    
+        // Walk the parents back from the food, then reverse into head-to-food order
+        int length = 0;
+        for (int cell = food; cell != head; cell = parent[cell]) {
+            path[length++] = cell;
+        }
+        for (int i = 0, j = length - 1; i < j; i++, j--) {
+            int swap = path[i];
+            path[i] = path[j];
+            path[j] = swap;
+        }
+        // Cycle order already keeps the tail reachable. After circling the whole board
+        // without a safe path, take the risk rather than loop forever.
+        boolean safe = onCycle || stalledSteps > cellCount() || tailReachableAfter(engine, length);
+        return safe ? length : 0;
+    }
+    
+    // Checks that the snake's head could still reach its tail after following path and
+    // eating, so it cannot have boxed itself in. Only the path and the cells the tail leaves
+    // meanwhile are marked; the rest of the body is read from the board.
+    private boolean tailReachableAfter(SnakeEngine engine, int length) {
+        int bodyLength = engine.getLength();
+        int newLength = bodyLength + 1;
+        if (newLength == cellCount()) {
+            // Eating fills the board
+            return true;
+        }
+        int mark = nextStamp();
+        for (int i = Math.max(0, length - newLength); i < length; i++) {
+            blocked[path[i]] = mark;
+        }
+        for (int i = Math.max(0, newLength - length); i < bodyLength; i++) {
+            freed[cellAt(engine, i)] = mark;
+        }
+        int tail = length >= newLength ? path[length - newLength] : cellAt(engine, newLength - length - 1);
+        return search(engine, path[length - 1], tail, mark) >= 0;
+    }
+    
+    // Breadth-first search over free cells, counting cells marked blocked with blockMark as
+    // taken and cells marked freed as free, except the target. Returns the distance to
+    // target, OPEN once SEARCH_LIMIT cells are reachable, or -1; parent holds distances
+    // meanwhile.
+    private int search(SnakeEngine engine, int start, int target, int blockMark) {
+        int mark = nextStamp();
+        int readIndex = 0;
+        int writeIndex = 0;
+        visited[start] = mark;
+        parent[start] = 0;
+        queue[writeIndex++] = start;
+        while (readIndex < writeIndex) {
+            int cell = queue[readIndex++];
+            int x = cell % width;
+            int y = cell / width;
+            for (int d = 0; d < 4; d++) {
+                int nx = x + DX[d];
+                int ny = y + DY[d];
+                if (nx < 0 || ny < 0 || nx >= width || ny >= height) {
+                    continue;
+                }
+                int neighbour = ny * width + nx;
+                if (visited[neighbour] == mark) {
+                    continue;
+                }
+                if (neighbour == target) {
+                    // The tail cell still counts as occupied while the head moves,
+                    // so the head cannot enter it directly from the start
+                    if (cell != start) {
+                        return parent[cell] + 1;
+                    }
+                    continue;
+                }
+                if (blocked[neighbour] == blockMark
+                        || (engine.isOccupied(nx, ny) && freed[neighbour] != blockMark)) {
+                    continue;
+                }
+                if (writeIndex == SEARCH_LIMIT) {
+                    return OPEN;
+                }
+                visited[neighbour] = mark;
+                parent[neighbour] = parent[cell] + 1;
+                queue[writeIndex++] = neighbour;
+            }
+        }
+        return -1;
+    }
+    
+    // The food is too far away to search for: the free neighbour nearest it that keeps the
+    // tail reachable, trying the nearest first, otherwise the fallback
+    private int approachFood(SnakeEngine engine, int head, int food) {
+        int x = head % width;
+        int y = head / width;
+        int tried = 0;
+        while (true) {
+            int best = -1;
+            int bestDirection = -1;
+            for (int d = 0; d < 4; d++) {
+                int nx = x + DX[d];
+                int ny = y + DY[d];
+                if ((tried & 1 << d) != 0 || nx < 0 || ny < 0 || nx >= width || ny >= height
+                        || engine.isOccupied(nx, ny)) {
+                    continue;
+                }
+                int neighbour = ny * width + nx;
+                if (best < 0 || manhattan(neighbour, food) < manhattan(best, food)) {
+                    best = neighbour;
+                    bestDirection = d;
+                }
+            }
+            if (best < 0) {
+                return fallback(engine, head);
+            }
+            if (tailDistanceAfterMove(engine, best) >= 0) {
+                return best;
+            }
+            tried |= 1 << bestDirection;
+        }
+    }
+    
+    // No safe path to the food and no cycle to follow: the neighbour that keeps the tail
+    // reachable by the longest way round, otherwise any free neighbour. Returns -1 if every
+    // move loses.
+    private int fallback(SnakeEngine engine, int head) {
+        int best = -1;
+        int bestDistance = -1;
+        int anyFree = -1;
+        int x = head % width;
+        int y = head / width;
+        for (int d = 0; d < 4; d++) {
+            int nx = x + DX[d];
+            int ny = y + DY[d];
+            if (nx < 0 || ny < 0 || nx >= width || ny >= height || engine.isOccupied(nx, ny)) {
+                continue;
+            }
+            int neighbour = ny * width + nx;
+            anyFree = neighbour;
+            int distance = tailDistanceAfterMove(engine, neighbour);
+            if (distance < 0) {
+                continue;
+            }
+            if (distance > bestDistance) {
+                best = neighbour;
+                bestDistance = distance;
+            }
+        }
+        return best >= 0 ? best : anyFree;
+    }
+    
+    // Distance from the head to the tail after one move without eating, OPEN, or -1
+    private int tailDistanceAfterMove(SnakeEngine engine, int next) {
+        int length = engine.getLength();
+        if (length == 1) {
+            return OPEN;
+        }
+        int mark = nextStamp();
+        blocked[next] = mark;
+        freed[cellAt(engine, length - 1)] = mark;
+        return search(engine, next, cellAt(engine, length - 2), mark);
+    }
+    
+    private int manhattan(int from, int to) {
+        return Math.abs(from % width - to % width) + Math.abs(from / width - to / width);
+    }
+    
+    private Direction directionTo(int from, int to) {
+        if (to == from + 1) {
+            return Direction.RIGHT;
+        }
+        if (to == from - 1) {
+            return Direction.LEFT;
+        }
+        return to > from ? Direction.DOWN : Direction.UP;
+    }
+    
+    // Cells in cycle order: along row 0, zig-zag back through columns 1.. and up column 0.
+    // Needs an even number of rows, so boards with only an even width are walked transposed.
+    static int[] buildCycle(int width, int height) {
+        boolean transposed;
+        if (height % 2 == 0 && width >= 2) {
+            transposed = false;
+        } else if (width % 2 == 0 && height >= 2) {
+            transposed = true;
+        } else {
+            return null;
+        }
+        int rows = transposed ? width : height;
+        int columns = transposed ? height : width;
+        int[] order = new int[width * height];
+        int count = 0;
+        for (int row = 0; row < rows; row++) {
+            for (int i = 1; i < columns; i++) {
+                int column = row % 2 == 0 ? i : columns - i;
+                order[count++] = transposed ? column * width + row : row * width + column;
+            }
+        }
+        for (int row = rows - 1; row >= 0; row--) {
+            order[count++] = transposed ? row : row * width;
+        }
+        return order;
+    }
+}
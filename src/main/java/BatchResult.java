@@ -0,0 +1,99 @@
+// Aggregate outcome of a batch of games. Each fork-join task fills its own result
+// and the results are merged with add(), so recording needs no synchronization.
+public class BatchResult {
+    private final LatencyHistogram scores = new LatencyHistogram();
+    private final LatencyHistogram lengths = new LatencyHistogram();
+    private final LatencyHistogram steps = new LatencyHistogram();
+    private long games;
+    private long wins;
+    private long wallDeaths;
+    private long selfDeaths;
+    // Games still running when the step cap was reached
+    private long unfinished;
+    private long totalScore;
+    private long totalSteps;
+    
+    void record(StepResult last, int score, int length, int stepCount) {
+        games++;
+        if (last == StepResult.WON) {
+            wins++;
+        } else if (last == StepResult.HIT_WALL) {
+            wallDeaths++;
+        } else if (last == StepResult.HIT_SELF) {
+            selfDeaths++;
+        } else {
+            unfinished++;
+        }
+        totalScore += score;
+        totalSteps += stepCount;
+        scores.record(score);
+        lengths.record(length);
+        steps.record(stepCount);
+    }
+    
+    public void add(BatchResult other) {
+        games += other.games;
+        wins += other.wins;
+        wallDeaths += other.wallDeaths;
+        selfDeaths += other.selfDeaths;
+        unfinished += other.unfinished;
+        totalScore += other.totalScore;
+        totalSteps += other.totalSteps;
+        scores.add(other.scores);
+        lengths.add(other.lengths);
+        steps.add(other.steps);
+    }
+    
+    public long getGames() {
+        return games;
+    }
+    
+    public long getWins() {
+        return wins;
+    }
+    
+    public long getWallDeaths() {
+        return wallDeaths;
+    }
+    
+    public long getSelfDeaths() {
+        return selfDeaths;
+    }
+    
+    public long getUnfinished() {
+        return unfinished;
+    }
+    
+    public long getTotalScore() {
+        return totalScore;
+    }
+    
+    public long getTotalSteps() {
+        return totalSteps;
+    }
+    
+    public double getMeanScore() {
+        return games == 0 ? 0 : (double) totalScore / games;
+    }
+    
+    // The histograms are the same log-linear buckets used for latencies,
+    // so percentiles of larger values are approximate
+    public LatencyHistogram getScores() {
+        return scores;
+    }
+    
+    public LatencyHistogram getLengths() {
+        return lengths;
+    }
+    
+    public LatencyHistogram getSteps() {
+        return steps;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("%d games: mean score %.2f (p50 %d, p99 %d, max %d), %d won, %d hit wall, %d hit self, %d unfinished",
+                games, getMeanScore(), scores.getPercentile(50), scores.getPercentile(99), scores.getMax(),
+                wins, wallDeaths, selfDeaths, unfinished);
+    }
+}
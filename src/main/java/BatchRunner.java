@@ -0,0 +1,95 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Supplier;
+
+// Plays many headless games in parallel, one per seed. A game with seed s is
+// exactly the game SnakeGame would play after reseeding its GameRandom with s,
+// so any result can be reproduced on its own or recorded as a replay.
+public class BatchRunner {
+    // Seeds per fork-join leaf; each leaf reuses one engine for all its games
+    private static final int GAMES_PER_TASK = 8;
+    
+    private final Supplier<Policy> policies;
+    private final Difficulty difficulty;
+    private final BoardSize boardSize;
+    private final int maxSteps;
+    
+    // Difficulty only sets the real-time speed, so it labels the batch without changing outcomes
+    public BatchRunner(Supplier<Policy> policies, Difficulty difficulty, BoardSize boardSize, int maxSteps) {
+        if (maxSteps <= 0) {
+            throw new IllegalArgumentException("maxSteps must be positive: " + maxSteps);
+        }
+        this.policies = policies;
+        this.difficulty = difficulty;
+        this.boardSize = boardSize;
+        this.maxSteps = maxSteps;
+    }
+    
+    public Difficulty getDifficulty() {
+        return difficulty;
+    }
+    
+    public BoardSize getBoardSize() {
+        return boardSize;
+    }
+    
+    public int getMaxSteps() {
+        return maxSteps;
+    }
+    
+    // Plays seeds firstSeed, firstSeed + 1, ... on the common pool
+    public BatchResult run(long firstSeed, int games) {
+        return run(firstSeed, games, ForkJoinPool.commonPool());
+    }
+    
+    public BatchResult run(long firstSeed, int games, ForkJoinPool pool) {
+        if (games < 0) {
+            throw new IllegalArgumentException("games must not be negative: " + games);
+        }
+        return pool.invoke(new Games(firstSeed, firstSeed + games));
+    }
+    
+    private BatchResult playAll(long fromSeed, long toSeed) {
+        BatchResult result = new BatchResult();
+        GameRandom random = new GameRandom(fromSeed);
+        SnakeEngine engine = new SnakeEngine(boardSize.getWidth(), boardSize.getHeight(), random);
+        for (long seed = fromSeed; seed < toSeed; seed++) {
+            if (seed != fromSeed) {
+                random.setSeed(seed);
+                engine.reset();
+            }
+            Policy policy = policies.get();
+            StepResult last = StepResult.MOVED;
+            int steps = 0;
+            while (engine.isRunning() && steps < maxSteps) {
+                last = engine.step(policy.choose(engine));
+                steps++;
+            }
+            result.record(last, engine.getScore(), engine.getLength(), steps);
+        }
+        return result;
+    }
+    
+    private class Games extends RecursiveTask<BatchResult> {
+        private final long fromSeed;
+        private final long toSeed;
+        
+        Games(long fromSeed, long toSeed) {
+            this.fromSeed = fromSeed;
+            this.toSeed = toSeed;
+        }
+        
+        @Override
+        protected BatchResult compute() {
+            if (toSeed - fromSeed <= GAMES_PER_TASK) {
+                return playAll(fromSeed, toSeed);
+            }
+            long middle = fromSeed + (toSeed - fromSeed) / 2;
+            Games left = new Games(fromSeed, middle);
+            left.fork();
+            BatchResult result = new Games(middle, toSeed).compute();
+            result.add(left.join());
+            return result;
+        }
+    }
+}
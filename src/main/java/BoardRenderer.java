@@ -0,0 +1,146 @@
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.VolatileImage;
+
+// Keeps the board in a persistent image and redraws only the cells a step changed.
+// Cells are blitted from a SpriteAtlas. Given a screen GraphicsConfiguration the board
+// image is a VolatileImage, otherwise (headless, tests, benchmarks) a BufferedImage.
+public class BoardRenderer {
+    static final Color HEAD_COLOR = Color.GREEN;
+    static final Color BODY_COLOR = new Color(45, 180, 45);
+    static final Color BACKGROUND = Color.BLACK;
+    private static final int MAX_DIRTY_CELLS = 4;
+    
+    private final int width;
+    private final int tileSize;
+    private final int imageWidth;
+    private final int imageHeight;
+    private final GraphicsConfiguration configuration;
+    private final SpriteAtlas atlas;
+    private Image image;
+    private Graphics2D g;
+    private final int[] dirtyCells = new int[MAX_DIRTY_CELLS];
+    private int dirtyCount;
+    private int lastFood = -1;
+    private boolean valid;
+    
+    public BoardRenderer(BoardSize boardSize, int tileSize) {
+        this(boardSize, tileSize, null);
+    }
+    
+    public BoardRenderer(BoardSize boardSize, int tileSize, GraphicsConfiguration configuration) {
+        this.width = boardSize.getWidth();
+        this.tileSize = tileSize;
+        this.imageWidth = width * tileSize;
+        this.imageHeight = boardSize.getHeight() * tileSize;
+        this.configuration = configuration;
+        this.atlas = new SpriteAtlas(tileSize, configuration);
+        createImage();
+    }
+    
+    private void createImage() {
+        if (g != null) {
+            g.dispose();
+            image.flush();
+        }
+        image = configuration != null
+                ? configuration.createCompatibleVolatileImage(imageWidth, imageHeight)
+                : new BufferedImage(imageWidth, imageHeight, BufferedImage.TYPE_INT_RGB);
+        g = (Graphics2D) image.getGraphics();
+        valid = false;
+    }
+    
+    public Image getImage() {
+        return image;
+    }
+    
+    public int getTileSize() {
+        return tileSize;
+    }
+    
+    public boolean isAccelerated() {
+        return image instanceof VolatileImage;
+    }
+    
+    // Forces the next update to redraw the whole board
+    public void invalidate() {
+        valid = false;
+    }
+    
+    // Checks a VolatileImage board before it is drawn from, redrawing it if video memory
+    // was lost. Returns true if the whole board was redrawn.
+    public boolean restore(SnakeEngine engine) {
+        if (image instanceof VolatileImage) {
+            int status = ((VolatileImage) image).validate(configuration);
+            if (status == VolatileImage.IMAGE_INCOMPATIBLE) {
+                createImage();
+            } else if (status == VolatileImage.IMAGE_RESTORED) {
+                valid = false;
+            }
+        }
+        if (!valid) {
+            renderAll(engine);
+            return true;
+        }
+        return false;
+    }
+    
+    // True if the board or its sprites lost their video memory after the last draw
+    public boolean contentsLost() {
+        return (image instanceof VolatileImage && ((VolatileImage) image).contentsLost()) || atlas.contentsLost();
+    }
+    
+    // Brings the image up to date with the engine. Returns true if the whole
+    // board was redrawn, otherwise the changed cells are listed as dirty.
+    public boolean update(SnakeEngine engine) {
+        dirtyCount = 0;
+        if (restore(engine)) {
+            return true;
+        }
+        
+        int vacated = engine.getVacatedCell();
+        if (vacated >= 0) {
+            drawCell(vacated, SpriteAtlas.EMPTY);
+        }
+        if (engine.getLength() > 1) {
+            drawCell(engine.getY(1) * width + engine.getX(1), SpriteAtlas.BODY);
+        }
+        drawCell(engine.getY(0) * width + engine.getX(0), SpriteAtlas.HEAD);
+        
+        int food = engine.getFoodCell();
+        if (food != lastFood && food >= 0) {
+            drawCell(food, SpriteAtlas.FOOD);
+        }
+        lastFood = food;
+        return false;
+    }
+    
+    public void renderAll(SnakeEngine engine) {
+        g.setColor(BACKGROUND);
+        g.fillRect(0, 0, imageWidth, imageHeight);
+        lastFood = engine.getFoodCell();
+        if (lastFood >= 0) {
+            drawCell(lastFood, SpriteAtlas.FOOD);
+        }
+        for (int i = engine.getLength() - 1; i >= 0; i--) {
+            drawCell(engine.getY(i) * width + engine.getX(i), i == 0 ? SpriteAtlas.HEAD : SpriteAtlas.BODY);
+        }
+        dirtyCount = 0;
+        valid = true;
+    }
+    
+    public int getDirtyCount() {
+        return dirtyCount;
+    }
+    
+    public int getDirtyCell(int index) {
+        return dirtyCells[index];
+    }
+    
+    private void drawCell(int cell, int sprite) {
+        atlas.draw(g, sprite, (cell % width) * tileSize, (cell / width) * tileSize);
+        if (dirtyCount < MAX_DIRTY_CELLS) {
+            dirtyCells[dirtyCount++] = cell;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+public final class BoardSize {
+    public static final int MAX_DIMENSION = 1000;
+    public static final BoardSize DEFAULT = new BoardSize(20, 20);
+    
+    private final int width;
+    private final int height;
+    
+    public BoardSize(int width, int height) {
+        if (!isSupported(width, height)) {
+            throw new IllegalArgumentException("Unsupported board size " + width + "x" + height);
+        }
+        this.width = width;
+        this.height = height;
+    }
+    
+    public static boolean isSupported(int width, int height) {
+        return width >= 2 && height >= 1 && width <= MAX_DIMENSION && height <= MAX_DIMENSION;
+    }
+    
+    // Parses sizes written as "WIDTHxHEIGHT", e.g. "100x80"
+    public static BoardSize parse(String text) {
+        int separator = text.indexOf('x');
+        if (separator < 0) {
+            throw new IllegalArgumentException("Expected WIDTHxHEIGHT but got " + text);
+        }
+        return new BoardSize(Integer.parseInt(text.substring(0, separator).trim()),
+                Integer.parseInt(text.substring(separator + 1).trim()));
+    }
+    
+    public int getWidth() {
+        return width;
+    }
+    
+    public int getHeight() {
+        return height;
+    }
+    
+    public int getCellCount() {
+        return width * height;
+    }
+    
+    // Largest tile size that fits the board into maxPixels, never below one pixel
+    public int tileSizeFor(int maxPixels) {
+        return Math.max(1, Math.min(maxPixels / width, maxPixels / height));
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof BoardSize)) {
+            return false;
+        }
+        BoardSize other = (BoardSize) o;
+        return width == other.width && height == other.height;
+    }
+    
+    @Override
+    public int hashCode() {
+        return width * 31 + height;
+    }
+    
+    @Override
+    public String toString() {
+        return width + "x" + height;
+    }
+}
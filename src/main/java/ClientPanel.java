@@ -0,0 +1,204 @@
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.*;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.channels.UnresolvedAddressException;
+import java.util.concurrent.TimeUnit;
+
+// Thin client for ArenaServer: sends arrow keys and SPACE, draws the board it is sent.
+// A reader thread applies server messages to a ClientState and redraws changed cells.
+public class ClientPanel extends JPanel {
+    private static final int BOARD_PIXELS = 800;
+    private static final Font HUD_FONT = new Font("Arial", Font.BOLD, 14);
+    private static final int FOOD_RGB = Color.RED.getRGB();
+    private static final int BACKGROUND_RGB = BoardRenderer.BACKGROUND.getRGB();
+    private static final int OWN_RGB = BoardRenderer.HEAD_COLOR.getRGB();
+    
+    private final GameManager gameManager;
+    private final SocketChannel channel;
+    private final ClientState state;
+    private final ByteBuffer outbound = ByteBuffer.allocate(2);
+    private final Thread reader;
+    private final ArenaRaster raster;
+    // Guards raster, which the reader thread updates while the EDT paints
+    private final Object lock = new Object();
+    private volatile boolean closed;
+    
+    // Takes over a channel whose handshake() has completed
+    ClientPanel(GameManager gameManager, SocketChannel channel, ClientState state) {
+        this.gameManager = gameManager;
+        this.channel = channel;
+        this.state = state;
+        BoardSize boardSize = new BoardSize(state.getWidth(), state.getHeight());
+        this.raster = new ArenaRaster(state.getWidth(), state.getHeight(), boardSize.tileSizeFor(BOARD_PIXELS));
+        drawAll();
+        
+        setPreferredSize(new Dimension(raster.getImage().getWidth(), raster.getImage().getHeight()));
+        setBackground(BoardRenderer.BACKGROUND);
+        setFocusable(true);
+        addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                handleKeyPress(e.getKeyCode());
+            }
+        });
+        
+        reader = new Thread(this::readLoop, "arena-client");
+        reader.setDaemon(true);
+        reader.start();
+    }
+    
+    // Connects and waits for the server's welcome, which carries the board size, giving up
+    // after timeoutMillis. Blocks, so callers run it off the EDT.
+    static SocketChannel handshake(String host, int port, ClientState state, long timeoutMillis) throws IOException {
+        SocketChannel channel = SocketChannel.open();
+        try {
+            channel.configureBlocking(false);
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+            try (Selector selector = Selector.open()) {
+                SelectionKey key = channel.register(selector, SelectionKey.OP_CONNECT);
+                if (channel.connect(new InetSocketAddress(host, port))) {
+                    key.interestOps(SelectionKey.OP_READ);
+                }
+                while (!state.isReady()) {
+                    long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                    if (remaining <= 0) {
+                        throw new IOException("No answer from " + host + ":" + port);
+                    }
+                    if (selector.select(remaining) == 0) {
+                        continue;
+                    }
+                    selector.selectedKeys().clear();
+                    if (key.interestOps() == SelectionKey.OP_CONNECT) {
+                        if (channel.finishConnect()) {
+                            key.interestOps(SelectionKey.OP_READ);
+                        }
+                    } else if (state.read(channel) < 0) {
+                        throw new IOException("Server closed the connection");
+                    }
+                }
+            }
+            // Closing the selector deregistered the channel, so the reader thread can block on it
+            channel.configureBlocking(true);
+            channel.socket().setTcpNoDelay(true);
+            return channel;
+        } catch (UnresolvedAddressException e) {
+            channel.close();
+            throw new IOException("Unknown host " + host);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+    
+    // Make handleKeyPress package-private for testing
+    void handleKeyPress(int keyCode) {
+        switch (keyCode) {
+            case KeyEvent.VK_UP:
+                send(Wire.TURN, Direction.UP.ordinal());
+                break;
+            case KeyEvent.VK_DOWN:
+                send(Wire.TURN, Direction.DOWN.ordinal());
+                break;
+            case KeyEvent.VK_LEFT:
+                send(Wire.TURN, Direction.LEFT.ordinal());
+                break;
+            case KeyEvent.VK_RIGHT:
+                send(Wire.TURN, Direction.RIGHT.ordinal());
+                break;
+            case KeyEvent.VK_SPACE:
+                send(Wire.RESPAWN, 0);
+                break;
+            case KeyEvent.VK_ESCAPE:
+                close();
+                gameManager.showStartMenu();
+                break;
+        }
+    }
+    
+    private void send(byte type, int value) {
+        if (closed) {
+            return;
+        }
+        outbound.clear();
+        outbound.put(type).put((byte) value).flip();
+        try {
+            while (outbound.hasRemaining()) {
+                channel.write(outbound);
+            }
+        } catch (IOException e) {
+            close();
+        }
+    }
+    
+    public void close() {
+        closed = true;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+    
+    private void readLoop() {
+        try {
+            while (!closed) {
+                // Only this thread touches state, so the blocking read happens outside the lock
+                if (state.read(channel) < 0) {
+                    break;
+                }
+                synchronized (lock) {
+                    if (state.isResized()) {
+                        drawAll();
+                    } else {
+                        for (int i = 0; i < state.getChangedCount(); i++) {
+                            drawCell(state.getChangedCell(i));
+                        }
+                    }
+                }
+                repaint();
+            }
+        } catch (IOException e) {
+            if (!closed) {
+                e.printStackTrace();
+            }
+        }
+        closed = true;
+        repaint();
+    }
+    
+    private void drawAll() {
+        for (int cell = 0; cell < state.getWidth() * state.getHeight(); cell++) {
+            drawCell(cell);
+        }
+    }
+    
+    private void drawCell(int cell) {
+        int owner = state.getOwner(cell);
+        int rgb;
+        if (owner == state.getSnakeId()) {
+            rgb = OWN_RGB;
+        } else if (owner >= 0) {
+            rgb = ArenaRaster.snakeRgb(owner);
+        } else {
+            rgb = state.isFood(cell) ? FOOD_RGB : BACKGROUND_RGB;
+        }
+        raster.fill(cell, rgb);
+    }
+    
+    @Override
+    protected void paintComponent(Graphics g) {
+        synchronized (lock) {
+            g.drawImage(raster.getImage(), 0, 0, null);
+        }
+        g.setColor(Color.WHITE);
+        g.setFont(HUD_FONT);
+        g.drawString(closed ? "Disconnected (ESC)" : "Snake " + (state.getSnakeId() + 1) + "   SPACE to respawn",
+                10, 20);
+    }
+}
@@ -0,0 +1,155 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Arrays;
+
+// Client-side copy of an ArenaServer board, rebuilt from WELCOME and DELTA messages.
+// Like ArenaEngine it logs the cells each read changed, so views redraw only those.
+public class ClientState {
+    private static final int FOOD = -1;
+    
+    private ByteBuffer inbound = ByteBuffer.allocate(64 * 1024);
+    private int width;
+    private int height;
+    private int snakeId = -1;
+    private int tick;
+    // Snake index + 1 on each cell, FOOD, or 0 when empty
+    private int[] cells = new int[0];
+    private boolean resized;
+    private int[] changed = new int[256];
+    private int changedCount;
+    
+    // Reads what the channel has and applies every complete message. Returns the number
+    // of bytes read, -1 at end of stream.
+    public int read(ReadableByteChannel channel) throws IOException {
+        changedCount = 0;
+        resized = false;
+        if (!inbound.hasRemaining()) {
+            inbound = grow(inbound);
+        }
+        int n = channel.read(inbound);
+        inbound.flip();
+        int length;
+        while ((length = Wire.nextMessage(inbound)) >= 0) {
+            int end = inbound.position() + length;
+            apply(inbound);
+            inbound.position(end);
+        }
+        // A message larger than the buffer needs room to arrive in full
+        if (inbound.position() == 0 && inbound.limit() == inbound.capacity()) {
+            inbound.position(inbound.limit());
+            inbound.limit(inbound.capacity());
+            inbound = grow(inbound);
+        } else {
+            inbound.compact();
+        }
+        return n;
+    }
+    
+    private static ByteBuffer grow(ByteBuffer buffer) {
+        ByteBuffer bigger = ByteBuffer.allocate(buffer.capacity() * 2);
+        buffer.flip();
+        bigger.put(buffer);
+        return bigger;
+    }
+    
+    private void apply(ByteBuffer message) throws IOException {
+        byte type = message.get();
+        if (type == Wire.WELCOME) {
+            applyWelcome(message);
+        } else if (type == Wire.DELTA) {
+            applyDelta(message);
+        } else {
+            throw new IOException("Unknown message type " + type);
+        }
+    }
+    
+    private void applyWelcome(ByteBuffer message) {
+        width = Wire.getVarint(message);
+        height = Wire.getVarint(message);
+        snakeId = Wire.getVarint(message);
+        tick = Wire.getVarint(message);
+        if (cells.length != width * height) {
+            cells = new int[width * height];
+        } else {
+            Arrays.fill(cells, 0);
+        }
+        int snakeCells = Wire.getVarint(message);
+        for (int i = 0; i < snakeCells; i++) {
+            int cell = Wire.getVarint(message);
+            cells[cell] = Wire.getVarint(message) + 1;
+        }
+        int food = Wire.getVarint(message);
+        for (int i = 0; i < food; i++) {
+            cells[Wire.getVarint(message)] = FOOD;
+        }
+        resized = true;
+    }
+    
+    private void applyDelta(ByteBuffer message) {
+        tick = Wire.getVarint(message);
+        int changes = Wire.getVarint(message);
+        for (int i = 0; i < changes; i++) {
+            int value = Wire.getVarint(message);
+            int cell = value >>> 2;
+            int kind = value & 3;
+            if (kind == Wire.SNAKE) {
+                cells[cell] = Wire.getVarint(message) + 1;
+            } else {
+                cells[cell] = kind == Wire.FOOD ? FOOD : 0;
+            }
+            markChanged(cell);
+        }
+    }
+    
+    private void markChanged(int cell) {
+        if (changedCount == changed.length) {
+            changed = Arrays.copyOf(changed, changed.length * 2);
+        }
+        changed[changedCount++] = cell;
+    }
+    
+    // True once a WELCOME has arrived
+    public boolean isReady() {
+        return snakeId >= 0;
+    }
+    
+    public int getWidth() {
+        return width;
+    }
+    
+    public int getHeight() {
+        return height;
+    }
+    
+    // The snake this client steers
+    public int getSnakeId() {
+        return snakeId;
+    }
+    
+    public int getTick() {
+        return tick;
+    }
+    
+    // Index of the snake on a cell, or -1
+    public int getOwner(int cell) {
+        return Math.max(cells[cell], 0) - 1;
+    }
+    
+    public boolean isFood(int cell) {
+        return cells[cell] == FOOD;
+    }
+    
+    // True if the last read replaced the whole board, after which every cell needs redrawing
+    public boolean isResized() {
+        return resized;
+    }
+    
+    public int getChangedCount() {
+        return changedCount;
+    }
+    
+    public int getChangedCell(int index) {
+        return changed[index];
+    }
+}
@@ -1,17 +1,21 @@
 public enum Difficulty {
-    EASY(150, "Easy"),
-    NORMAL(100, "Normal"),
-    HARD(70, "Hard"),
-    EXTREME(40, "Extreme");
+    // Start delay, fastest delay and how much faster each food makes the game
+    EASY(150, 60, 0.99, "Easy"),
+    NORMAL(100, 30, 0.98, "Normal"),
+    HARD(70, 15, 0.97, "Hard"),
+    EXTREME(40, 8, 0.96, "Extreme");
 
     private final int delay;
     private final String name;
+    private final SpeedCurve speedCurve;
 
-    Difficulty(int delay, String name) {
+    Difficulty(int delay, int minDelay, double speedUp, String name) {
         this.delay = delay;
         this.name = name;
+        this.speedCurve = SpeedCurve.ramp(delay * 1_000_000L, minDelay * 1_000_000L, speedUp);
     }
 
+    // Delay at the start of a game, in milliseconds
     public int getDelay() {
         return delay;
     }
@@ -19,4 +23,8 @@ public enum Difficulty {
     public String getName() {
         return name;
     }
-}
\ No newline at end of file
+
+    public SpeedCurve getSpeedCurve() {
+        return speedCurve;
+    }
+}
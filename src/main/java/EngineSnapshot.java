@@ -0,0 +1,74 @@
+// Immutable copy of a SnakeEngine's state, taken with SnakeEngine.snapshot().
+public final class EngineSnapshot {
+    private final int width;
+    private final int height;
+    // Packed cells, index 0 is the head
+    private final int[] body;
+    // Free cells in the engine's index order, which decides where food spawns
+    private final int[] freeCells;
+    private final int food;
+    private final Direction direction;
+    private final int score;
+    private final boolean running;
+    private final boolean hasRandomState;
+    private final long randomState;
+    
+    EngineSnapshot(int width, int height, int[] body, int[] freeCells, int food, Direction direction, int score,
+                   boolean running, boolean hasRandomState, long randomState) {
+        this.width = width;
+        this.height = height;
+        this.body = body;
+        this.freeCells = freeCells;
+        this.food = food;
+        this.direction = direction;
+        this.score = score;
+        this.running = running;
+        this.hasRandomState = hasRandomState;
+        this.randomState = randomState;
+    }
+    
+    public int getWidth() {
+        return width;
+    }
+    
+    public int getHeight() {
+        return height;
+    }
+    
+    public int getLength() {
+        return body.length;
+    }
+    
+    public int getCell(int index) {
+        return body[index];
+    }
+    
+    int[] getFreeCells() {
+        return freeCells;
+    }
+    
+    public int getFood() {
+        return food;
+    }
+    
+    public Direction getDirection() {
+        return direction;
+    }
+    
+    public int getScore() {
+        return score;
+    }
+    
+    public boolean isRunning() {
+        return running;
+    }
+    
+    // False when the engine used a plain java.util.Random whose state cannot be read
+    public boolean hasRandomState() {
+        return hasRandomState;
+    }
+    
+    public long getRandomState() {
+        return randomState;
+    }
+}
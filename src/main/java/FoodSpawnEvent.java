@@ -0,0 +1,24 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// Choosing a new food cell in SnakeEngine
+@Name("FoodSpawn")
+@Label("Food Spawn")
+@Category("Snake")
+@Description("Placement of a new food item")
+public class FoodSpawnEvent extends jdk.jfr.Event {
+    private static final EventType TYPE = EventType.getEventType(FoodSpawnEvent.class);
+    
+    @Label("Cell")
+    int cell;
+    
+    @Label("Free Cells")
+    int freeCells;
+    
+    static boolean isTypeEnabled() {
+        return TYPE.isEnabled();
+    }
+}
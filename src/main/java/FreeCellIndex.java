@@ -0,0 +1,77 @@
+import java.util.Arrays;
+
+// Set of free board cells supporting O(1) add, remove and random pick.
+// Removal swaps the last entry into the freed slot, so the order of the
+// cells depends on history and is part of the state a snapshot must keep.
+public class FreeCellIndex {
+    private final int[] cells;
+    private final int[] positions;
+    private int size;
+    
+    public FreeCellIndex(int cellCount) {
+        cells = new int[cellCount];
+        positions = new int[cellCount];
+        fill();
+    }
+    
+    // Marks every cell as free
+    public void fill() {
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = i;
+            positions[i] = i;
+        }
+        size = cells.length;
+    }
+    
+    // Marks every cell as taken
+    public void clear() {
+        Arrays.fill(positions, -1);
+        size = 0;
+    }
+    
+    // Free cells in index order
+    public int[] toArray() {
+        return Arrays.copyOf(cells, size);
+    }
+    
+    // Replaces the contents with the given cells, in that order
+    public void setAll(int[] free) {
+        Arrays.fill(positions, -1);
+        for (int i = 0; i < free.length; i++) {
+            cells[i] = free[i];
+            positions[free[i]] = i;
+        }
+        size = free.length;
+    }
+    
+    public void remove(int cell) {
+        int index = positions[cell];
+        if (index < 0) {
+            return;
+        }
+        int last = cells[--size];
+        cells[index] = last;
+        positions[last] = index;
+        positions[cell] = -1;
+    }
+    
+    public void add(int cell) {
+        if (positions[cell] >= 0) {
+            return;
+        }
+        cells[size] = cell;
+        positions[cell] = size++;
+    }
+    
+    public boolean contains(int cell) {
+        return positions[cell] >= 0;
+    }
+    
+    public int get(int index) {
+        return cells[index];
+    }
+    
+    public int size() {
+        return size;
+    }
+}
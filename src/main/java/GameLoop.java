@@ -0,0 +1,134 @@
+import java.util.concurrent.locks.LockSupport;
+
+// Runs a step callback on its own thread at a fixed timestep. Wake-ups are
+// scheduled against absolute deadlines so timing errors never accumulate;
+// when the thread falls behind it runs up to MAX_CATCH_UP_STEPS steps back
+// to back and then drops the rest instead of spiralling.
+public class GameLoop {
+    private static final int MAX_CATCH_UP_STEPS = 5;
+    // Below this the thread yields instead of parking, which can overshoot
+    private static final long SPIN_NANOS = 200_000;
+    
+    private final String name;
+    private final Runnable step;
+    private final LatencyHistogram jitter = new LatencyHistogram();
+    private volatile long stepNanos;
+    private volatile Thread thread;
+    // The last thread started, which may still be finishing its final step; guarded by this
+    private Thread worker;
+    private volatile long lastStepTime;
+    private volatile long steps;
+    
+    public GameLoop(String name, long stepNanos, Runnable step) {
+        this.name = name;
+        this.step = step;
+        this.stepNanos = stepNanos;
+    }
+    
+    // Waits for a stopped loop's last step first, so two steps never overlap
+    public void start() {
+        Thread previous;
+        synchronized (this) {
+            if (thread != null) {
+                return;
+            }
+            previous = worker;
+        }
+        join(previous);
+        synchronized (this) {
+            if (thread != null) {
+                return;
+            }
+            Thread t = new Thread(this::run, name);
+            t.setDaemon(true);
+            thread = t;
+            worker = t;
+            t.start();
+        }
+    }
+    
+    // Returns once a step in progress has finished, so no step runs after this; callers
+    // must not hold a lock the step needs. From the step itself it returns at once and the
+    // loop exits when the step returns.
+    public void stop() {
+        Thread t;
+        synchronized (this) {
+            if (thread != null) {
+                LockSupport.unpark(thread);
+            }
+            thread = null;
+            t = worker;
+        }
+        join(t);
+    }
+    
+    private static void join(Thread t) {
+        if (t == null || t == Thread.currentThread()) {
+            return;
+        }
+        try {
+            t.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    public boolean isRunning() {
+        return thread != null;
+    }
+    
+    public long getStepNanos() {
+        return stepNanos;
+    }
+    
+    // Takes effect from the next scheduled step
+    public void setStepNanos(long stepNanos) {
+        this.stepNanos = stepNanos;
+    }
+    
+    public long getStepCount() {
+        return steps;
+    }
+    
+    // How late each step started relative to its deadline
+    public LatencyHistogram getJitter() {
+        return jitter;
+    }
+    
+    // Fraction of the current step that has elapsed, for renderers that interpolate between steps
+    public double getInterpolation() {
+        double alpha = (System.nanoTime() - lastStepTime) / (double) stepNanos;
+        return Math.max(0.0, Math.min(1.0, alpha));
+    }
+    
+    private void run() {
+        Thread self = Thread.currentThread();
+        long deadline = System.nanoTime() + stepNanos;
+        while (thread == self) {
+            long now = System.nanoTime();
+            long wait = deadline - now;
+            if (wait > SPIN_NANOS) {
+                LockSupport.parkNanos(this, wait - SPIN_NANOS);
+                continue;
+            }
+            if (wait > 0) {
+                Thread.yield();
+                continue;
+            }
+            
+            jitter.record(now - deadline);
+            int caughtUp = 0;
+            while (deadline <= now && caughtUp < MAX_CATCH_UP_STEPS && thread == self) {
+                lastStepTime = System.nanoTime();
+                step.run();
+                steps++;
+                deadline += stepNanos;
+                caughtUp++;
+            }
+            if (deadline <= now) {
+                // Too far behind: drop the missed steps rather than run them all at once
+                deadline = now + stepNanos;
+            }
+        }
+    }
+}
@@ -1,73 +1,306 @@
 import javax.swing.*;
 import java.awt.*;
 import java.io.*;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
 import java.util.Properties;
+import java.util.function.Consumer;
 
 public class GameManager {
+    private static final String MENU_SCREEN = "menu";
+    private static final String GAME_SCREEN = "game";
+    private static final String OTHER_SCREEN = "other";
+    
     private JFrame frame;
-    private StartMenu startMenu;
+    // Menu and game are built once and reset on each visit; see show()
+    private final CardLayout cards = new CardLayout();
+    private final JPanel screens = new JPanel(cards);
+    private final StartMenu startMenu;
     private SnakeGame snakeGame;
-    private int highScore;
+    private JComponent gameScreen;
+    private JComponent otherScreen;
+    private ArenaPanel arenaPanel;
+    private ClientPanel clientPanel;
+    private volatile int highScore;
+    private BoardSize boardSize = BoardSize.DEFAULT;
+    // Scores, saved games, replays and telemetry all live here
+    private final Path dataDirectory;
+    // All file writes go through here so the EDT and game loop never wait on disk
+    private final PersistenceExecutor persistence = new PersistenceExecutor("persistence");
+    private final HighScoreStore scores;
+    // Game events for analytics; segments are mapped on the persistence thread
+    private final TelemetryLog telemetry;
+    private final Object replayKey = new Object();
+    private final Object sessionKey = new Object();
+    // Last suspended game, kept in memory so resuming never waits for the file write.
+    // Whether a save exists on disk is checked with the scores, off the EDT.
+    private volatile GameSnapshot suspendedGame;
+    private volatile boolean hasSuspendedGame;
+    // Single-value file from before the leaderboard; only read to migrate it
     private static final String HIGH_SCORE_FILE = "highscore.properties";
+    private static final String LAST_REPLAY_FILE = "last-replay.snkr";
+    private static final String SESSION_FILE = "session.snks";
+    private static final String TELEMETRY_DIR = "telemetry";
+    private static final long CONNECT_TIMEOUT_MILLIS = 5_000;
     
+    // Keeps its files in the working directory
     public GameManager(JFrame frame) {
+        this(frame, Paths.get("."));
+    }
+    
+    public GameManager(JFrame frame, Path dataDirectory) {
         this.frame = frame;
-        loadHighScore();
+        this.dataDirectory = dataDirectory;
+        scores = new HighScoreStore(dataDirectory, HighScoreStore.DEFAULT_TOP_N, persistence);
+        telemetry = new TelemetryLog(dataDirectory.resolve(TELEMETRY_DIR), TelemetryLog.DEFAULT_SEGMENT_SIZE,
+                persistence);
+        startMenu = new StartMenu(this, highScore);
+        screens.add(centered(startMenu), MENU_SCREEN);
+        frame.add(screens);
         showStartMenu();
+        // Files are read off the EDT so the menu paints first; it updates once they are in
+        persistence.submit(this::loadSavedState);
     }
     
-    private void loadHighScore() {
+    // Runs on the persistence thread. The files are read without holding this, which
+    // gameOver() needs on the game loop thread; only the merge below takes it.
+    private void loadSavedState() {
+        try {
+            scores.load();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        int legacy = scores.isEmpty() ? loadLegacyHighScore() : 0;
+        if (Files.exists(dataDirectory.resolve(SESSION_FILE))) {
+            hasSuspendedGame = true;
+        }
+        synchronized (this) {
+            if (legacy > 0) {
+                // The old file did not record a difficulty; Normal is the menu default
+                scores.record(Difficulty.NORMAL, legacy, 0L);
+            }
+            // A game may already have ended before the files were read
+            highScore = Math.max(highScore, scores.getBest());
+        }
+        SwingUtilities.invokeLater(() -> startMenu.refresh(highScore, hasSuspendedGame));
+    }
+    
+    private int loadLegacyHighScore() {
         Properties props = new Properties();
-        try (FileInputStream fis = new FileInputStream(HIGH_SCORE_FILE)) {
+        try (FileInputStream fis = new FileInputStream(dataDirectory.resolve(HIGH_SCORE_FILE).toFile())) {
             props.load(fis);
-            highScore = Integer.parseInt(props.getProperty("highscore", "0"));
-        } catch (IOException e) {
-            highScore = 0;
+            return Integer.parseInt(props.getProperty("highscore", "0"));
+        } catch (IOException | NumberFormatException e) {
+            return 0;
         }
     }
     
-    private void saveHighScore(int score) {
-        if (score > highScore) {
-            highScore = score;
-            Properties props = new Properties();
-            props.setProperty("highscore", String.valueOf(highScore));
-            try (FileOutputStream fos = new FileOutputStream(HIGH_SCORE_FILE)) {
-                props.store(fos, "Snake Game High Score");
+    public void showStartMenu() {
+        // Replays, arenas and network games are one-off screens
+        if (otherScreen != null) {
+            screens.remove(otherScreen);
+            otherScreen = null;
+            arenaPanel = null;
+            clientPanel = null;
+        }
+        startMenu.refresh(highScore, hasSuspendedGame);
+        show(MENU_SCREEN, startMenu);
+    }
+    
+    public void startGame(Difficulty difficulty) {
+        startGame(difficulty, boardSize);
+    }
+    
+    public void startGame(Difficulty difficulty, BoardSize boardSize) {
+        if (snakeGame != null && snakeGame.getBoardSize().equals(boardSize)) {
+            snakeGame.reset(difficulty);
+        } else {
+            setGameScreen(new SnakeGame(this, difficulty, boardSize));
+        }
+        show(GAME_SCREEN, snakeGame);
+    }
+    
+    // Keeps a game left with ESC so it can be resumed, also after the application restarts
+    public void suspendGame(GameSnapshot snapshot) {
+        suspendedGame = snapshot;
+        hasSuspendedGame = true;
+        persistence.submit(sessionKey, () -> {
+            try {
+                snapshot.save(dataDirectory.resolve(SESSION_FILE));
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        });
+    }
+    
+    public boolean hasSuspendedGame() {
+        return hasSuspendedGame;
+    }
+    
+    // Continues the suspended game; a game can be resumed once
+    public void resumeGame() {
+        GameSnapshot snapshot = suspendedGame;
+        if (snapshot == null) {
+            try {
+                snapshot = GameSnapshot.load(dataDirectory.resolve(SESSION_FILE));
             } catch (IOException e) {
                 e.printStackTrace();
             }
         }
+        suspendedGame = null;
+        hasSuspendedGame = false;
+        persistence.submit(sessionKey, () -> {
+            try {
+                Files.deleteIfExists(dataDirectory.resolve(SESSION_FILE));
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        });
+        if (snapshot == null) {
+            // Unreadable save: refresh the menu without the resume button
+            showStartMenu();
+            return;
+        }
+        if (snakeGame != null && snakeGame.getBoardSize().equals(snapshot.getBoardSize())) {
+            snakeGame.resume(snapshot);
+        } else {
+            setGameScreen(new SnakeGame(this, snapshot));
+        }
+        show(GAME_SCREEN, snakeGame);
     }
     
-    public void showStartMenu() {
+    // Plays back a recorded game; speed is a multiple of real time
+    public void playReplay(Replay replay, double speed) {
+        showOther(new SnakeGame(this, replay, speed));
+    }
+    
+    // Many snakes on one board; stepNanos sets the tick rate
+    public void startArena(BoardSize boardSize, int players, int bots, int foodCount, long stepNanos) {
+        arenaPanel = new ArenaPanel(this, boardSize, players, bots, foodCount, stepNanos);
+        showOther(arenaPanel);
+    }
+    
+    // Joins an ArenaServer. The handshake runs on its own thread so the EDT never waits on
+    // the network; the client screen, or onFailure, follows on the EDT.
+    public void connect(String host, int port, Consumer<IOException> onFailure) {
+        Thread connector = new Thread(() -> {
+            ClientState state = new ClientState();
+            try {
+                SocketChannel channel = ClientPanel.handshake(host, port, state, CONNECT_TIMEOUT_MILLIS);
+                SwingUtilities.invokeLater(() -> {
+                    clientPanel = new ClientPanel(this, channel, state);
+                    showOther(clientPanel);
+                });
+            } catch (IOException e) {
+                SwingUtilities.invokeLater(() -> onFailure.accept(e));
+            }
+        }, "arena-connect");
+        connector.setDaemon(true);
+        connector.start();
+    }
+    
+    private void setGameScreen(SnakeGame game) {
         if (snakeGame != null) {
-            frame.remove(snakeGame);
+            snakeGame.stop();
+            screens.remove(gameScreen);
         }
-        startMenu = new StartMenu(this, highScore);
-        frame.add(startMenu);
-        frame.pack();
-        frame.revalidate();
-        frame.repaint();
-        startMenu.requestFocusInWindow();
+        snakeGame = game;
+        gameScreen = centered(game);
+        screens.add(gameScreen, GAME_SCREEN);
     }
     
-    public void startGame(Difficulty difficulty) {
-        if (startMenu != null) {
-            frame.remove(startMenu);
+    private void showOther(JComponent screen) {
+        if (otherScreen != null) {
+            screens.remove(otherScreen);
+        }
+        otherScreen = centered(screen);
+        screens.add(otherScreen, OTHER_SCREEN);
+        show(OTHER_SCREEN, screen);
+    }
+    
+    // Screens keep their own size inside the frame, which is sized for the largest one
+    private static JComponent centered(JComponent screen) {
+        JPanel holder = new JPanel(new GridBagLayout());
+        holder.setBackground(Color.BLACK);
+        holder.add(screen);
+        return holder;
+    }
+    
+    // Switching cards needs no new components. The frame is only packed when the set of
+    // screens changed size, e.g. the first time, for a larger board or after an arena.
+    private void show(String name, JComponent focus) {
+        cards.show(screens, name);
+        if (!screens.getSize().equals(screens.getPreferredSize())) {
+            frame.pack();
+        }
+        focus.requestFocusInWindow();
+    }
+    
+    // Make screen getters package-private for testing
+    StartMenu getStartMenu() {
+        return startMenu;
+    }
+    
+    SnakeGame getSnakeGame() {
+        return snakeGame;
+    }
+    
+    // Updates the scores in memory at once and writes them in the background, so any
+    // thread may call this. Returns true if the score beats the previous high score.
+    public synchronized boolean gameOver(Difficulty difficulty, int score) {
+        scores.record(difficulty, score, System.currentTimeMillis());
+        if (score > highScore) {
+            highScore = score;
+            return true;
         }
-        snakeGame = new SnakeGame(this, difficulty);
-        frame.add(snakeGame);
-        frame.pack();
-        frame.revalidate();
-        frame.repaint();
-        snakeGame.requestFocusInWindow();
+        return false;
+    }
+    
+    // Keeps the most recent game so players can attach it to bug reports
+    public void saveReplay(Replay replay) {
+        // Only the newest replay matters if several are waiting to be written
+        persistence.submit(replayKey, () -> {
+            try {
+                replay.save(dataDirectory.resolve(LAST_REPLAY_FILE));
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        });
     }
     
-    public void gameOver(int score) {
-        saveHighScore(score);
+    // Writes everything still pending; called when the application exits
+    public void shutdown() {
+        scores.close();
+        telemetry.close();
+        persistence.close();
+    }
+    
+    public TelemetryLog getTelemetry() {
+        return telemetry;
     }
     
     public int getHighScore() {
         return highScore;
     }
+    
+    public int getHighScore(Difficulty difficulty) {
+        return scores.getBest(difficulty);
+    }
+    
+    // Best scores for a difficulty, highest first
+    public List<ScoreEntry> getTopScores(Difficulty difficulty) {
+        return scores.getTopScores(difficulty);
+    }
+    
+    // Board used when a game is started from the menu
+    public void setBoardSize(BoardSize boardSize) {
+        this.boardSize = boardSize;
+    }
+    
+    public BoardSize getBoardSize() {
+        return boardSize;
+    }
 }
@@ -0,0 +1,143 @@
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+// Tick and frame times for the F3 overlay, summarised once per second. Callers record
+// only while enabled, so a game without the overlay pays nothing here. Not thread-safe:
+// SnakeGame records and reads under its lock.
+public class GameMetrics {
+    private static final long WINDOW_NANOS = 1_000_000_000L;
+    
+    private final LatencyHistogram tickTimes = new LatencyHistogram();
+    private final LatencyHistogram frameTimes = new LatencyHistogram();
+    private final List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+    private final com.sun.management.ThreadMXBean threads;
+    private boolean enabled;
+    
+    private long windowStart;
+    private long windowAllocated;
+    private long windowCollections;
+    private long windowCollectionMillis;
+    
+    // Summary of the last complete window
+    private long tickP50;
+    private long tickP99;
+    private long frameP50;
+    private long frameP99;
+    private double ticksPerSecond;
+    private long allocatedPerSecond = -1;
+    private long collections;
+    private long collectionMillis;
+    
+    public GameMetrics() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        threads = bean instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()
+                ? (com.sun.management.ThreadMXBean) bean
+                : null;
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public void setEnabled(boolean enabled, long now) {
+        this.enabled = enabled;
+        if (enabled) {
+            startWindow(now);
+        }
+    }
+    
+    public void recordTick(long nanos) {
+        tickTimes.record(nanos);
+    }
+    
+    public void recordFrame(long nanos) {
+        frameTimes.record(nanos);
+    }
+    
+    // Closes the window once it is a second old; returns true if the summary changed
+    public boolean roll(long now) {
+        long elapsed = now - windowStart;
+        if (!enabled || elapsed < WINDOW_NANOS) {
+            return false;
+        }
+        tickP50 = tickTimes.getPercentile(50);
+        tickP99 = tickTimes.getPercentile(99);
+        frameP50 = frameTimes.getPercentile(50);
+        frameP99 = frameTimes.getPercentile(99);
+        ticksPerSecond = tickTimes.getCount() * 1e9 / elapsed;
+        allocatedPerSecond = threads == null ? -1 : Math.max(0, allocatedBytes() - windowAllocated) * 1_000_000_000L / elapsed;
+        collections = collectionCount() - windowCollections;
+        collectionMillis = collectionMillis() - windowCollectionMillis;
+        startWindow(now);
+        return true;
+    }
+    
+    private void startWindow(long now) {
+        windowStart = now;
+        tickTimes.reset();
+        frameTimes.reset();
+        windowAllocated = threads == null ? 0 : allocatedBytes();
+        windowCollections = collectionCount();
+        windowCollectionMillis = collectionMillis();
+    }
+    
+    // Threads that died during the window are not counted
+    private long allocatedBytes() {
+        long total = 0;
+        for (long bytes : threads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            total += Math.max(0, bytes);
+        }
+        return total;
+    }
+    
+    private long collectionCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean collector : collectors) {
+            count += Math.max(0, collector.getCollectionCount());
+        }
+        return count;
+    }
+    
+    private long collectionMillis() {
+        long millis = 0;
+        for (GarbageCollectorMXBean collector : collectors) {
+            millis += Math.max(0, collector.getCollectionTime());
+        }
+        return millis;
+    }
+    
+    public long getTickP50() {
+        return tickP50;
+    }
+    
+    public long getTickP99() {
+        return tickP99;
+    }
+    
+    public long getFrameP50() {
+        return frameP50;
+    }
+    
+    public long getFrameP99() {
+        return frameP99;
+    }
+    
+    public double getTicksPerSecond() {
+        return ticksPerSecond;
+    }
+    
+    // Bytes allocated per second by all threads, or -1 if the JVM cannot tell
+    public long getAllocatedPerSecond() {
+        return allocatedPerSecond;
+    }
+    
+    public long getCollections() {
+        return collections;
+    }
+    
+    public long getCollectionMillis() {
+        return collectionMillis;
+    }
+}
@@ -0,0 +1,41 @@
+import java.util.Random;
+
+// Produces exactly the same sequence as java.util.Random, but keeps the
+// generator state in a plain field so replays and snapshots can read and
+// restore it. Not thread-safe; each game owns its own instance.
+public class GameRandom extends Random {
+    private static final long MULTIPLIER = 0x5DEECE66DL;
+    private static final long ADDEND = 0xBL;
+    private static final long MASK = (1L << 48) - 1;
+    
+    private long state;
+    
+    public GameRandom() {
+        super();
+    }
+    
+    public GameRandom(long seed) {
+        super(seed);
+    }
+    
+    @Override
+    public synchronized void setSeed(long seed) {
+        // Called from the Random constructor, before this class's fields are initialized
+        state = (seed ^ MULTIPLIER) & MASK;
+        super.setSeed(seed);
+    }
+    
+    @Override
+    protected int next(int bits) {
+        state = (state * MULTIPLIER + ADDEND) & MASK;
+        return (int) (state >>> (48 - bits));
+    }
+    
+    public long getState() {
+        return state;
+    }
+    
+    public void setState(long state) {
+        this.state = state & MASK;
+    }
+}
@@ -0,0 +1,132 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+// A suspended game on disk: difficulty, board size and the engine's full state,
+// including the RNG so food keeps spawning where it would have.
+//
+//   int MAGIC, byte VERSION, byte difficulty, int width, int height,
+//   engine state (see SnakeEngine.writeState), int CRC32 of everything before it
+public final class GameSnapshot {
+    private static final int MAGIC = 0x534E4B53;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 4 + 1 + 1 + 4 + 4;
+    private static final Difficulty[] DIFFICULTIES = Difficulty.values();
+    
+    private final Difficulty difficulty;
+    private final BoardSize boardSize;
+    // The encoded file, trailer included
+    private final ByteBuffer data;
+    
+    private GameSnapshot(Difficulty difficulty, BoardSize boardSize, ByteBuffer data) {
+        this.difficulty = difficulty;
+        this.boardSize = boardSize;
+        this.data = data;
+    }
+    
+    public static GameSnapshot capture(Difficulty difficulty, SnakeEngine engine) {
+        ByteBuffer data = ByteBuffer.allocate(HEADER_SIZE + engine.stateSize() + 4);
+        data.putInt(MAGIC);
+        data.put((byte) VERSION);
+        data.put((byte) difficulty.ordinal());
+        data.putInt(engine.getWidth());
+        data.putInt(engine.getHeight());
+        engine.writeState(data);
+        data.putInt(crc(data, data.position()));
+        data.flip();
+        return new GameSnapshot(difficulty, new BoardSize(engine.getWidth(), engine.getHeight()), data);
+    }
+    
+    public static GameSnapshot load(Path path) throws IOException {
+        ByteBuffer data;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE + 4 || size > Integer.MAX_VALUE) {
+                throw new IOException("Not a saved game: " + path);
+            }
+            data = ByteBuffer.allocate((int) size);
+            while (data.hasRemaining()) {
+                if (channel.read(data) < 0) {
+                    throw new IOException("Saved game truncated: " + path);
+                }
+            }
+        }
+        data.flip();
+        if (data.getInt() != MAGIC) {
+            throw new IOException("Not a saved game: " + path);
+        }
+        int version = data.get();
+        if (version != VERSION) {
+            throw new IOException("Unsupported saved game version " + version + ": " + path);
+        }
+        if (data.getInt(data.limit() - 4) != crc(data, data.limit() - 4)) {
+            throw new IOException("Corrupt saved game: " + path);
+        }
+        int difficulty = data.get();
+        int width = data.getInt();
+        int height = data.getInt();
+        if (difficulty < 0 || difficulty >= DIFFICULTIES.length || !BoardSize.isSupported(width, height)) {
+            throw new IOException("Corrupt saved game: " + path);
+        }
+        // Checked here so restore() never meets a state it cannot apply
+        ByteBuffer state = data.duplicate();
+        state.limit(data.limit() - 4);
+        try {
+            SnakeEngine.checkState(state, width, height);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Corrupt saved game: " + path + ": " + e.getMessage());
+        }
+        data.rewind();
+        return new GameSnapshot(DIFFICULTIES[difficulty], new BoardSize(width, height), data);
+    }
+    
+    // Written to a temporary file first so a crash never leaves half a snapshot behind
+    public void save(Path path) throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer out = data.duplicate();
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+        }
+        Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+    
+    // Puts the saved state into an engine created for getBoardSize()
+    public void restore(SnakeEngine engine) {
+        if (engine.getWidth() != boardSize.getWidth() || engine.getHeight() != boardSize.getHeight()) {
+            throw new IllegalArgumentException("Saved game is for a " + boardSize + " board, not "
+                    + engine.getWidth() + "x" + engine.getHeight());
+        }
+        ByteBuffer in = data.duplicate();
+        in.position(HEADER_SIZE);
+        engine.readState(in);
+    }
+    
+    public Difficulty getDifficulty() {
+        return difficulty;
+    }
+    
+    public BoardSize getBoardSize() {
+        return boardSize;
+    }
+    
+    // Encoded size in bytes
+    public int size() {
+        return data.limit();
+    }
+    
+    private static int crc(ByteBuffer data, int length) {
+        CRC32 crc = new CRC32();
+        ByteBuffer bytes = data.duplicate();
+        bytes.position(0).limit(length);
+        crc.update(bytes);
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,306 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+// Top-N leaderboard per Difficulty, kept in memory and persisted as
+//   highscores.dat     - compacted snapshot, replaced atomically (temp file, fsync, ATOMIC_MOVE)
+//   highscores.journal - append-only log of scores recorded since the snapshot
+// load() merges both; the journal is folded into a new snapshot in the background.
+// All file writes run on a PersistenceExecutor, never on the caller's thread.
+public class HighScoreStore {
+    public static final int DEFAULT_TOP_N = 10;
+    
+    static final String SNAPSHOT_FILE = "highscores.dat";
+    static final String JOURNAL_FILE = "highscores.journal";
+    private static final int MAGIC = 0x534E4853;
+    private static final int VERSION = 1;
+    // difficulty byte, int score, long timestamp
+    private static final int RECORD_SIZE = 13;
+    private static final Difficulty[] DIFFICULTIES = Difficulty.values();
+    
+    // Per-store keys so pending writes of the same kind coalesce
+    private final Object journalKey = new Object();
+    private final Object compactKey = new Object();
+    
+    private final Path snapshotFile;
+    private final Path journalFile;
+    private final Path directory;
+    private final int topN;
+    // Per difficulty, best first; only the first counts[d] slots are used
+    private final ScoreEntry[][] top;
+    private final int[] counts;
+    private final PersistenceExecutor writer;
+    private final boolean ownsWriter;
+    // Recorded but not yet appended to the journal; guarded by this
+    private final List<ScoreEntry> unwritten = new ArrayList<>();
+    // Only touched on the writer thread
+    private FileChannel journal;
+    
+    public HighScoreStore(Path directory, int topN) {
+        this(directory, topN, new PersistenceExecutor("highscore-writer"), true);
+    }
+    
+    public HighScoreStore(Path directory, int topN, PersistenceExecutor writer) {
+        this(directory, topN, writer, false);
+    }
+    
+    private HighScoreStore(Path directory, int topN, PersistenceExecutor writer, boolean ownsWriter) {
+        this.writer = writer;
+        this.ownsWriter = ownsWriter;
+        this.directory = directory;
+        this.snapshotFile = directory.resolve(SNAPSHOT_FILE);
+        this.journalFile = directory.resolve(JOURNAL_FILE);
+        this.topN = topN;
+        this.top = new ScoreEntry[DIFFICULTIES.length][topN];
+        this.counts = new int[DIFFICULTIES.length];
+    }
+    
+    // Reads the snapshot and journal, then compacts them in the background. The files are
+    // read before taking the lock, so record() and the getters never wait on the disk.
+    public void load() throws IOException {
+        ByteBuffer snapshotRecords = readRecords(snapshotFile, true);
+        ByteBuffer journalRecords = readRecords(journalFile, false);
+        synchronized (this) {
+            merge(snapshotRecords);
+            merge(journalRecords);
+        }
+        if (journalRecords.hasRemaining()) {
+            writer.submit(compactKey, this::compact);
+        }
+    }
+    
+    // Adds a finished game. Returns true if it made the top N for its difficulty.
+    public boolean record(Difficulty difficulty, int score, long timestamp) {
+        ScoreEntry entry = new ScoreEntry(difficulty, score, timestamp);
+        synchronized (this) {
+            if (!insert(entry)) {
+                return false;
+            }
+            unwritten.add(entry);
+        }
+        // Scores recorded before the writer gets to them go out in one append
+        writer.submit(journalKey, this::appendUnwritten);
+        return true;
+    }
+    
+    public synchronized List<ScoreEntry> getTopScores(Difficulty difficulty) {
+        List<ScoreEntry> list = new ArrayList<>(counts[difficulty.ordinal()]);
+        for (int i = 0; i < counts[difficulty.ordinal()]; i++) {
+            list.add(top[difficulty.ordinal()][i]);
+        }
+        return list;
+    }
+    
+    public synchronized int getBest(Difficulty difficulty) {
+        return counts[difficulty.ordinal()] == 0 ? 0 : top[difficulty.ordinal()][0].getScore();
+    }
+    
+    public synchronized int getBest() {
+        int best = 0;
+        for (Difficulty difficulty : DIFFICULTIES) {
+            best = Math.max(best, getBest(difficulty));
+        }
+        return best;
+    }
+    
+    public synchronized boolean isEmpty() {
+        for (int count : counts) {
+            if (count > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    // Blocks until every write submitted so far is on disk
+    public void flush() {
+        writer.flush();
+    }
+    
+    public void close() {
+        writer.submit(this::closeJournal);
+        if (ownsWriter) {
+            writer.close();
+        } else {
+            writer.flush();
+        }
+    }
+    
+    private boolean qualifies(int difficulty, int score, long timestamp) {
+        if (counts[difficulty] < topN) {
+            return true;
+        }
+        ScoreEntry last = top[difficulty][topN - 1];
+        return score > last.getScore() || (score == last.getScore() && timestamp < last.getTimestamp());
+    }
+    
+    private boolean insert(ScoreEntry entry) {
+        int d = entry.getDifficulty().ordinal();
+        ScoreEntry[] entries = top[d];
+        int count = counts[d];
+        if (!qualifies(d, entry.getScore(), entry.getTimestamp())) {
+            return false;
+        }
+        int position = count;
+        while (position > 0 && entry.ranksAbove(entries[position - 1])) {
+            position--;
+        }
+        // The journal and a fresh snapshot can both hold the same entry
+        if (position > 0 && entries[position - 1].equals(entry)) {
+            return false;
+        }
+        int last = Math.min(count, topN - 1);
+        System.arraycopy(entries, position, entries, position + 1, last - position);
+        entries[position] = entry;
+        counts[d] = Math.min(count + 1, topN);
+        return true;
+    }
+    
+    // Returns the file's records, nothing if it does not exist; a torn record at the end of
+    // the journal is left out
+    private static ByteBuffer readRecords(Path file, boolean snapshot) throws IOException {
+        if (!Files.exists(file)) {
+            return ByteBuffer.allocate(0);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        int records;
+        if (snapshot) {
+            if (buffer.remaining() < 9 || buffer.getInt() != MAGIC || buffer.get() != VERSION) {
+                throw new IOException("Not a high score snapshot: " + file);
+            }
+            records = buffer.getInt();
+            if (buffer.remaining() != records * RECORD_SIZE + 4 || crc(buffer, records) != buffer.getInt(buffer.limit() - 4)) {
+                throw new IOException("Corrupt high score snapshot: " + file);
+            }
+        } else {
+            records = buffer.remaining() / RECORD_SIZE;
+        }
+        buffer.limit(buffer.position() + records * RECORD_SIZE);
+        return buffer;
+    }
+    
+    // Inserts every qualifying record; needs the lock
+    private void merge(ByteBuffer records) {
+        ByteBuffer buffer = records.duplicate();
+        while (buffer.hasRemaining()) {
+            int difficulty = buffer.get();
+            int score = buffer.getInt();
+            long timestamp = buffer.getLong();
+            // Most history does not make the top N; skip those without allocating
+            if (difficulty >= 0 && difficulty < DIFFICULTIES.length && qualifies(difficulty, score, timestamp)) {
+                insert(new ScoreEntry(DIFFICULTIES[difficulty], score, timestamp));
+            }
+        }
+    }
+    
+    private static int crc(ByteBuffer buffer, int records) {
+        CRC32 crc = new CRC32();
+        ByteBuffer slice = buffer.duplicate();
+        slice.limit(slice.position() + records * RECORD_SIZE);
+        crc.update(slice);
+        return (int) crc.getValue();
+    }
+    
+    private void appendUnwritten() {
+        ByteBuffer buffer;
+        synchronized (this) {
+            if (unwritten.isEmpty()) {
+                return;
+            }
+            buffer = ByteBuffer.allocate(unwritten.size() * RECORD_SIZE);
+            for (ScoreEntry entry : unwritten) {
+                putRecord(buffer, entry);
+            }
+            unwritten.clear();
+        }
+        buffer.flip();
+        try {
+            if (journal == null) {
+                journal = FileChannel.open(journalFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.APPEND);
+            }
+            while (buffer.hasRemaining()) {
+                journal.write(buffer);
+            }
+            journal.force(false);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+    
+    // Writes the in-memory leaderboard as the new snapshot, then empties the journal
+    private void compact() {
+        ByteBuffer buffer;
+        synchronized (this) {
+            int records = 0;
+            for (int count : counts) {
+                records += count;
+            }
+            buffer = ByteBuffer.allocate(9 + records * RECORD_SIZE + 4);
+            buffer.putInt(MAGIC).put((byte) VERSION).putInt(records);
+            for (int d = 0; d < DIFFICULTIES.length; d++) {
+                for (int i = 0; i < counts[d]; i++) {
+                    putRecord(buffer, top[d][i]);
+                }
+            }
+        }
+        int end = buffer.position();
+        buffer.position(9);
+        buffer.putInt(end, crc(buffer, (end - 9) / RECORD_SIZE));
+        buffer.position(0);
+        
+        Path temp = directory.resolve(SNAPSHOT_FILE + ".tmp");
+        try {
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+                out.force(true);
+            }
+            Files.move(temp, snapshotFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            syncDirectory();
+            
+            // Everything in the journal is now in the snapshot
+            closeJournal();
+            try (FileChannel truncate = FileChannel.open(journalFile, StandardOpenOption.WRITE)) {
+                truncate.truncate(0);
+                truncate.force(true);
+            } catch (NoSuchFileException e) {
+                // Nothing to truncate
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+    
+    // Makes the rename durable; not supported on every platform
+    private void syncDirectory() {
+        try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+            dir.force(true);
+        } catch (IOException e) {
+            // Best effort
+        }
+    }
+    
+    private void closeJournal() {
+        if (journal != null) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            journal = null;
+        }
+    }
+    
+    private static void putRecord(ByteBuffer buffer, ScoreEntry entry) {
+        buffer.put((byte) entry.getDifficulty().ordinal());
+        buffer.putInt(entry.getScore());
+        buffer.putLong(entry.getTimestamp());
+    }
+}
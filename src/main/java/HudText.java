@@ -0,0 +1,59 @@
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+// One line of HUD text rasterised into an image, so frames blit pixels instead of
+// laying out glyphs. The image is only redrawn when the text changes.
+public class HudText {
+    private final Font font;
+    private final Color color;
+    private final FontMetrics metrics;
+    private String text;
+    private BufferedImage image;
+    private int renders;
+    
+    public HudText(Font font, Color color) {
+        this.font = font;
+        this.color = color;
+        BufferedImage scratch = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+        Graphics g = scratch.getGraphics();
+        this.metrics = g.getFontMetrics(font);
+        g.dispose();
+    }
+    
+    // Callers pass cached strings, so an unchanged value is usually the same instance
+    public void setText(String text) {
+        if (text == this.text || text.equals(this.text)) {
+            return;
+        }
+        this.text = text;
+        int width = Math.max(1, metrics.stringWidth(text));
+        if (image == null || image.getWidth() < width) {
+            image = new BufferedImage(width, metrics.getHeight(), BufferedImage.TYPE_INT_ARGB);
+        }
+        Graphics2D g = image.createGraphics();
+        g.setComposite(AlphaComposite.Clear);
+        g.fillRect(0, 0, image.getWidth(), image.getHeight());
+        g.setComposite(AlphaComposite.SrcOver);
+        g.setFont(font);
+        g.setColor(color);
+        g.drawString(text, 0, metrics.getAscent());
+        g.dispose();
+        renders++;
+    }
+    
+    // Draws the text with its baseline at y, like Graphics.drawString
+    public void draw(Graphics g, int x, int y) {
+        if (image != null) {
+            g.drawImage(image, x, y - metrics.getAscent(), null);
+        }
+    }
+    
+    public String getText() {
+        return text;
+    }
+    
+    // Number of times the text was rasterised
+    int getRenderCount() {
+        return renders;
+    }
+}
@@ -0,0 +1,69 @@
+import java.util.concurrent.atomic.AtomicLong;
+
+// Bounded single-producer, single-consumer queue of timestamped turns. The EDT offers
+// key presses and the game loop polls them, one turn per step, without locking.
+// When the queue is full new presses are dropped.
+public class InputQueue {
+    private final Direction[] directions;
+    private final long[] timestamps;
+    private final int mask;
+    // Only the producer advances writeIndex and only the consumer advances readIndex
+    private final AtomicLong writeIndex = new AtomicLong();
+    private final AtomicLong readIndex = new AtomicLong();
+    // Consumer side: timestamp of the entry returned by the last poll()
+    private long polledTimestamp;
+    
+    // Capacity is rounded up to a power of two
+    public InputQueue(int capacity) {
+        int size = capacity <= 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        directions = new Direction[size];
+        timestamps = new long[size];
+        mask = size - 1;
+    }
+    
+    // Producer only. Returns false if the queue is full.
+    public boolean offer(Direction direction, long timestampNanos) {
+        long write = writeIndex.get();
+        if (write - readIndex.get() == directions.length) {
+            return false;
+        }
+        int slot = (int) write & mask;
+        directions[slot] = direction;
+        timestamps[slot] = timestampNanos;
+        // Publishes the slot; the consumer reads writeIndex before the slot
+        writeIndex.lazySet(write + 1);
+        return true;
+    }
+    
+    // Consumer only. Returns null if the queue is empty.
+    public Direction poll() {
+        long read = readIndex.get();
+        if (read == writeIndex.get()) {
+            return null;
+        }
+        int slot = (int) read & mask;
+        Direction direction = directions[slot];
+        polledTimestamp = timestamps[slot];
+        readIndex.lazySet(read + 1);
+        return direction;
+    }
+    
+    // Consumer only: when the direction returned by the last poll() was pressed
+    public long getPolledTimestamp() {
+        return polledTimestamp;
+    }
+    
+    // Consumer side: discards everything offered so far. Another thread may call it only
+    // while no poll() can run, e.g. under a lock the consumer polls under.
+    public void clear() {
+        readIndex.lazySet(writeIndex.get());
+    }
+    
+    public int size() {
+        return (int) (writeIndex.get() - readIndex.get());
+    }
+    
+    public int capacity() {
+        return directions.length;
+    }
+}
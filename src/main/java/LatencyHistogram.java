@@ -0,0 +1,85 @@
+import java.util.Arrays;
+
+// Log-linear histogram of nanosecond values in the style of HdrHistogram:
+// every power of two is split into SUB_BUCKETS buckets, so percentiles are
+// accurate to about 6% while recording stays a few arithmetic operations.
+// Recording is meant for a single thread; readers may see slightly stale counts.
+public class LatencyHistogram {
+    private static final int SUB_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int BUCKETS = (64 - SUB_BITS + 1) * SUB_BUCKETS;
+    
+    private final long[] counts = new long[BUCKETS];
+    private long count;
+    private long max;
+    
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        counts[indexOf(value)]++;
+        count++;
+        if (value > max) {
+            max = value;
+        }
+    }
+    
+    public long getCount() {
+        return count;
+    }
+    
+    public long getMax() {
+        return max;
+    }
+    
+    // Value at the given percentile (0-100), reported as the upper bound of its bucket
+    public long getPercentile(double percentile) {
+        long total = count;
+        if (total == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(total * percentile / 100.0));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return Math.min(upperBoundOf(i), max);
+            }
+        }
+        return max;
+    }
+    
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        max = Math.max(max, other.max);
+    }
+    
+    public void reset() {
+        Arrays.fill(counts, 0L);
+        count = 0;
+        max = 0;
+    }
+    
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int mantissa = (int) (value >>> (exponent - SUB_BITS));
+        return (exponent - SUB_BITS + 1) * SUB_BUCKETS + (mantissa - SUB_BUCKETS);
+    }
+    
+    static long upperBoundOf(int index) {
+        int block = index / SUB_BUCKETS;
+        int sub = index % SUB_BUCKETS;
+        if (block == 0) {
+            return sub;
+        }
+        int shift = block - 1;
+        long lower = (long) (SUB_BUCKETS + sub) << shift;
+        return lower + (1L << shift) - 1;
+    }
+}
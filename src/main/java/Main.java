@@ -1,10 +1,62 @@
 import javax.swing.*;
+import java.io.IOException;
+import java.nio.file.Paths;
 
 public class Main {
+    private static final BoardSize ARENA_BOARD = new BoardSize(80, 60);
+    
     public static void main(String[] args) {
+        // "--verify FILE..." re-simulates replays headless and exits without touching AWT
+        if (args.length > 0 && args[0].equals("--verify")) {
+            verifyReplays(args);
+            return;
+        }
+        
+        BoardSize boardSize = parseBoardSize(args);
+        // "--arena [--players N] [--bots N] [--food N] [--tps N]" plays many snakes on one board
+        boolean arena = hasFlag(args, "--arena");
+        BoardSize arenaBoard = option(args, "--board") != null ? boardSize : ARENA_BOARD;
+        int players = intOption(args, "--players", 1);
+        int bots = intOption(args, "--bots", 20);
+        int food = intOption(args, "--food", Math.max(1, bots / 2));
+        int ticksPerSecond = intOption(args, "--tps", 10);
+        if (ticksPerSecond <= 0) {
+            System.err.println("--tps needs a positive number of ticks per second, not " + ticksPerSecond);
+            return;
+        }
+        // "--connect HOST:PORT" joins a server started with ServerMain
+        String server = option(args, "--connect");
+        Replay replay;
+        try {
+            String replayFile = option(args, "--replay");
+            replay = replayFile == null ? null : Replay.load(Paths.get(replayFile));
+        } catch (IOException e) {
+            System.err.println("Cannot read replay: " + e.getMessage());
+            return;
+        }
+        String speed = option(args, "--speed");
+        double replaySpeed = speed == null ? 1.0 : Double.parseDouble(speed);
+        // Also rejects NaN
+        if (!(replaySpeed > 0)) {
+            System.err.println("--speed needs a positive multiple of real time, not " + speed);
+            return;
+        }
+        
         SwingUtilities.invokeLater(() -> {
             JFrame frame = new JFrame("Snake Game");
             GameManager gameManager = new GameManager(frame);
+            gameManager.setBoardSize(boardSize);
+            // EXIT_ON_CLOSE ends in System.exit, which runs this before the JVM stops
+            Runtime.getRuntime().addShutdownHook(new Thread(gameManager::shutdown, "persistence-flush"));
+            if (replay != null) {
+                gameManager.playReplay(replay, replaySpeed);
+            } else if (arena) {
+                gameManager.startArena(arenaBoard, players, bots, food, 1_000_000_000L / ticksPerSecond);
+            } else if (server != null) {
+                int colon = server.lastIndexOf(':');
+                gameManager.connect(server.substring(0, colon), Integer.parseInt(server.substring(colon + 1)),
+                        e -> System.err.println("Cannot connect to " + server + ": " + e.getMessage()));
+            }
             
             frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
             frame.setResizable(false);
@@ -13,4 +65,53 @@ public class Main {
             frame.setVisible(true);
         });
     }
-}
\ No newline at end of file
+    
+    // Board size comes from "--board WIDTHxHEIGHT", e.g. "--board 100x100"
+    private static BoardSize parseBoardSize(String[] args) {
+        String board = option(args, "--board");
+        return board == null ? BoardSize.DEFAULT : BoardSize.parse(board);
+    }
+    
+    private static boolean hasFlag(String[] args, String name) {
+        for (String arg : args) {
+            if (arg.equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static int intOption(String[] args, String name, int defaultValue) {
+        String value = option(args, name);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+    
+    private static String option(String[] args, String name) {
+        for (int i = 0; i < args.length - 1; i++) {
+            if (args[i].equals(name)) {
+                return args[i + 1];
+            }
+        }
+        return null;
+    }
+    
+    private static void verifyReplays(String[] args) {
+        int failures = 0;
+        for (int i = 1; i < args.length; i++) {
+            try {
+                Replay replay = Replay.load(Paths.get(args[i]));
+                boolean ok = ReplayPlayer.verify(replay);
+                System.out.println((ok ? "OK       " : "MISMATCH ") + args[i] + " score=" + replay.getFinalScore());
+                if (!ok) {
+                    failures++;
+                }
+            } catch (IOException e) {
+                System.out.println("UNREADABLE " + args[i] + ": " + e.getMessage());
+                failures++;
+            }
+        }
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+import java.util.Arrays;
+
+// One bit per board cell, indexed by y * width + x.
+public class OccupancyGrid {
+    private final long[] bits;
+    
+    public OccupancyGrid(int cells) {
+        bits = new long[(cells + 63) >>> 6];
+    }
+    
+    public boolean isSet(int cell) {
+        return (bits[cell >>> 6] & (1L << cell)) != 0;
+    }
+    
+    public void set(int cell) {
+        bits[cell >>> 6] |= 1L << cell;
+    }
+    
+    public void clear(int cell) {
+        bits[cell >>> 6] &= ~(1L << cell);
+    }
+    
+    public void clearAll() {
+        Arrays.fill(bits, 0L);
+    }
+}
@@ -0,0 +1,98 @@
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+// Runs file writes on one background thread, in submission order.
+// A keyed task replaces a still-pending task with the same key, so a burst of
+// saves of the same thing costs one write; everything pending runs as one batch.
+public class PersistenceExecutor {
+    private final Thread worker;
+    // Guarded by itself; insertion order is execution order
+    private final LinkedHashMap<Object, Runnable> pending = new LinkedHashMap<>();
+    private boolean closed;
+    
+    public PersistenceExecutor(String name) {
+        worker = new Thread(this::run, name);
+        // Main flushes on exit, so the thread never has to hold the JVM open
+        worker.setDaemon(true);
+        worker.start();
+    }
+    
+    public void submit(Runnable task) {
+        submit(new Object(), task);
+    }
+    
+    // Replaces a pending task with an equal key; a task already running is not affected
+    public void submit(Object key, Runnable task) {
+        synchronized (pending) {
+            if (closed) {
+                throw new IllegalStateException("Executor is closed");
+            }
+            pending.put(key, task);
+            pending.notifyAll();
+        }
+    }
+    
+    // Blocks until every task submitted so far has run
+    public void flush() {
+        if (Thread.currentThread() == worker) {
+            return;
+        }
+        CountDownLatch done = new CountDownLatch(1);
+        synchronized (pending) {
+            if (closed && !worker.isAlive()) {
+                return;
+            }
+            pending.put(new Object(), done::countDown);
+            pending.notifyAll();
+        }
+        try {
+            done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    // Runs what is pending, then stops the thread
+    public void close() {
+        flush();
+        synchronized (pending) {
+            closed = true;
+            pending.notifyAll();
+        }
+        try {
+            worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private void run() {
+        List<Runnable> batch = new ArrayList<>();
+        while (true) {
+            synchronized (pending) {
+                while (pending.isEmpty() && !closed) {
+                    try {
+                        pending.wait();
+                    } catch (InterruptedException e) {
+                        // Keep draining; only close() ends the thread
+                    }
+                }
+                if (pending.isEmpty()) {
+                    return;
+                }
+                batch.addAll(pending.values());
+                pending.clear();
+            }
+            for (Runnable task : batch) {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    e.printStackTrace();
+                }
+            }
+            batch.clear();
+        }
+    }
+}
@@ -0,0 +1,5 @@
+// Chooses the next direction from the current game state. The engine must only be read,
+// never stepped. BatchRunner creates one policy per game, so policies may keep state.
+public interface Policy {
+    Direction choose(SnakeEngine engine);
+}
@@ -0,0 +1,188 @@
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+// A recorded game: everything needed to re-simulate it deterministically.
+// Binary layout (big-endian, varints are unsigned LEB128):
+//   int magic "SNKR", byte version, long seed, byte difficulty ordinal,
+//   short width, short height, varint tick count, varint final score,
+//   varint change count, then per change: varint ticks since previous change, byte direction ordinal
+public final class Replay {
+    private static final int MAGIC = 0x534E4B52;
+    private static final int VERSION = 1;
+    
+    private final long seed;
+    private final Difficulty difficulty;
+    private final BoardSize boardSize;
+    private final int tickCount;
+    private final int finalScore;
+    private final int[] changeTicks;
+    private final byte[] changeDirections;
+    
+    Replay(long seed, Difficulty difficulty, BoardSize boardSize, int tickCount, int finalScore,
+           int[] changeTicks, byte[] changeDirections) {
+        this.seed = seed;
+        this.difficulty = difficulty;
+        this.boardSize = boardSize;
+        this.tickCount = tickCount;
+        this.finalScore = finalScore;
+        this.changeTicks = changeTicks;
+        this.changeDirections = changeDirections;
+    }
+    
+    public long getSeed() {
+        return seed;
+    }
+    
+    public Difficulty getDifficulty() {
+        return difficulty;
+    }
+    
+    public BoardSize getBoardSize() {
+        return boardSize;
+    }
+    
+    public int getTickCount() {
+        return tickCount;
+    }
+    
+    public int getFinalScore() {
+        return finalScore;
+    }
+    
+    public int getChangeCount() {
+        return changeTicks.length;
+    }
+    
+    // Tick at which the change takes effect, i.e. the number of steps taken before it
+    public int getChangeTick(int index) {
+        return changeTicks[index];
+    }
+    
+    public Direction getChangeDirection(int index) {
+        return DIRECTIONS[changeDirections[index]];
+    }
+    
+    public void write(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.writeInt(MAGIC);
+        data.writeByte(VERSION);
+        data.writeLong(seed);
+        data.writeByte(difficulty.ordinal());
+        data.writeShort(boardSize.getWidth());
+        data.writeShort(boardSize.getHeight());
+        writeVarint(data, tickCount);
+        writeVarint(data, finalScore);
+        writeVarint(data, changeTicks.length);
+        int previous = 0;
+        for (int i = 0; i < changeTicks.length; i++) {
+            writeVarint(data, changeTicks[i] - previous);
+            data.writeByte(changeDirections[i]);
+            previous = changeTicks[i];
+        }
+        data.flush();
+    }
+    
+    public static Replay read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a replay file");
+        }
+        int version = data.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported replay version " + version);
+        }
+        long seed = data.readLong();
+        int ordinal = data.readUnsignedByte();
+        if (ordinal >= Difficulty.values().length) {
+            throw new IOException("Corrupt replay: bad difficulty " + ordinal);
+        }
+        Difficulty difficulty = Difficulty.values()[ordinal];
+        int width = data.readUnsignedShort();
+        int height = data.readUnsignedShort();
+        if (!BoardSize.isSupported(width, height)) {
+            throw new IOException("Corrupt replay: bad board size " + width + "x" + height);
+        }
+        BoardSize boardSize = new BoardSize(width, height);
+        int tickCount = readVarint(data);
+        int finalScore = readVarint(data);
+        if (tickCount < 0 || finalScore < 0) {
+            throw new IOException("Corrupt replay: bad tick count or score");
+        }
+        int count = readVarint(data);
+        // Every change takes at least two bytes, so the rest of the file bounds the count
+        byte[] rest = data.readAllBytes();
+        if (count < 0 || count > rest.length / 2) {
+            throw new IOException("Corrupt replay: bad change count " + count);
+        }
+        DataInputStream changes = new DataInputStream(new ByteArrayInputStream(rest));
+        int[] ticks = new int[count];
+        byte[] directions = new byte[count];
+        int tick = 0;
+        for (int i = 0; i < count; i++) {
+            int delta = readVarint(changes);
+            if (delta < 0 || delta > tickCount - tick) {
+                throw new IOException("Corrupt replay: change past the last tick");
+            }
+            tick += delta;
+            ticks[i] = tick;
+            directions[i] = changes.readByte();
+            if (directions[i] < 0 || directions[i] >= DIRECTIONS.length) {
+                throw new IOException("Corrupt replay: bad direction " + directions[i]);
+            }
+        }
+        return new Replay(seed, difficulty, boardSize, tickCount, finalScore, ticks, directions);
+    }
+    
+    public void save(Path path) throws IOException {
+        try (OutputStream out = Files.newOutputStream(path)) {
+            write(out);
+        }
+    }
+    
+    public static Replay load(Path path) throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            return read(in);
+        }
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof Replay)) {
+            return false;
+        }
+        Replay other = (Replay) o;
+        return seed == other.seed && difficulty == other.difficulty && boardSize.equals(other.boardSize)
+                && tickCount == other.tickCount && finalScore == other.finalScore
+                && Arrays.equals(changeTicks, other.changeTicks)
+                && Arrays.equals(changeDirections, other.changeDirections);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Long.hashCode(seed) * 31 + tickCount;
+    }
+    
+    private static final Direction[] DIRECTIONS = Direction.values();
+    
+    private static void writeVarint(DataOutput out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+    
+    private static int readVarint(DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Corrupt replay: varint too long");
+    }
+}
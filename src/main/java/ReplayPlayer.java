@@ -0,0 +1,95 @@
+import java.util.ArrayList;
+
+// Re-simulates a Replay on a headless engine. A seekable player takes a snapshot every
+// SNAPSHOT_INTERVAL ticks on the way forward, so later seeks are cheap. Each snapshot costs
+// O(board area), so players that only run forward, such as verify(), keep just the first.
+public class ReplayPlayer {
+    static final int SNAPSHOT_INTERVAL = 256;
+    
+    private final Replay replay;
+    private final SnakeEngine engine;
+    private final boolean seekable;
+    private final ArrayList<EngineSnapshot> snapshots = new ArrayList<>();
+    private int tick;
+    private int nextChange;
+    private Direction direction = Direction.RIGHT;
+    
+    public ReplayPlayer(Replay replay) {
+        this(replay, false);
+    }
+    
+    public ReplayPlayer(Replay replay, boolean seekable) {
+        this.replay = replay;
+        this.seekable = seekable;
+        BoardSize boardSize = replay.getBoardSize();
+        this.engine = new SnakeEngine(boardSize.getWidth(), boardSize.getHeight(), new GameRandom(replay.getSeed()));
+        snapshots.add(engine.snapshot());
+    }
+    
+    public Replay getReplay() {
+        return replay;
+    }
+    
+    // Make getSnapshotCount package-private for testing
+    int getSnapshotCount() {
+        return snapshots.size();
+    }
+    
+    public SnakeEngine getEngine() {
+        return engine;
+    }
+    
+    public int getTick() {
+        return tick;
+    }
+    
+    public boolean isFinished() {
+        return tick >= replay.getTickCount() || !engine.isRunning();
+    }
+    
+    public StepResult step() {
+        if (seekable && tick == snapshots.size() * SNAPSHOT_INTERVAL) {
+            snapshots.add(engine.snapshot());
+        }
+        while (nextChange < replay.getChangeCount() && replay.getChangeTick(nextChange) <= tick) {
+            direction = replay.getChangeDirection(nextChange++);
+        }
+        tick++;
+        return engine.step(direction);
+    }
+    
+    // Plays to the end as fast as possible and returns the last step's result
+    public StepResult runToEnd() {
+        StepResult result = StepResult.MOVED;
+        while (!isFinished()) {
+            result = step();
+        }
+        return result;
+    }
+    
+    // True if re-simulating the replay reproduces its recorded score
+    public static boolean verify(Replay replay) {
+        ReplayPlayer player = new ReplayPlayer(replay);
+        player.runToEnd();
+        return player.tick == replay.getTickCount() && player.engine.getScore() == replay.getFinalScore();
+    }
+    
+    // Without the periodic snapshots a backward seek replays from the start
+    public void seek(int target) {
+        target = Math.max(0, Math.min(target, replay.getTickCount()));
+        int index = Math.min(target / SNAPSHOT_INTERVAL, snapshots.size() - 1);
+        int snapshotTick = index * SNAPSHOT_INTERVAL;
+        if (target < tick || snapshotTick > tick) {
+            engine.restore(snapshots.get(index));
+            tick = snapshotTick;
+            nextChange = 0;
+            while (nextChange < replay.getChangeCount() && replay.getChangeTick(nextChange) < tick) {
+                nextChange++;
+            }
+            direction = nextChange > 0 ? replay.getChangeDirection(nextChange - 1) : Direction.RIGHT;
+        }
+        while (tick < target && !isFinished()) {
+            step();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+import java.util.Arrays;
+
+// Collects the direction used at each tick of a game and keeps only the changes.
+public class ReplayRecorder {
+    private long seed;
+    private Difficulty difficulty;
+    private final BoardSize boardSize;
+    private int[] ticks = new int[64];
+    private byte[] directions = new byte[64];
+    private int count;
+    private int tick;
+    private Direction last = Direction.RIGHT;
+    
+    // The engine must start from new GameRandom(seed) (or setSeed(seed) before reset)
+    public ReplayRecorder(long seed, Difficulty difficulty, BoardSize boardSize) {
+        this.seed = seed;
+        this.difficulty = difficulty;
+        this.boardSize = boardSize;
+    }
+    
+    // Starts recording a new game on the same board, keeping the buffers
+    public void restart(long seed, Difficulty difficulty) {
+        this.seed = seed;
+        this.difficulty = difficulty;
+        count = 0;
+        tick = 0;
+        last = Direction.RIGHT;
+    }
+    
+    // Call once per step with the direction about to be applied
+    public void record(Direction direction) {
+        if (direction != last) {
+            if (count == ticks.length) {
+                ticks = Arrays.copyOf(ticks, count * 2);
+                directions = Arrays.copyOf(directions, count * 2);
+            }
+            ticks[count] = tick;
+            directions[count] = (byte) direction.ordinal();
+            count++;
+            last = direction;
+        }
+        tick++;
+    }
+    
+    public int getTick() {
+        return tick;
+    }
+    
+    public Replay finish(int finalScore) {
+        return new Replay(seed, difficulty, boardSize, tick, finalScore,
+                Arrays.copyOf(ticks, count), Arrays.copyOf(directions, count));
+    }
+}
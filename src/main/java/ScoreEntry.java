@@ -0,0 +1,48 @@
+public final class ScoreEntry {
+    private final Difficulty difficulty;
+    private final int score;
+    private final long timestamp;
+    
+    public ScoreEntry(Difficulty difficulty, int score, long timestamp) {
+        this.difficulty = difficulty;
+        this.score = score;
+        this.timestamp = timestamp;
+    }
+    
+    public Difficulty getDifficulty() {
+        return difficulty;
+    }
+    
+    public int getScore() {
+        return score;
+    }
+    
+    // Milliseconds since the epoch
+    public long getTimestamp() {
+        return timestamp;
+    }
+    
+    // Higher scores first; on ties the earlier score ranks higher
+    boolean ranksAbove(ScoreEntry other) {
+        return score > other.score || (score == other.score && timestamp < other.timestamp);
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof ScoreEntry)) {
+            return false;
+        }
+        ScoreEntry other = (ScoreEntry) o;
+        return difficulty == other.difficulty && score == other.score && timestamp == other.timestamp;
+    }
+    
+    @Override
+    public int hashCode() {
+        return (difficulty.ordinal() * 31 + score) * 31 + Long.hashCode(timestamp);
+    }
+    
+    @Override
+    public String toString() {
+        return difficulty.getName() + " " + score + " @" + timestamp;
+    }
+}
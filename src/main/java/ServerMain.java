@@ -0,0 +1,47 @@
+import java.io.IOException;
+
+// Headless arena server: "--port N [--board WxH] [--players N] [--bots N] [--food N] [--tps N]".
+// Prints tick CPU time and bytes sent per client per tick every few seconds.
+public class ServerMain {
+    private static final int DEFAULT_PORT = 7777;
+    private static final BoardSize DEFAULT_BOARD = new BoardSize(80, 60);
+    private static final long REPORT_MILLIS = 5_000;
+    
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String board = option(args, "--board");
+        BoardSize boardSize = board == null ? DEFAULT_BOARD : BoardSize.parse(board);
+        int port = intOption(args, "--port", DEFAULT_PORT);
+        int players = intOption(args, "--players", 64);
+        int bots = intOption(args, "--bots", 0);
+        int food = intOption(args, "--food", Math.max(1, (players + bots) / 2));
+        int ticksPerSecond = intOption(args, "--tps", 10);
+        if (ticksPerSecond <= 0) {
+            System.err.println("--tps needs a positive number of ticks per second, not " + ticksPerSecond);
+            return;
+        }
+        
+        ArenaServer server = new ArenaServer(boardSize, players, bots, food, 1_000_000_000L / ticksPerSecond);
+        server.start(port);
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close, "arena-server-close"));
+        System.out.println("Arena server on port " + server.getPort() + ", " + boardSize
+                + ", up to " + players + " players");
+        while (true) {
+            Thread.sleep(REPORT_MILLIS);
+            System.out.println(server.getStats());
+        }
+    }
+    
+    private static int intOption(String[] args, String name, int defaultValue) {
+        String value = option(args, name);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+    
+    private static String option(String[] args, String name) {
+        for (int i = 0; i < args.length - 1; i++) {
+            if (args[i].equals(name)) {
+                return args[i + 1];
+            }
+        }
+        return null;
+    }
+}
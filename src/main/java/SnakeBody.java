@@ -0,0 +1,67 @@
+// Circular deque of packed cell indices, index 0 is the head.
+// Capacity is a power of two so wrapping is a mask; it doubles when full.
+public class SnakeBody {
+    private static final int INITIAL_CAPACITY = 64;
+    
+    private int[] cells;
+    private int mask;
+    private int head;
+    private int size;
+    
+    public SnakeBody() {
+        this(INITIAL_CAPACITY);
+    }
+    
+    public SnakeBody(int capacity) {
+        int cap = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        cells = new int[cap];
+        mask = cap - 1;
+        head = mask;
+    }
+    
+    public void pushHead(int cell) {
+        if (size == cells.length) {
+            grow();
+        }
+        head = (head + 1) & mask;
+        cells[head] = cell;
+        size++;
+    }
+    
+    public int popTail() {
+        int cell = cells[(head - size + 1) & mask];
+        size--;
+        return cell;
+    }
+    
+    public int get(int index) {
+        return cells[(head - index) & mask];
+    }
+    
+    public int head() {
+        return cells[head];
+    }
+    
+    public int tail() {
+        return cells[(head - size + 1) & mask];
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    public void clear() {
+        head = mask;
+        size = 0;
+    }
+    
+    private void grow() {
+        int[] grown = new int[cells.length << 1];
+        for (int i = 0; i < size; i++) {
+            grown[i] = get(size - 1 - i);
+        }
+        cells = grown;
+        mask = grown.length - 1;
+        head = size - 1;
+    }
+}
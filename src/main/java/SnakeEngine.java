@@ -0,0 +1,367 @@
+import java.nio.ByteBuffer;
+import java.util.BitSet;
+import java.util.Random;
+
+// Game rules without any Swing/AWT dependency, so games can be stepped headless.
+// Cells are packed as y * width + x.
+public class SnakeEngine {
+    private static final Direction[] DIRECTIONS = Direction.values();
+    // Fixed fields of writeState(), up to and including the head
+    private static final int STATE_HEADER_SIZE = 4 + 1 + 1 + 4 + 1 + 8 + 4 + 4;
+    
+    private final int width;
+    private final int height;
+    private final Random random;
+    private final SnakeBody body;
+    private final OccupancyGrid occupied;
+    private final FreeCellIndex freeCells;
+    private int food;
+    private int vacated = -1;
+    private Direction direction;
+    private boolean running;
+    private int score;
+    
+    public SnakeEngine(int width, int height, Random random) {
+        this.width = width;
+        this.height = height;
+        this.random = random;
+        this.body = new SnakeBody(Math.min(width * height, 1024));
+        this.occupied = new OccupancyGrid(width * height);
+        this.freeCells = new FreeCellIndex(width * height);
+        reset();
+    }
+    
+    public void reset() {
+        body.clear();
+        occupied.clearAll();
+        freeCells.fill();
+        vacated = -1;
+        addHead(cell(width / 2, height / 2));
+        direction = Direction.RIGHT;
+        score = 0;
+        spawnFood();
+        running = true;
+    }
+    
+    public StepResult step(Direction dir) {
+        direction = dir;
+        vacated = -1;
+        int head = body.head();
+        int x = head % width + dir.getDx();
+        int y = head / width + dir.getDy();
+        
+        // Check collision with walls
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            running = false;
+            return StepResult.HIT_WALL;
+        }
+        
+        // Check collision with self
+        int newHead = cell(x, y);
+        if (occupied.isSet(newHead)) {
+            running = false;
+            return StepResult.HIT_SELF;
+        }
+        
+        addHead(newHead);
+        
+        // Check if food is eaten
+        if (newHead == food) {
+            score++;
+            if (!spawnFood()) {
+                running = false;
+                return StepResult.WON;
+            }
+            return StepResult.ATE;
+        }
+        int tail = body.popTail();
+        occupied.clear(tail);
+        freeCells.add(tail);
+        vacated = tail;
+        return StepResult.MOVED;
+    }
+    
+    private void addHead(int cell) {
+        body.pushHead(cell);
+        occupied.set(cell);
+        freeCells.remove(cell);
+    }
+    
+    // Picks a random free cell; returns false when the board is full.
+    // Package-private so benchmarks can measure it in isolation
+    boolean spawnFood() {
+        if (FoodSpawnEvent.isTypeEnabled()) {
+            FoodSpawnEvent event = new FoodSpawnEvent();
+            event.begin();
+            boolean spawned = placeFood();
+            event.cell = food;
+            event.freeCells = freeCells.size();
+            event.commit();
+            return spawned;
+        }
+        return placeFood();
+    }
+    
+    private boolean placeFood() {
+        if (freeCells.size() == 0) {
+            food = -1;
+            return false;
+        }
+        food = freeCells.get(random.nextInt(freeCells.size()));
+        return true;
+    }
+    
+    public EngineSnapshot snapshot() {
+        int[] cells = new int[body.size()];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = body.get(i);
+        }
+        boolean hasRandomState = random instanceof GameRandom;
+        long randomState = hasRandomState ? ((GameRandom) random).getState() : 0;
+        return new EngineSnapshot(width, height, cells, freeCells.toArray(), food, direction, score, running,
+                hasRandomState, randomState);
+    }
+    
+    // Replaces the current state. Costs O(board area) to rebuild the free-cell index.
+    public void restore(EngineSnapshot snapshot) {
+        if (snapshot.getWidth() != width || snapshot.getHeight() != height) {
+            throw new IllegalArgumentException("Snapshot is for a " + snapshot.getWidth() + "x"
+                    + snapshot.getHeight() + " board, not " + width + "x" + height);
+        }
+        body.clear();
+        occupied.clearAll();
+        for (int i = snapshot.getLength() - 1; i >= 0; i--) {
+            body.pushHead(snapshot.getCell(i));
+            occupied.set(snapshot.getCell(i));
+        }
+        freeCells.setAll(snapshot.getFreeCells());
+        food = snapshot.getFood();
+        direction = snapshot.getDirection();
+        score = snapshot.getScore();
+        running = snapshot.isRunning();
+        vacated = -1;
+        if (snapshot.hasRandomState() && random instanceof GameRandom) {
+            ((GameRandom) random).setState(snapshot.getRandomState());
+        }
+    }
+    
+    // Bytes writeState() needs: fixed fields, 2 bits per segment after the head and
+    // 4 bytes per free cell
+    int stateSize() {
+        return 4 + 1 + 1 + 4 + 1 + 8 + 4 + 4 + (body.size() + 2) / 4 + 4 + 4 * freeCells.size();
+    }
+    
+    // Writes the state in the binary form GameSnapshot stores. Segments after the head are
+    // packed four to a byte as the direction from the previous segment.
+    void writeState(ByteBuffer out) {
+        out.putInt(score);
+        out.put((byte) direction.ordinal());
+        out.put((byte) (running ? 1 : 0));
+        out.putInt(food);
+        boolean hasRandomState = random instanceof GameRandom;
+        out.put((byte) (hasRandomState ? 1 : 0));
+        out.putLong(hasRandomState ? ((GameRandom) random).getState() : 0);
+        int length = body.size();
+        out.putInt(length);
+        out.putInt(body.head());
+        int packed = 0;
+        for (int i = 1; i < length; i++) {
+            packed |= directionBetween(body.get(i - 1), body.get(i)) << (((i - 1) & 3) << 1);
+            if (((i - 1) & 3) == 3 || i == length - 1) {
+                out.put((byte) packed);
+                packed = 0;
+            }
+        }
+        out.putInt(freeCells.size());
+        for (int i = 0; i < freeCells.size(); i++) {
+            out.putInt(freeCells.get(i));
+        }
+    }
+    
+    // Replaces the current state with one written by writeState(), reusing this
+    // engine's buffers. The state is checked first, so a bad one leaves the engine untouched.
+    void readState(ByteBuffer in) {
+        checkState(in.duplicate(), width, height);
+        score = in.getInt();
+        direction = DIRECTIONS[in.get()];
+        running = in.get() != 0;
+        food = in.getInt();
+        boolean hasRandomState = in.get() != 0;
+        long randomState = in.getLong();
+        if (hasRandomState && random instanceof GameRandom) {
+            ((GameRandom) random).setState(randomState);
+        }
+        int length = in.getInt();
+        int head = in.getInt();
+        int moves = in.position();
+        
+        // The body is rebuilt tail first, so walk to the tail and then back
+        int tail = head;
+        for (int i = 1; i < length; i++) {
+            tail = neighbour(tail, moveAt(in, moves, i));
+        }
+        body.clear();
+        occupied.clearAll();
+        int cell = tail;
+        for (int i = length - 1; i > 0; i--) {
+            body.pushHead(cell);
+            occupied.set(cell);
+            cell = neighbour(cell, DIRECTIONS[moveAt(in, moves, i)].opposite().ordinal());
+        }
+        body.pushHead(cell);
+        occupied.set(cell);
+        in.position(moves + (length - 1 + 3) / 4);
+        
+        int free = in.getInt();
+        freeCells.clear();
+        for (int i = 0; i < free; i++) {
+            freeCells.add(in.getInt());
+        }
+        vacated = -1;
+    }
+    
+    // Throws IllegalArgumentException unless the buffer holds a complete state, as written
+    // by writeState(), that fits a width x height board. Consumes the buffer.
+    static void checkState(ByteBuffer in, int width, int height) {
+        int cells = width * height;
+        if (in.remaining() < STATE_HEADER_SIZE) {
+            throw new IllegalArgumentException("Truncated state");
+        }
+        int score = in.getInt();
+        int direction = in.get();
+        in.get();
+        int food = in.getInt();
+        in.get();
+        in.getLong();
+        int length = in.getInt();
+        int head = in.getInt();
+        if (score < 0 || direction < 0 || direction >= DIRECTIONS.length) {
+            throw new IllegalArgumentException("Bad score or direction");
+        }
+        if (food < -1 || food >= cells) {
+            throw new IllegalArgumentException("Food off the board " + food);
+        }
+        if (length < 1 || length > cells) {
+            throw new IllegalArgumentException("Bad snake length " + length);
+        }
+        if (head < 0 || head >= cells) {
+            throw new IllegalArgumentException("Head off the board " + head);
+        }
+        int moves = in.position();
+        if (in.remaining() < (length - 1 + 3) / 4 + 4) {
+            throw new IllegalArgumentException("Truncated state");
+        }
+        BitSet taken = new BitSet(cells);
+        taken.set(head);
+        int x = head % width;
+        int y = head / width;
+        for (int i = 1; i < length; i++) {
+            Direction move = DIRECTIONS[moveAt(in, moves, i)];
+            x += move.getDx();
+            y += move.getDy();
+            if (x < 0 || y < 0 || x >= width || y >= height || taken.get(y * width + x)) {
+                throw new IllegalArgumentException("Bad body segment " + i);
+            }
+            taken.set(y * width + x);
+        }
+        in.position(moves + (length - 1 + 3) / 4);
+        
+        int free = in.getInt();
+        if (free < 0 || free > cells - length || in.remaining() < 4 * free) {
+            throw new IllegalArgumentException("Bad free cell count " + free);
+        }
+        for (int i = 0; i < free; i++) {
+            int cell = in.getInt();
+            if (cell < 0 || cell >= cells || taken.get(cell)) {
+                throw new IllegalArgumentException("Bad free cell " + cell);
+            }
+            taken.set(cell);
+        }
+    }
+    
+    // Direction of the i-th packed move, i counting from 1
+    private static int moveAt(ByteBuffer in, int start, int i) {
+        return (in.get(start + ((i - 1) >> 2)) >> (((i - 1) & 3) << 1)) & 3;
+    }
+    
+    private int directionBetween(int from, int to) {
+        int dx = to % width - from % width;
+        int dy = to / width - from / width;
+        return dx > 0 ? Direction.RIGHT.ordinal() : dx < 0 ? Direction.LEFT.ordinal()
+                : dy > 0 ? Direction.DOWN.ordinal() : Direction.UP.ordinal();
+    }
+    
+    private int neighbour(int cell, int direction) {
+        return cell + DIRECTIONS[direction].getDx() + DIRECTIONS[direction].getDy() * width;
+    }
+    
+    private int cell(int x, int y) {
+        return y * width + x;
+    }
+    
+    public int getWidth() {
+        return width;
+    }
+    
+    public int getHeight() {
+        return height;
+    }
+    
+    public boolean isOccupied(int x, int y) {
+        return occupied.isSet(cell(x, y));
+    }
+    
+    public int getLength() {
+        return body.size();
+    }
+    
+    // Segment coordinates, index 0 is the head
+    public int getX(int index) {
+        return body.get(index) % width;
+    }
+    
+    public int getY(int index) {
+        return body.get(index) / width;
+    }
+    
+    // Food coordinates are -1 once the board is full
+    public int getFoodX() {
+        return food < 0 ? -1 : food % width;
+    }
+    
+    public int getFoodY() {
+        return food < 0 ? -1 : food / width;
+    }
+    
+    public boolean hasWon() {
+        return food < 0;
+    }
+    
+    // Packed food cell, -1 once the board is full
+    public int getFoodCell() {
+        return food;
+    }
+    
+    // Packed cell the tail left during the last step, -1 if it did not move
+    public int getVacatedCell() {
+        return vacated;
+    }
+    
+    public int getScore() {
+        return score;
+    }
+    
+    public boolean isRunning() {
+        return running;
+    }
+    
+    // Direction applied by the last step
+    public Direction getDirection() {
+        return direction;
+    }
+    
+    // Make setFood package-private for testing
+    void setFood(int x, int y) {
+        food = cell(x, y);
+    }
+}
@@ -0,0 +1,24 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// One paintComponent call on the EDT
+@Name("SnakeFrame")
+@Label("Snake Frame")
+@Category("Snake")
+@Description("One paint of the game panel")
+public class SnakeFrameEvent extends jdk.jfr.Event {
+    private static final EventType TYPE = EventType.getEventType(SnakeFrameEvent.class);
+    
+    @Label("Clip Width")
+    int clipWidth;
+    
+    @Label("Clip Height")
+    int clipHeight;
+    
+    static boolean isTypeEnabled() {
+        return TYPE.isEnabled();
+    }
+}
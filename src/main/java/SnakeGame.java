@@ -4,32 +4,135 @@ import java.awt.event.*;
 import java.util.ArrayList;
 import java.util.Random;
 
-public class SnakeGame extends JPanel implements ActionListener {
-    private static final int TILE_SIZE = 25;
-    private static final int BOARD_WIDTH = 20;
-    private static final int BOARD_HEIGHT = 20;
+public class SnakeGame extends JPanel {
+    // Boards are scaled so their longer side fits this many pixels
+    private static final int BOARD_PIXELS = 500;
+    
+    // Height of the score/difficulty text band at the top of the board
+    private static final int HUD_HEIGHT = 45;
+    private static final Font HUD_FONT = new Font("Arial", Font.BOLD, 16);
+    private static final Font TITLE_FONT = new Font("Arial", Font.BOLD, 36);
+    private static final Font MESSAGE_FONT = new Font("Arial", Font.PLAIN, 20);
+    private static final Font HINT_FONT = new Font("Arial", Font.PLAIN, 16);
+    private static final Font OVERLAY_FONT = new Font("Monospaced", Font.PLAIN, 12);
+    // Every font a game draws with; Startup renders with them before the first game
+    static final Font[] FONTS = {HUD_FONT, TITLE_FONT, MESSAGE_FONT, HINT_FONT, OVERLAY_FONT};
+    private static final Color OVERLAY_BACKGROUND = new Color(0, 0, 0, 180);
+    private static final int OVERLAY_WIDTH = 260;
+    private static final int OVERLAY_LINE_HEIGHT = 15;
+    // Arrow keys seek a replay back and forth by this many ticks
+    private static final int REPLAY_SEEK_TICKS = 100;
+    // In demo mode a finished game restarts after this many milliseconds
+    private static final int DEMO_RESTART_DELAY = 2000;
+    // Turns pressed faster than the game steps wait here; more than this are dropped
+    private static final int INPUT_QUEUE_CAPACITY = 8;
     
     private GameManager gameManager;
     private Difficulty difficulty;
-    private ArrayList<Point> snake;
-    private Point food;
-    private String direction;
-    private boolean running;
-    private Timer timer;
+    private BoardSize boardSize;
+    private int tileSize;
+    private BoardRenderer renderer;
+    private SnakeEngine engine;
+    // Last direction applied to the snake; written by the loop thread
+    private volatile Direction direction;
+    // The EDT offers turns; the loop thread polls them inside step(), under lock, so the
+    // EDT may clear the queue while it holds lock
+    private final InputQueue input = new InputQueue(INPUT_QUEUE_CAPACITY);
+    // Time from key press to the step that applies it; recorded on the loop thread
+    private final LatencyHistogram inputLatency = new LatencyHistogram();
+    // Tick and frame timings for the F3 overlay; guarded by lock
+    private final GameMetrics metrics = new GameMetrics();
+    private volatile boolean overlay;
+    private String[] overlayText = {"Collecting metrics..."};
+    private GameLoop gameLoop;
+    // Step time for the current score; replays divide it by their playback speed
+    private SpeedCurve speedCurve;
+    private final double speed;
+    // One timer per panel, so a reused panel never has an old restart pending
+    private final Timer demoRestart;
     private Random random;
-    private int score;
+    // Records each game when the Random is a GameRandom, whose seed can be reproduced
+    private ReplayRecorder recorder;
+    // False for resumed games, whose replay would lack the ticks before the save
+    private boolean recording;
+    // Set when this panel plays back a replay instead of taking input
+    private ReplayPlayer replayPlayer;
+    private volatile Replay lastReplay;
+    // Game events for analytics, null on replay panels; tick counts steps of the current game
+    private final TelemetryLog telemetry;
+    private int tick;
+    // Decided when the game ends, before the high score is updated
+    private volatile boolean newHighScore;
+    // Steers instead of the arrow keys while demo mode is on
+    private volatile Autopilot autopilot;
+    // P stops the loop without ending the game; resumed games start paused
+    private volatile boolean paused;
+    // State to continue from instead of a new game, used once by startGame()
+    private GameSnapshot resumeFrom;
+    // Guards engine and renderer, which the loop thread steps while the EDT paints
+    private final Object lock = new Object();
+    
+    // HUD strings are rebuilt only when their value changes, and rasterised only then too
+    private final HudText scoreHud = new HudText(HUD_FONT, Color.WHITE);
+    private final HudText difficultyHud = new HudText(HUD_FONT, Color.WHITE);
+    private final HudText highScoreHud = new HudText(HUD_FONT, Color.WHITE);
+    private final HudText autopilotHud = new HudText(HUD_FONT, Color.WHITE);
+    private String scoreText;
+    private int scoreTextValue = -1;
+    private String highScoreText;
+    private int highScoreTextValue = -1;
     
     public SnakeGame(GameManager gameManager, Difficulty difficulty) {
-        this(gameManager, difficulty, new Random());
+        this(gameManager, difficulty, BoardSize.DEFAULT);
+    }
+    
+    public SnakeGame(GameManager gameManager, Difficulty difficulty, BoardSize boardSize) {
+        this(gameManager, difficulty, boardSize, new GameRandom());
+    }
+    
+    // Plays back a recorded game at the given multiple of real time
+    public SnakeGame(GameManager gameManager, Replay replay, double speed) {
+        this(gameManager, replay.getDifficulty(), replay.getBoardSize(), null, new ReplayPlayer(replay, true), speed, null);
+    }
+    
+    // Continues a game suspended with suspend()
+    public SnakeGame(GameManager gameManager, GameSnapshot snapshot) {
+        this(gameManager, snapshot.getDifficulty(), snapshot.getBoardSize(), new GameRandom(), null, 1.0, snapshot);
     }
     
     // Constructor for testing with custom Random
     SnakeGame(GameManager gameManager, Difficulty difficulty, Random random) {
+        this(gameManager, difficulty, BoardSize.DEFAULT, random);
+    }
+    
+    SnakeGame(GameManager gameManager, Difficulty difficulty, BoardSize boardSize, Random random) {
+        this(gameManager, difficulty, boardSize, random, null, 1.0, null);
+    }
+    
+    private SnakeGame(GameManager gameManager, Difficulty difficulty, BoardSize boardSize, Random random,
+                      ReplayPlayer replayPlayer, double speed, GameSnapshot resumeFrom) {
         this.gameManager = gameManager;
         this.difficulty = difficulty;
+        this.boardSize = boardSize;
         this.random = random;
+        this.replayPlayer = replayPlayer;
+        this.resumeFrom = resumeFrom;
+        this.telemetry = replayPlayer == null ? gameManager.getTelemetry() : null;
+        this.speedCurve = difficulty.getSpeedCurve();
+        this.speed = speed;
+        this.tileSize = boardSize.tileSizeFor(BOARD_PIXELS);
+        this.renderer = new BoardRenderer(boardSize, tileSize, screenConfiguration());
+        difficultyHud.setText(replayPlayer == null
+                ? "Difficulty: " + difficulty.getName()
+                : "Replay: " + difficulty.getName() + " x" + speed);
+        autopilotHud.setText("Autopilot (A)");
+        this.gameLoop = new GameLoop("snake-game-loop", (long) (speedCurve.stepNanos(0) / speed), this::tick);
+        this.demoRestart = new Timer(DEMO_RESTART_DELAY, e -> {
+            if (autopilot != null && !engine.isRunning()) startGame();
+        });
+        demoRestart.setRepeats(false);
         
-        setPreferredSize(new Dimension(BOARD_WIDTH * TILE_SIZE, BOARD_HEIGHT * TILE_SIZE));
+        setPreferredSize(new Dimension(boardSize.getWidth() * tileSize, boardSize.getHeight() * tileSize));
         setBackground(Color.BLACK);
         setFocusable(true);
         addKeyListener(new KeyAdapter() {
@@ -42,208 +145,624 @@ public class SnakeGame extends JPanel implements ActionListener {
         startGame();
     }
     
+    // Starts a new game on this panel, keeping its engine, images and buffers. The board
+    // size stays; GameManager builds a new panel when that changes.
+    public void reset(Difficulty difficulty) {
+        prepare(difficulty);
+        startGame();
+    }
+    
+    // Continues a suspended game on this panel; the snapshot must be for this board size
+    public void resume(GameSnapshot snapshot) {
+        if (!snapshot.getBoardSize().equals(boardSize)) {
+            throw new IllegalArgumentException("Saved game is for a " + snapshot.getBoardSize() + " board, not "
+                    + boardSize);
+        }
+        prepare(snapshot.getDifficulty());
+        resumeFrom = snapshot;
+        startGame();
+    }
+    
+    private void prepare(Difficulty difficulty) {
+        if (replayPlayer != null) {
+            throw new IllegalStateException("Replay panels cannot be reused");
+        }
+        stop();
+        autopilot = null;
+        paused = false;
+        if (difficulty != this.difficulty) {
+            this.difficulty = difficulty;
+            difficultyHud.setText("Difficulty: " + difficulty.getName());
+            speedCurve = difficulty.getSpeedCurve();
+        }
+    }
+    
+    // Accelerated images need a screen; headless runs draw into BufferedImages instead
+    private static GraphicsConfiguration screenConfiguration() {
+        if (GraphicsEnvironment.isHeadless()) {
+            return null;
+        }
+        return GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration();
+    }
+    
     // Getter methods for testing
     int getScore() {
-        return score;
+        return engine.getScore();
     }
     
     boolean isRunning() {
-        return running;
+        return engine.isRunning();
     }
     
     String getDirection() {
-        return direction;
+        return direction.name();
     }
     
     ArrayList<Point> getSnake() {
-        return new ArrayList<>(snake);
+        ArrayList<Point> snake = new ArrayList<>(engine.getLength());
+        for (int i = 0; i < engine.getLength(); i++) {
+            snake.add(new Point(engine.getX(i), engine.getY(i)));
+        }
+        return snake;
     }
     
     Point getFood() {
-        return new Point(food);
+        return new Point(engine.getFoodX(), engine.getFoodY());
     }
     
+    // Dimensions of the default board
     static int getBoardWidth() {
-        return BOARD_WIDTH;
+        return BoardSize.DEFAULT.getWidth();
     }
     
     static int getBoardHeight() {
-        return BOARD_HEIGHT;
+        return BoardSize.DEFAULT.getHeight();
+    }
+    
+    BoardSize getBoardSize() {
+        return boardSize;
     }
     
     // Setter methods for testing
     // Make setDirection package-private for testing
     void setDirection(String direction) {
-        this.direction = direction;
+        this.direction = Direction.valueOf(direction);
     }
 
     // Make setFood package-private for testing
     void setFood(Point food) {
-        this.food = food;
+        synchronized (lock) {
+            engine.setFood(food.x, food.y);
+            renderer.renderAll(engine);
+        }
+        repaint();
     }
     
-    private void startGame() {
-        snake = new ArrayList<>();
-        snake.add(new Point(BOARD_WIDTH / 2, BOARD_HEIGHT / 2));
-        direction = "RIGHT";
-        score = 0;
-        spawnFood();
-        running = true;
-        
-        if (timer != null) {
-            timer.stop();
-        }
-        timer = new Timer(difficulty.getDelay(), this);
-        timer.start();
+    // Time from a key press to the step that turned the snake
+    LatencyHistogram getInputLatency() {
+        return inputLatency;
     }
     
-    private void spawnFood() {
-        int x, y;
-        do {
-            x = random.nextInt(BOARD_WIDTH);
-            y = random.nextInt(BOARD_HEIGHT);
-        } while (snake.contains(new Point(x, y)));
-        
-        food = new Point(x, y);
+    GameMetrics getMetrics() {
+        return metrics;
+    }
+    
+    boolean isOverlayVisible() {
+        return overlay;
+    }
+    
+    // Tick jitter of the game loop: how late each step started
+    LatencyHistogram getTickJitter() {
+        return gameLoop.getJitter();
+    }
+    
+    // Current time between steps, from the difficulty's speed curve
+    long getStepNanos() {
+        return gameLoop.getStepNanos();
+    }
+    
+    // Make setAutopilot package-private for testing
+    void setAutopilot(boolean enabled) {
+        autopilot = enabled ? new Autopilot() : null;
+        repaint(0, 0, getWidth(), HUD_HEIGHT);
+    }
+    
+    boolean isAutopilot() {
+        return autopilot != null;
+    }
+    
+    boolean isNewHighScore() {
+        return newHighScore;
+    }
+    
+    // Replay of the last finished game, or null if it was not recorded
+    Replay getLastReplay() {
+        return lastReplay;
     }
     
-    private void handleKeyPress(int keyCode) {
+    private void startGame() {
+        synchronized (lock) {
+            direction = Direction.RIGHT;
+            if (replayPlayer != null) {
+                replayPlayer.seek(0);
+                engine = replayPlayer.getEngine();
+            } else if (resumeFrom != null) {
+                if (engine == null) {
+                    engine = new SnakeEngine(boardSize.getWidth(), boardSize.getHeight(), random);
+                }
+                resumeFrom.restore(engine);
+                recording = false;
+                resumeFrom = null;
+                direction = engine.getDirection();
+                paused = true;
+                tick = 0;
+                log(TelemetryLog.RESUME, 0);
+            } else {
+                if (random instanceof GameRandom) {
+                    // Reseed per game so each game replays from its seed alone
+                    long seed = random.nextLong();
+                    random.setSeed(seed);
+                    if (recorder == null) {
+                        recorder = new ReplayRecorder(seed, difficulty, boardSize);
+                    } else {
+                        recorder.restart(seed, difficulty);
+                    }
+                    recording = true;
+                }
+                // Restarts reuse the engine's body, grid and free-cell buffers
+                if (engine == null) {
+                    engine = new SnakeEngine(boardSize.getWidth(), boardSize.getHeight(), random);
+                } else {
+                    engine.reset();
+                }
+                tick = 0;
+                log(TelemetryLog.START, 0);
+            }
+            input.clear();
+            newHighScore = false;
+            updateSpeed();
+            renderer.renderAll(engine);
+        }
+        repaint();
+        if (!paused) {
+            gameLoop.start();
+        }
+    }
+    
+    // Make handleKeyPress package-private for testing
+    void handleKeyPress(int keyCode) {
+        if (keyCode == KeyEvent.VK_F3) {
+            toggleOverlay();
+            return;
+        }
+        if (replayPlayer != null) {
+            handleReplayKeyPress(keyCode);
+            return;
+        }
+        if (paused && isArrowKey(keyCode)) {
+            return;
+        }
+        if (autopilot != null && isArrowKey(keyCode)) {
+            // Any arrow key takes back control from demo mode
+            setAutopilot(false);
+        }
         switch (keyCode) {
+            // Turns are checked against the direction when move() applies them
             case KeyEvent.VK_UP:
-                if (!direction.equals("DOWN")) direction = "UP";
+                input.offer(Direction.UP, System.nanoTime());
                 break;
             case KeyEvent.VK_DOWN:
-                if (!direction.equals("UP")) direction = "DOWN";
+                input.offer(Direction.DOWN, System.nanoTime());
                 break;
             case KeyEvent.VK_LEFT:
-                if (!direction.equals("RIGHT")) direction = "LEFT";
+                input.offer(Direction.LEFT, System.nanoTime());
                 break;
             case KeyEvent.VK_RIGHT:
-                if (!direction.equals("LEFT")) direction = "RIGHT";
+                input.offer(Direction.RIGHT, System.nanoTime());
                 break;
             case KeyEvent.VK_SPACE:
-                if (!running) startGame();
+                if (!engine.isRunning()) startGame();
+                break;
+            case KeyEvent.VK_A:
+                setAutopilot(autopilot == null);
+                if (autopilot != null && !engine.isRunning()) startGame();
+                break;
+            case KeyEvent.VK_P:
+                setPaused(!paused);
                 break;
             case KeyEvent.VK_ESCAPE:
-                if (timer != null) {
-                    timer.stop();
+                stop();
+                // A game in progress is kept so the menu can offer to resume it
+                if (engine.isRunning()) {
+                    gameManager.suspendGame(suspend());
                 }
                 gameManager.showStartMenu();
                 break;
         }
     }
     
-    // Make move method package-private for testing
-    void move() {
-        Point head = snake.get(0);
-        Point newHead = new Point(head);
-        
-        switch (direction) {
-            case "UP":
-                newHead.y--;
+    // Make setPaused package-private for testing
+    void setPaused(boolean pause) {
+        if (pause == paused || !engine.isRunning()) {
+            return;
+        }
+        paused = pause;
+        if (pause) {
+            gameLoop.stop();
+        } else {
+            // Keys pressed while paused should not all fire at once
+            synchronized (lock) {
+                input.clear();
+            }
+            gameLoop.start();
+        }
+        repaint();
+    }
+    
+    boolean isPaused() {
+        return paused;
+    }
+    
+    // Captures the full game state, e.g. to continue it after a restart of the application
+    GameSnapshot suspend() {
+        synchronized (lock) {
+            return GameSnapshot.capture(difficulty, engine);
+        }
+    }
+    
+    private static boolean isArrowKey(int keyCode) {
+        return keyCode == KeyEvent.VK_UP || keyCode == KeyEvent.VK_DOWN
+                || keyCode == KeyEvent.VK_LEFT || keyCode == KeyEvent.VK_RIGHT;
+    }
+    
+    private void handleReplayKeyPress(int keyCode) {
+        switch (keyCode) {
+            case KeyEvent.VK_LEFT:
+                seekReplay(-REPLAY_SEEK_TICKS);
                 break;
-            case "DOWN":
-                newHead.y++;
+            case KeyEvent.VK_RIGHT:
+                seekReplay(REPLAY_SEEK_TICKS);
                 break;
-            case "LEFT":
-                newHead.x--;
+            case KeyEvent.VK_SPACE:
+                if (replayPlayer.isFinished()) startGame();
                 break;
-            case "RIGHT":
-                newHead.x++;
+            case KeyEvent.VK_ESCAPE:
+                stop();
+                gameManager.showStartMenu();
                 break;
         }
-        
-        // Check collision with walls
-        if (newHead.x < 0 || newHead.x >= BOARD_WIDTH || 
-            newHead.y < 0 || newHead.y >= BOARD_HEIGHT) {
-            gameOver();
-            return;
+    }
+    
+    private void seekReplay(int ticks) {
+        synchronized (lock) {
+            replayPlayer.seek(replayPlayer.getTick() + ticks);
+            updateSpeed();
+            renderer.renderAll(engine);
         }
-        
-        // Check collision with self
-        if (snake.contains(newHead)) {
-            gameOver();
-            return;
+        repaint();
+        if (!replayPlayer.isFinished()) {
+            gameLoop.start();
+        }
+    }
+    
+    // Stops the game loop; tests call this before driving move() themselves
+    void stop() {
+        gameLoop.stop();
+        demoRestart.stop();
+    }
+    
+    private void toggleOverlay() {
+        synchronized (lock) {
+            overlay = !overlay;
+            metrics.setEnabled(overlay, System.nanoTime());
+            overlayText = new String[] {"Collecting metrics..."};
+        }
+        repaint();
+    }
+    
+    // Runs on the game loop thread
+    private void tick() {
+        if (engine.isRunning()) {
+            // Timing is only taken while someone looks at it
+            if (overlay || SnakeTickEvent.isTypeEnabled()) {
+                timedMove();
+            } else {
+                move();
+            }
+        }
+    }
+    
+    private void timedMove() {
+        SnakeTickEvent event = SnakeTickEvent.isTypeEnabled() ? new SnakeTickEvent() : null;
+        if (event != null) {
+            event.begin();
+        }
+        long start = System.nanoTime();
+        move();
+        long end = System.nanoTime();
+        synchronized (lock) {
+            if (event != null) {
+                event.score = engine.getScore();
+                event.length = engine.getLength();
+                event.commit();
+            }
+            if (overlay) {
+                metrics.recordTick(end - start);
+                if (metrics.roll(end)) {
+                    updateOverlayText();
+                    repaint(overlayBounds());
+                }
+            }
+        }
+    }
+    
+    private void updateOverlayText() {
+        double targetTps = 1e9 / gameLoop.getStepNanos();
+        long allocated = metrics.getAllocatedPerSecond();
+        overlayText = new String[] {
+                String.format("Tick  p50/p99 %6.2f /%6.2f ms", metrics.getTickP50() / 1e6, metrics.getTickP99() / 1e6),
+                String.format("Frame p50/p99 %6.2f /%6.2f ms", metrics.getFrameP50() / 1e6, metrics.getFrameP99() / 1e6),
+                String.format("Input p50/p99 %6.2f /%6.2f ms",
+                        inputLatency.getPercentile(50) / 1e6, inputLatency.getPercentile(99) / 1e6),
+                String.format("TPS %.1f of %.1f", metrics.getTicksPerSecond(), targetTps),
+                allocated < 0
+                        ? String.format("GC %d (%d ms)", metrics.getCollections(), metrics.getCollectionMillis())
+                        : String.format("Alloc %.2f MB/s  GC %d (%d ms)", allocated / 1e6,
+                                metrics.getCollections(), metrics.getCollectionMillis())
+        };
+    }
+    
+    // Bottom-left corner of the board, sized for the overlay text
+    private Rectangle overlayBounds() {
+        int height = overlayText.length * OVERLAY_LINE_HEIGHT + 8;
+        return new Rectangle(5, getHeight() - height - 5, OVERLAY_WIDTH, height);
+    }
+    
+    // Make move method package-private for testing
+    void move() {
+        boolean ended;
+        synchronized (lock) {
+            ended = step();
+        }
+        // Outside the lock: off the loop thread, stop() waits for a step that may need it
+        if (ended) {
+            gameLoop.stop();
+        }
+    }
+    
+    // Returns true once the game or replay is over and the loop should stop
+    private boolean step() {
+        if (!engine.isRunning()) {
+            return true;
+        }
+        int previousScore = engine.getScore();
+        StepResult result;
+        if (replayPlayer != null) {
+            if (replayPlayer.isFinished()) {
+                // The recording ended before the game did
+                return true;
+            }
+            result = replayPlayer.step();
+        } else {
+            Direction previous = direction;
+            Autopilot pilot = autopilot;
+            if (pilot != null) {
+                direction = pilot.choose(engine);
+            } else {
+                applyInput();
+            }
+            if (direction != previous) {
+                log(TelemetryLog.TURN, direction.ordinal());
+            }
+            if (recording) {
+                recorder.record(direction);
+            }
+            result = engine.step(direction);
+            tick++;
+            if (result == StepResult.ATE || result == StepResult.WON) {
+                log(TelemetryLog.FOOD, 0);
+            }
+        }
+        if (result.isGameOver()) {
+            gameOver(result);
+            return true;
         }
         
-        snake.add(0, newHead);
-        
-        // Check if food is eaten
-        if (newHead.equals(food)) {
-            score++;
-            spawnFood();
+        // Only the cells the step touched are repainted from the back buffer
+        if (renderer.update(engine)) {
+            repaint();
         } else {
-            snake.remove(snake.size() - 1);
+            for (int i = 0; i < renderer.getDirtyCount(); i++) {
+                int cell = renderer.getDirtyCell(i);
+                repaint((cell % boardSize.getWidth()) * tileSize, (cell / boardSize.getWidth()) * tileSize,
+                        tileSize, tileSize);
+            }
+        }
+        if (engine.getScore() != previousScore) {
+            updateSpeed();
+            repaint(0, 0, getWidth(), HUD_HEIGHT);
         }
+        return false;
     }
     
-    private void gameOver() {
-        running = false;
-        timer.stop();
-        gameManager.gameOver(score);
+    // A few buffer writes into a mapped segment, so safe to call from the loop thread
+    private void log(byte type, int value) {
+        if (telemetry != null) {
+            telemetry.append(difficulty, tick, type, value);
+        }
     }
     
-    @Override
-    public void actionPerformed(ActionEvent e) {
-        if (running) {
-            move();
+    // The loop keeps its absolute deadlines, so a new step time applies from the next step
+    private void updateSpeed() {
+        gameLoop.setStepNanos((long) (speedCurve.stepNanos(engine.getScore()) / speed));
+    }
+    
+    // Applies the first queued turn that is neither the current direction nor a reversal
+    // of it, so each press inside one tick becomes its own turn on a later tick
+    private void applyInput() {
+        Direction turn;
+        while ((turn = input.poll()) != null) {
+            if (turn != direction && turn != direction.opposite()) {
+                direction = turn;
+                inputLatency.record(System.nanoTime() - input.getPolledTimestamp());
+                return;
+            }
+        }
+    }
+    
+    private void gameOver(StepResult cause) {
+        if (replayPlayer != null) {
             repaint();
+            return;
+        }
+        log(TelemetryLog.DEATH, cause.ordinal());
+        int score = engine.getScore();
+        Replay replay = recording ? recorder.finish(score) : null;
+        lastReplay = replay;
+        // Both only queue file writes, so the loop thread does not block on them
+        newHighScore = gameManager.gameOver(difficulty, score);
+        if (replay != null) {
+            gameManager.saveReplay(replay);
+        }
+        repaint();
+        if (autopilot != null) {
+            demoRestart.restart();
         }
     }
     
     @Override
     protected void paintComponent(Graphics g) {
-        super.paintComponent(g);
-        
-        if (running) {
-            // Draw food
-            g.setColor(Color.RED);
-            g.fillOval(food.x * TILE_SIZE, food.y * TILE_SIZE, TILE_SIZE, TILE_SIZE);
+        if (overlay || SnakeFrameEvent.isTypeEnabled()) {
+            timedPaint(g);
+        } else {
+            paintGame(g);
+        }
+    }
+    
+    private void timedPaint(Graphics g) {
+        SnakeFrameEvent event = SnakeFrameEvent.isTypeEnabled() ? new SnakeFrameEvent() : null;
+        if (event != null) {
+            event.begin();
+        }
+        long start = System.nanoTime();
+        paintGame(g);
+        long end = System.nanoTime();
+        if (event != null) {
+            Rectangle clip = g.getClipBounds();
+            event.clipWidth = clip != null ? clip.width : getWidth();
+            event.clipHeight = clip != null ? clip.height : getHeight();
+            event.commit();
+        }
+        if (overlay) {
+            synchronized (lock) {
+                metrics.recordFrame(end - start);
+            }
+        }
+    }
+    
+    private void paintGame(Graphics g) {
+        synchronized (lock) {
+            int score = engine.getScore();
+            if (engine.isRunning()) {
+                // The back buffer holds the whole board; Swing clips this to the dirty area
+                renderer.restore(engine);
+                g.drawImage(renderer.getImage(), 0, 0, null);
             
-            // Draw snake
-            for (int i = 0; i < snake.size(); i++) {
-                Point p = snake.get(i);
-                if (i == 0) {
-                    g.setColor(Color.GREEN);
-                } else {
-                    g.setColor(new Color(45, 180, 45));
+                // Draw score and difficulty
+                if (g.hitClip(0, 0, getWidth(), HUD_HEIGHT)) {
+                    scoreHud.setText(scoreText(score));
+                    highScoreHud.setText(highScoreText(gameManager.getHighScore()));
+                    scoreHud.draw(g, 10, 20);
+                    difficultyHud.draw(g, 10, 40);
+                    highScoreHud.draw(g, getWidth() - 150, 20);
+                    if (autopilot != null) {
+                        autopilotHud.draw(g, getWidth() - 150, 40);
+                    }
                 }
-                g.fillRect(p.x * TILE_SIZE, p.y * TILE_SIZE, TILE_SIZE, TILE_SIZE);
-                g.setColor(Color.BLACK);
-                g.drawRect(p.x * TILE_SIZE, p.y * TILE_SIZE, TILE_SIZE, TILE_SIZE);
-            }
+                if (paused) {
+                    paintPaused(g);
+                }
+                if (overlay) {
+                    paintOverlay(g);
+                }
+                // Video memory can vanish mid-frame, e.g. on a display change; draw again
+                if (renderer.contentsLost()) {
+                    renderer.invalidate();
+                    repaint();
+                }
+            } else {
+                // Clear directly: super.paintComponent copies the Graphics every frame
+                g.setColor(getBackground());
+                g.fillRect(0, 0, getWidth(), getHeight());
             
-            // Draw score and difficulty
-            g.setColor(Color.WHITE);
-            g.setFont(new Font("Arial", Font.BOLD, 16));
-            g.drawString("Score: " + score, 10, 20);
-            g.drawString("Difficulty: " + difficulty.getName(), 10, 40);
-            g.drawString("High Score: " + gameManager.getHighScore(), BOARD_WIDTH * TILE_SIZE - 150, 20);
-        } else {
-            // Game over screen
-            g.setColor(Color.WHITE);
-            g.setFont(new Font("Arial", Font.BOLD, 36));
-            String msg = "Game Over!";
-            FontMetrics metrics = g.getFontMetrics();
-            g.drawString(msg, (getWidth() - metrics.stringWidth(msg)) / 2, getHeight() / 2 - 60);
+                // Game over screen
+                g.setColor(Color.WHITE);
+                g.setFont(TITLE_FONT);
+                String msg = engine.hasWon() ? "You Win!" : "Game Over!";
+                FontMetrics metrics = g.getFontMetrics();
+                g.drawString(msg, (getWidth() - metrics.stringWidth(msg)) / 2, getHeight() / 2 - 60);
             
-            g.setFont(new Font("Arial", Font.PLAIN, 20));
-            String scoreMsg = "Score: " + score;
-            metrics = g.getFontMetrics();
-            g.drawString(scoreMsg, (getWidth() - metrics.stringWidth(scoreMsg)) / 2, getHeight() / 2 - 20);
+                g.setFont(MESSAGE_FONT);
+                String scoreMsg = scoreText(score);
+                metrics = g.getFontMetrics();
+                g.drawString(scoreMsg, (getWidth() - metrics.stringWidth(scoreMsg)) / 2, getHeight() / 2 - 20);
             
-            if (score > gameManager.getHighScore()) {
-                g.setColor(Color.YELLOW);
-                String newHighScore = "NEW HIGH SCORE!";
+                if (replayPlayer == null && newHighScore) {
+                    g.setColor(Color.YELLOW);
+                    String newHighScore = "NEW HIGH SCORE!";
+                    metrics = g.getFontMetrics();
+                    g.drawString(newHighScore, (getWidth() - metrics.stringWidth(newHighScore)) / 2, getHeight() / 2 + 20);
+                }
+            
+                g.setColor(Color.WHITE);
+                g.setFont(HINT_FONT);
+                String restartMsg = replayPlayer == null
+                        ? "Press SPACE to restart | ESC for menu"
+                        : "Press SPACE to replay again | ESC for menu";
                 metrics = g.getFontMetrics();
-                g.drawString(newHighScore, (getWidth() - metrics.stringWidth(newHighScore)) / 2, getHeight() / 2 + 20);
+                g.drawString(restartMsg, (getWidth() - metrics.stringWidth(restartMsg)) / 2, getHeight() / 2 + 60);
             }
-            
-            g.setColor(Color.WHITE);
-            g.setFont(new Font("Arial", Font.PLAIN, 16));
-            String restartMsg = "Press SPACE to restart | ESC for menu";
-            metrics = g.getFontMetrics();
-            g.drawString(restartMsg, (getWidth() - metrics.stringWidth(restartMsg)) / 2, getHeight() / 2 + 60);
         }
     }
+    
+    private void paintPaused(Graphics g) {
+        g.setColor(Color.WHITE);
+        g.setFont(TITLE_FONT);
+        FontMetrics metrics = g.getFontMetrics();
+        g.drawString("Paused", (getWidth() - metrics.stringWidth("Paused")) / 2, getHeight() / 2);
+        g.setFont(HINT_FONT);
+        metrics = g.getFontMetrics();
+        String hint = "Press P to continue | ESC to save and quit";
+        g.drawString(hint, (getWidth() - metrics.stringWidth(hint)) / 2, getHeight() / 2 + 40);
+    }
+    
+    private void paintOverlay(Graphics g) {
+        Rectangle bounds = overlayBounds();
+        if (!g.hitClip(bounds.x, bounds.y, bounds.width, bounds.height)) {
+            return;
+        }
+        g.setColor(OVERLAY_BACKGROUND);
+        g.fillRect(bounds.x, bounds.y, bounds.width, bounds.height);
+        g.setColor(Color.WHITE);
+        g.setFont(OVERLAY_FONT);
+        for (int i = 0; i < overlayText.length; i++) {
+            g.drawString(overlayText[i], bounds.x + 5, bounds.y + (i + 1) * OVERLAY_LINE_HEIGHT);
+        }
+    }
+    
+    private String scoreText(int score) {
+        if (score != scoreTextValue) {
+            scoreTextValue = score;
+            scoreText = "Score: " + score;
+        }
+        return scoreText;
+    }
+    
+    private String highScoreText(int highScore) {
+        if (highScore != highScoreTextValue) {
+            highScoreTextValue = highScore;
+            highScoreText = "High Score: " + highScore;
+        }
+        return highScoreText;
+    }
 }
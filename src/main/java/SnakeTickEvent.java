@@ -0,0 +1,25 @@
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// One game step on the loop thread, from reading input to queuing the repaint
+@Name("SnakeTick")
+@Label("Snake Tick")
+@Category("Snake")
+@Description("One step of the game loop")
+public class SnakeTickEvent extends jdk.jfr.Event {
+    private static final EventType TYPE = EventType.getEventType(SnakeTickEvent.class);
+    
+    @Label("Score")
+    int score;
+    
+    @Label("Length")
+    int length;
+    
+    // Checked before creating an event so nothing is allocated while no recording wants it
+    static boolean isTypeEnabled() {
+        return TYPE.isEnabled();
+    }
+}
@@ -0,0 +1,24 @@
+// Time between game steps as a game goes on. Each Difficulty has its own curve, and
+// SnakeGame asks it again whenever the score changes.
+public interface SpeedCurve {
+    long stepNanos(int score);
+    
+    // The same speed for the whole game
+    static SpeedCurve fixed(long stepNanos) {
+        if (stepNanos <= 0) {
+            throw new IllegalArgumentException("Step must be positive: " + stepNanos);
+        }
+        return score -> stepNanos;
+    }
+    
+    // Starts at startNanos and gets faster by factor with every food eaten, down to minNanos
+    static SpeedCurve ramp(long startNanos, long minNanos, double factor) {
+        if (minNanos <= 0 || minNanos > startNanos) {
+            throw new IllegalArgumentException("Need 0 < min <= start: " + minNanos + ", " + startNanos);
+        }
+        if (!(factor > 0 && factor <= 1)) {
+            throw new IllegalArgumentException("Factor must be in (0, 1]: " + factor);
+        }
+        return score -> Math.max(minNanos, (long) (startNanos * Math.pow(factor, score)));
+    }
+}
@@ -0,0 +1,101 @@
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.VolatileImage;
+
+// Empty, head, body and food tiles pre-rendered side by side in one image, so the board
+// is drawn with drawImage alone. With a screen GraphicsConfiguration the atlas also lives
+// in a VolatileImage that Java2D can keep in video memory; the BufferedImage copy is the
+// headless fallback and the source for restoring lost video memory.
+public class SpriteAtlas {
+    static final int EMPTY = 0;
+    static final int HEAD = 1;
+    static final int BODY = 2;
+    static final int FOOD = 3;
+    private static final int SPRITES = 4;
+    
+    private final int tileSize;
+    private final BufferedImage image;
+    private final GraphicsConfiguration configuration;
+    private VolatileImage accelerated;
+    
+    public SpriteAtlas(int tileSize) {
+        this(tileSize, null);
+    }
+    
+    public SpriteAtlas(int tileSize, GraphicsConfiguration configuration) {
+        this.tileSize = tileSize;
+        this.configuration = configuration;
+        this.image = new BufferedImage(SPRITES * tileSize, tileSize, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        drawSprites(g);
+        g.dispose();
+        if (configuration != null) {
+            accelerated = configuration.createCompatibleVolatileImage(image.getWidth(), image.getHeight());
+            restore();
+        }
+    }
+    
+    private void drawSprites(Graphics2D g) {
+        g.setColor(BoardRenderer.BACKGROUND);
+        g.fillRect(0, 0, SPRITES * tileSize, tileSize);
+        drawSegment(g, HEAD * tileSize, BoardRenderer.HEAD_COLOR);
+        drawSegment(g, BODY * tileSize, BoardRenderer.BODY_COLOR);
+        g.setColor(Color.RED);
+        g.fillOval(FOOD * tileSize, 0, tileSize, tileSize);
+    }
+    
+    private void drawSegment(Graphics2D g, int x, Color color) {
+        g.setColor(color);
+        if (tileSize > 2) {
+            // A black edge on the top and left separates neighbouring segments
+            g.fillRect(x + 1, 1, tileSize - 1, tileSize - 1);
+        } else {
+            g.fillRect(x, 0, tileSize, tileSize);
+        }
+    }
+    
+    private void restore() {
+        Graphics2D g = accelerated.createGraphics();
+        g.drawImage(image, 0, 0, null);
+        g.dispose();
+    }
+    
+    // Re-uploads the atlas if video memory was lost since the last frame
+    private Image source() {
+        if (accelerated == null) {
+            return image;
+        }
+        int status = accelerated.validate(configuration);
+        if (status == VolatileImage.IMAGE_INCOMPATIBLE) {
+            accelerated.flush();
+            accelerated = configuration.createCompatibleVolatileImage(image.getWidth(), image.getHeight());
+            restore();
+        } else if (status == VolatileImage.IMAGE_RESTORED) {
+            restore();
+        }
+        return accelerated;
+    }
+    
+    public void draw(Graphics g, int sprite, int x, int y) {
+        int sx = sprite * tileSize;
+        g.drawImage(source(), x, y, x + tileSize, y + tileSize, sx, 0, sx + tileSize, tileSize, null);
+    }
+    
+    // True if the accelerated copy lost its contents after it was last drawn from
+    public boolean contentsLost() {
+        return accelerated != null && accelerated.contentsLost();
+    }
+    
+    public boolean isAccelerated() {
+        return accelerated != null;
+    }
+    
+    public int getTileSize() {
+        return tileSize;
+    }
+    
+    // Make getImage package-private for testing
+    BufferedImage getImage() {
+        return image;
+    }
+}
@@ -6,6 +6,9 @@ public class StartMenu extends JPanel {
     private int highScore;
     private Difficulty selectedDifficulty;
     private JButton[] difficultyButtons;
+    private JLabel highScoreLabel;
+    private JButton resumeButton;
+    private boolean painted;
     
     public StartMenu(GameManager gameManager, int highScore) {
         this.gameManager = gameManager;
@@ -28,7 +31,7 @@ public class StartMenu extends JPanel {
         add(titleLabel);
         
         // High Score
-        JLabel highScoreLabel = new JLabel("High Score: " + highScore, SwingConstants.CENTER);
+        highScoreLabel = new JLabel("High Score: " + highScore, SwingConstants.CENTER);
         highScoreLabel.setFont(new Font("Arial", Font.BOLD, 24));
         highScoreLabel.setForeground(Color.YELLOW);
         highScoreLabel.setBounds(0, 130, 500, 30);
@@ -75,14 +78,52 @@ public class StartMenu extends JPanel {
         startButton.addActionListener(e -> gameManager.startGame(selectedDifficulty));
         add(startButton);
         
+        // Resume Button, only shown while a game left with ESC is waiting
+        resumeButton = new JButton("RESUME");
+        resumeButton.setBounds(175, 565, 150, 30);
+        resumeButton.setFont(new Font("Arial", Font.BOLD, 16));
+        resumeButton.setBackground(new Color(60, 60, 60));
+        resumeButton.setForeground(Color.LIGHT_GRAY);
+        resumeButton.setFocusPainted(false);
+        resumeButton.addActionListener(e -> gameManager.resumeGame());
+        resumeButton.setVisible(gameManager.hasSuspendedGame());
+        add(resumeButton);
+        
         // Instructions
-        JLabel instructionsLabel = new JLabel("<html><center>Use Arrow Keys to move<br>Press ESC to return to menu</center></html>", SwingConstants.CENTER);
+        JLabel instructionsLabel = new JLabel("<html><center>Use Arrow Keys to move, P to pause<br>Press ESC to save and return to menu</center></html>", SwingConstants.CENTER);
         instructionsLabel.setFont(new Font("Arial", Font.PLAIN, 14));
         instructionsLabel.setForeground(Color.LIGHT_GRAY);
         instructionsLabel.setBounds(0, 450, 500, 40);
         add(instructionsLabel);
     }
     
+    // Scores are loaded in the background and arrive after the menu is shown
+    public void setHighScore(int highScore) {
+        if (highScore != this.highScore) {
+            this.highScore = highScore;
+            highScoreLabel.setText("High Score: " + highScore);
+        }
+    }
+    
+    // The menu is built once and refreshed each time it is shown again
+    public void refresh(int highScore, boolean canResume) {
+        setHighScore(highScore);
+        resumeButton.setVisible(canResume);
+    }
+    
+    boolean isResumeVisible() {
+        return resumeButton.isVisible();
+    }
+    
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        if (!painted) {
+            painted = true;
+            Startup.firstPaint();
+        }
+    }
+    
     private void selectDifficulty(Difficulty difficulty) {
         selectedDifficulty = difficulty;
         
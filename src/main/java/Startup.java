@@ -0,0 +1,61 @@
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+// Cold-start helpers. Work the first frame does not need is started from the start menu's
+// first paint: loading the game's classes and fonts on a low-priority thread, so pressing
+// START does not pay for it.
+//
+// With -Dsnake.exitAfterFirstPaint=true the first paint prints "first-paint" and exits;
+// the startupBenchmark and cdsArchive Gradle tasks launch the game this way.
+public final class Startup {
+    static final String FIRST_PAINT_LINE = "first-paint";
+    private static final boolean EXIT_AFTER_FIRST_PAINT = Boolean.getBoolean("snake.exitAfterFirstPaint");
+    // Classes a game needs, in roughly the order it first touches them
+    private static final String[] GAME_CLASSES = {
+            "SnakeGame", "SnakeEngine", "SnakeBody", "OccupancyGrid", "FreeCellIndex", "BoardRenderer",
+            "SpriteAtlas", "HudText", "GameLoop", "InputQueue", "ReplayRecorder", "GameRandom", "StepResult",
+            "Autopilot", "GameMetrics", "LatencyHistogram"
+    };
+    private static boolean started;
+    
+    private Startup() {
+    }
+    
+    // Called on the EDT
+    static void firstPaint() {
+        if (started) {
+            return;
+        }
+        started = true;
+        if (EXIT_AFTER_FIRST_PAINT) {
+            System.out.println(FIRST_PAINT_LINE);
+            System.out.flush();
+            // Let the paint finish, as a normal launch would
+            EventQueue.invokeLater(() -> System.exit(0));
+            return;
+        }
+        Thread warmup = new Thread(Startup::warmUp, "warm-up");
+        warmup.setDaemon(true);
+        warmup.setPriority(Thread.MIN_PRIORITY);
+        warmup.start();
+    }
+    
+    private static void warmUp() {
+        ClassLoader loader = Startup.class.getClassLoader();
+        for (String name : GAME_CLASSES) {
+            try {
+                Class.forName(name, true, loader);
+            } catch (ClassNotFoundException | LinkageError e) {
+                e.printStackTrace();
+            }
+        }
+        // Rasterising a few glyphs loads the font files and fills the glyph caches
+        BufferedImage scratch = new BufferedImage(64, 32, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = scratch.createGraphics();
+        for (Font font : SnakeGame.FONTS) {
+            g.setFont(font);
+            g.drawString("Score: 0123456789", 0, 20);
+        }
+        g.dispose();
+    }
+}
@@ -0,0 +1,18 @@
+public enum StepResult {
+    MOVED(false),
+    ATE(false),
+    HIT_WALL(true),
+    HIT_SELF(true),
+    // The snake filled the whole board
+    WON(true);
+
+    private final boolean gameOver;
+
+    StepResult(boolean gameOver) {
+        this.gameOver = gameOver;
+    }
+
+    public boolean isGameOver() {
+        return gameOver;
+    }
+}
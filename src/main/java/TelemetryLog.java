@@ -0,0 +1,206 @@
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+
+// Append-only log of game events for analytics, written into memory-mapped segment
+// files telemetry-NNNNNN.log of a fixed size. Each event is one RECORD_SIZE record:
+//   long timestamp millis, int tick, byte difficulty, byte type, byte value, byte unused
+// Segments are zero-filled past the last record, so a zero type ends a segment.
+//
+// Appending is a few buffer writes. Creating and mapping segments runs on a
+// PersistenceExecutor, one segment ahead, so the game thread never touches the disk;
+// an event arriving before its segment is mapped is dropped and counted instead.
+public class TelemetryLog {
+    public static final int RECORD_SIZE = 16;
+    public static final int DEFAULT_SEGMENT_SIZE = 4 * 1024 * 1024;
+    // Record types; 0 marks unused space
+    public static final byte START = 1;
+    public static final byte RESUME = 2;
+    // Value is the new Direction's ordinal
+    public static final byte TURN = 3;
+    public static final byte FOOD = 4;
+    // The game ended; value is the StepResult's ordinal, so a won game counts here too
+    public static final byte DEATH = 5;
+    static final String PREFIX = "telemetry-";
+    static final String SUFFIX = ".log";
+    
+    private final Path directory;
+    private final int segmentSize;
+    private final PersistenceExecutor writer;
+    private final boolean ownsWriter;
+    // Guarded by this
+    private MappedByteBuffer segment;
+    private int position;
+    private MappedByteBuffer nextSegment;
+    private Path nextFile;
+    private int nextIndex;
+    private boolean closed;
+    private long dropped;
+    
+    public TelemetryLog(Path directory) {
+        this(directory, DEFAULT_SEGMENT_SIZE, new PersistenceExecutor("telemetry-writer"), true);
+    }
+    
+    public TelemetryLog(Path directory, int segmentSize, PersistenceExecutor writer) {
+        this(directory, segmentSize, writer, false);
+    }
+    
+    private TelemetryLog(Path directory, int segmentSize, PersistenceExecutor writer, boolean ownsWriter) {
+        if (segmentSize < RECORD_SIZE || segmentSize % RECORD_SIZE != 0) {
+            throw new IllegalArgumentException("Segment size must be a multiple of " + RECORD_SIZE + ": "
+                    + segmentSize);
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.writer = writer;
+        this.ownsWriter = ownsWriter;
+        // The first segment is the first one mapped ahead
+        writer.submit(() -> {
+            nextIndex = lastSegmentIndex(directory) + 1;
+            mapNext();
+        });
+    }
+    
+    public void append(Difficulty difficulty, int tick, byte type, int value) {
+        append(System.currentTimeMillis(), difficulty, tick, type, value);
+    }
+    
+    public synchronized void append(long timestamp, Difficulty difficulty, int tick, byte type, int value) {
+        if (segment == null || position == segmentSize) {
+            if (!rotate()) {
+                dropped++;
+                return;
+            }
+        }
+        MappedByteBuffer buffer = segment;
+        buffer.putLong(position, timestamp);
+        buffer.putInt(position + 8, tick);
+        buffer.put(position + 12, (byte) difficulty.ordinal());
+        buffer.put(position + 14, (byte) value);
+        // Type last, so a record is only counted once its fields are in
+        buffer.put(position + 13, type);
+        position += RECORD_SIZE;
+    }
+    
+    // Switches to the segment mapped ahead and asks for the one after it
+    private boolean rotate() {
+        if (nextSegment == null || closed) {
+            return false;
+        }
+        segment = nextSegment;
+        position = 0;
+        nextSegment = null;
+        writer.submit(this::mapNext);
+        return true;
+    }
+    
+    // Runs on the writer thread
+    private void mapNext() {
+        Path file;
+        MappedByteBuffer mapped;
+        try {
+            Files.createDirectories(directory);
+            while (true) {
+                file = directory.resolve(segmentName(nextIndex));
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                        StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                    // The mapping stays valid after the channel is closed
+                    mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+                    break;
+                } catch (FileAlreadyExistsException e) {
+                    // Another log in the same directory took this number
+                    nextIndex++;
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
+        }
+        mapped.order(ByteOrder.LITTLE_ENDIAN);
+        synchronized (this) {
+            if (closed) {
+                deleteQuietly(file);
+                return;
+            }
+            nextSegment = mapped;
+            nextFile = file;
+            nextIndex++;
+        }
+    }
+    
+    // Events lost because no segment was mapped yet
+    public synchronized long getDroppedCount() {
+        return dropped;
+    }
+    
+    // Blocks until the segment being mapped ahead is ready; for tests and tools
+    public void awaitReady() {
+        writer.flush();
+    }
+    
+    // Writes the mapped pages to disk and removes the segment mapped ahead if it was never used
+    public void close() {
+        writer.flush();
+        MappedByteBuffer current;
+        Path unused;
+        synchronized (this) {
+            closed = true;
+            current = segment;
+            unused = nextSegment != null ? nextFile : null;
+            segment = null;
+            nextSegment = null;
+        }
+        if (current != null) {
+            current.force();
+        }
+        if (unused != null) {
+            deleteQuietly(unused);
+        }
+        if (ownsWriter) {
+            writer.close();
+        }
+    }
+    
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+    
+    static String segmentName(int index) {
+        return String.format("%s%06d%s", PREFIX, index, SUFFIX);
+    }
+    
+    // Segment number of a log file name, or -1 if it is not one
+    static int segmentIndex(Path file) {
+        String name = file.getFileName().toString();
+        if (!name.startsWith(PREFIX) || !name.endsWith(SUFFIX)) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+    
+    // Segments are never reused, so a new log starts after the last one on disk
+    private static int lastSegmentIndex(Path directory) {
+        int last = 0;
+        if (!Files.isDirectory(directory)) {
+            return last;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                last = Math.max(last, segmentIndex(file));
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return last;
+    }
+}
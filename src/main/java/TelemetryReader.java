@@ -0,0 +1,111 @@
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
+
+// Scans the segments a TelemetryLog wrote, oldest first. Each segment is mapped read-only
+// and walked in place, so scanning gigabytes costs no copies and no allocation per record.
+//
+//   java -cp build/classes/java/main TelemetryReader telemetry
+// prints deaths by cause per difficulty.
+public class TelemetryReader {
+    private static final Difficulty[] DIFFICULTIES = Difficulty.values();
+    private static final StepResult[] RESULTS = StepResult.values();
+    
+    // Called once per record, in the order they were written
+    public interface Visitor {
+        void record(long timestamp, Difficulty difficulty, int tick, byte type, int value);
+    }
+    
+    private final Path directory;
+    
+    public TelemetryReader(Path directory) {
+        this.directory = directory;
+    }
+    
+    // Segment files in the order they were written
+    public List<Path> segments() throws IOException {
+        List<Path> segments = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return segments;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                if (TelemetryLog.segmentIndex(file) >= 0) {
+                    segments.add(file);
+                }
+            }
+        }
+        segments.sort((a, b) -> Integer.compare(TelemetryLog.segmentIndex(a), TelemetryLog.segmentIndex(b)));
+        return segments;
+    }
+    
+    // Returns the number of records read
+    public long scan(Visitor visitor) throws IOException {
+        long records = 0;
+        for (Path segment : segments()) {
+            records += scan(segment, visitor);
+        }
+        return records;
+    }
+    
+    private static long scan(Path segment, Visitor visitor) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        int limit = buffer.limit() - buffer.limit() % TelemetryLog.RECORD_SIZE;
+        long records = 0;
+        for (int position = 0; position < limit; position += TelemetryLog.RECORD_SIZE) {
+            byte type = buffer.get(position + 13);
+            if (type == 0) {
+                // The rest of the segment was never written
+                break;
+            }
+            int difficulty = buffer.get(position + 12);
+            if (difficulty < 0 || difficulty >= DIFFICULTIES.length) {
+                continue;
+            }
+            visitor.record(buffer.getLong(position), DIFFICULTIES[difficulty], buffer.getInt(position + 8), type,
+                    buffer.get(position + 14));
+            records++;
+        }
+        return records;
+    }
+    
+    // Deaths indexed by Difficulty ordinal, then StepResult ordinal
+    public long[][] countDeaths() throws IOException {
+        long[][] deaths = new long[DIFFICULTIES.length][RESULTS.length];
+        scan((timestamp, difficulty, tick, type, value) -> {
+            if (type == TelemetryLog.DEATH && value >= 0 && value < RESULTS.length) {
+                deaths[difficulty.ordinal()][value]++;
+            }
+        });
+        return deaths;
+    }
+    
+    public static void main(String[] args) throws IOException {
+        TelemetryReader reader = new TelemetryReader(Paths.get(args.length > 0 ? args[0] : "telemetry"));
+        long[][] deaths = reader.countDeaths();
+        StringBuilder header = new StringBuilder(String.format("%-10s", "Difficulty"));
+        for (StepResult result : RESULTS) {
+            if (result.isGameOver()) {
+                header.append(String.format("%12s", result.name()));
+            }
+        }
+        System.out.println(header);
+        for (Difficulty difficulty : DIFFICULTIES) {
+            StringBuilder row = new StringBuilder(String.format("%-10s", difficulty.getName()));
+            for (StepResult result : RESULTS) {
+                if (result.isGameOver()) {
+                    row.append(String.format("%12d", deaths[difficulty.ordinal()][result.ordinal()]));
+                }
+            }
+            System.out.println(row);
+        }
+    }
+}
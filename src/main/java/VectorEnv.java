@@ -0,0 +1,407 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Many headless games stepped in lockstep for training agents, with reset(seed) and
+// step(actions) in the style of a vectorised Gym environment. State is kept as one
+// array per field across all envs rather than one SnakeEngine each, and observations
+// are written into a direct buffer that can be shared with native code without copying.
+//
+// Env i plays exactly the games SnakeEngine plays with new GameRandom(seed + i): the same
+// generator, free-cell order and rules. A finished env starts its next game at once,
+// reseeded from its own generator the way SnakeGame does, so whole runs are reproducible.
+public class VectorEnv {
+    // Observation planes per env, each one float per cell: body (head included), head, food
+    public static final int PLANES = 3;
+    private static final int BODY_PLANE = 0;
+    private static final int HEAD_PLANE = 1;
+    private static final int FOOD_PLANE = 2;
+    // Values written to getDones()
+    public static final byte RUNNING = 0;
+    public static final byte TERMINATED = 1;
+    public static final byte TRUNCATED = 2;
+    public static final float FOOD_REWARD = 1f;
+    public static final float DEATH_REWARD = -1f;
+    // Envs per fork-join task; large enough that splitting costs little next to stepping
+    private static final int ENVS_PER_TASK = 256;
+    // Same generator as GameRandom
+    private static final long MULTIPLIER = 0x5DEECE66DL;
+    private static final long ADDEND = 0xBL;
+    private static final long MASK = (1L << 48) - 1;
+    // Indexed by Direction ordinal, which is also the action number
+    private static final int[] DX = new int[4];
+    private static final int[] DY = new int[4];
+    
+    static {
+        for (Direction direction : Direction.values()) {
+            DX[direction.ordinal()] = direction.getDx();
+            DY[direction.ordinal()] = direction.getDy();
+        }
+    }
+    
+    private final int count;
+    private final int width;
+    private final int height;
+    private final int cells;
+    private final int maxSteps;
+    private final ForkJoinPool pool;
+    
+    // Per env, cells entries each: a body ring buffer, the free cells and each cell's
+    // position in them (-1 when occupied), laid out as in FreeCellIndex
+    private final int bodyCapacity;
+    private final int bodyMask;
+    private final int[] bodies;
+    private final int[] freeCells;
+    private final int[] positions;
+    // One entry per env
+    private final int[] heads;
+    private final int[] lengths;
+    private final int[] freeCounts;
+    private final int[] foods;
+    private final int[] scores;
+    private final int[] steps;
+    private final long[] randoms;
+    private final float[] rewards;
+    private final byte[] dones;
+    
+    private final ByteBuffer observationBytes;
+    private final FloatBuffer observations;
+    private int[] actions;
+    // Reused every step so stepping allocates nothing
+    private final Chunk[] chunks;
+    private final RecursiveAction stepAll;
+    
+    public VectorEnv(int count, BoardSize boardSize, int maxSteps) {
+        this(count, boardSize, maxSteps, ForkJoinPool.commonPool());
+    }
+    
+    public VectorEnv(int count, BoardSize boardSize, int maxSteps, ForkJoinPool pool) {
+        if (count <= 0) {
+            throw new IllegalArgumentException("count must be positive: " + count);
+        }
+        if (maxSteps <= 0) {
+            throw new IllegalArgumentException("maxSteps must be positive: " + maxSteps);
+        }
+        this.count = count;
+        this.width = boardSize.getWidth();
+        this.height = boardSize.getHeight();
+        this.cells = width * height;
+        this.maxSteps = maxSteps;
+        this.pool = pool;
+    
+        this.bodyCapacity = Integer.highestOneBit(Math.max(cells, 2) - 1) << 1;
+        this.bodyMask = bodyCapacity - 1;
+        // Checked before anything is allocated
+        int bodySlots = batchSize(count, bodyCapacity, "body cells");
+        int cellSlots = batchSize(count, cells, "cells");
+        int observationSize = batchSize(count, PLANES * cells * Float.BYTES, "observation bytes");
+        this.bodies = new int[bodySlots];
+        this.freeCells = new int[cellSlots];
+        this.positions = new int[cellSlots];
+        this.heads = new int[count];
+        this.lengths = new int[count];
+        this.freeCounts = new int[count];
+        this.foods = new int[count];
+        this.scores = new int[count];
+        this.steps = new int[count];
+        this.randoms = new long[count];
+        this.rewards = new float[count];
+        this.dones = new byte[count];
+    
+        this.observationBytes = ByteBuffer.allocateDirect(observationSize)
+                .order(ByteOrder.nativeOrder());
+        this.observations = observationBytes.asFloatBuffer();
+    
+        this.chunks = new Chunk[(count + ENVS_PER_TASK - 1) / ENVS_PER_TASK];
+        for (int i = 0; i < chunks.length; i++) {
+            chunks[i] = new Chunk(i * ENVS_PER_TASK, Math.min(count, (i + 1) * ENVS_PER_TASK));
+        }
+        this.stepAll = new RecursiveAction() {
+            @Override
+            protected void compute() {
+                for (Chunk chunk : chunks) {
+                    chunk.reinitialize();
+                }
+                invokeAll(chunks);
+            }
+        };
+    
+        Arrays.fill(foods, -1);
+        reset(0);
+    }
+    
+    // Every env shares one array or buffer per field, indexed by int
+    private static int batchSize(int count, int perEnv, String what) {
+        try {
+            return Math.multiplyExact(count, perEnv);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException(count + " envs need more than " + Integer.MAX_VALUE + " " + what
+                    + "; use fewer envs or a smaller board");
+        }
+    }
+    
+    public int getCount() {
+        return count;
+    }
+    
+    public int getWidth() {
+        return width;
+    }
+    
+    public int getHeight() {
+        return height;
+    }
+    
+    // Floats per env in the observation buffer
+    public int getObservationSize() {
+        return PLANES * cells;
+    }
+    
+    // All observations, env after env, each PLANES planes of height rows of width floats.
+    // The same buffer is updated in place by every reset and step.
+    public FloatBuffer getObservations() {
+        return observations;
+    }
+    
+    // The observation buffer's memory in native byte order, for handing to native code
+    public ByteBuffer getObservationBytes() {
+        return observationBytes;
+    }
+    
+    // Reward each env got from the last step
+    public float[] getRewards() {
+        return rewards;
+    }
+    
+    // RUNNING, or why the env's game ended in the last step; the observation then
+    // already shows the first state of its next game
+    public byte[] getDones() {
+        return dones;
+    }
+    
+    // Starts a new game in every env, env i seeded with seed + i
+    public void reset(long seed) {
+        for (int env = 0; env < count; env++) {
+            setSeed(env, seed + env);
+            resetEnv(env);
+            rewards[env] = 0f;
+            dones[env] = RUNNING;
+        }
+    }
+    
+    // One action per env: the ordinal of its Direction. Envs are stepped in parallel.
+    public void step(int[] actions) {
+        if (actions.length != count) {
+            throw new IllegalArgumentException("Expected " + count + " actions, got " + actions.length);
+        }
+        for (int action : actions) {
+            if (action < 0 || action >= DX.length) {
+                throw new IllegalArgumentException("Unknown action: " + action);
+            }
+        }
+        this.actions = actions;
+        if (chunks.length == 1) {
+            stepRange(0, count);
+        } else {
+            stepAll.reinitialize();
+            pool.invoke(stepAll);
+        }
+        this.actions = null;
+    }
+    
+    private void stepRange(int from, int to) {
+        for (int env = from; env < to; env++) {
+            stepEnv(env, actions[env]);
+        }
+    }
+    
+    // Mirrors SnakeEngine.step, plus the observation and reward
+    private void stepEnv(int env, int action) {
+        int obs = env * PLANES * cells;
+        int head = bodies[env * bodyCapacity + heads[env]];
+        int x = head % width + DX[action];
+        int y = head / width + DY[action];
+        if (x < 0 || x >= width || y < 0 || y >= height) {
+            endGame(env, DEATH_REWARD, TERMINATED);
+            return;
+        }
+        int newHead = y * width + x;
+        int free = env * cells;
+        if (positions[free + newHead] < 0) {
+            endGame(env, DEATH_REWARD, TERMINATED);
+            return;
+        }
+    
+        observations.put(obs + HEAD_PLANE * cells + head, 0f);
+        addHead(env, newHead);
+        float reward = 0f;
+        if (newHead == foods[env]) {
+            scores[env]++;
+            reward = FOOD_REWARD;
+            observations.put(obs + FOOD_PLANE * cells + newHead, 0f);
+            if (!spawnFood(env)) {
+                endGame(env, reward, TERMINATED);
+                return;
+            }
+        } else {
+            int tail = popTail(env);
+            addFree(env, tail);
+            observations.put(obs + BODY_PLANE * cells + tail, 0f);
+        }
+        if (++steps[env] >= maxSteps) {
+            endGame(env, reward, TRUNCATED);
+            return;
+        }
+        rewards[env] = reward;
+        dones[env] = RUNNING;
+    }
+    
+    // Starts the env's next game straight away, reseeded like SnakeGame does
+    private void endGame(int env, float reward, byte done) {
+        rewards[env] = reward;
+        dones[env] = done;
+        setSeed(env, nextLong(env));
+        resetEnv(env);
+    }
+    
+    // Mirrors SnakeEngine.reset
+    private void resetEnv(int env) {
+        int obs = env * PLANES * cells;
+        int base = env * bodyCapacity;
+        // Only the cells the last game drew need clearing
+        for (int i = 0; i < lengths[env]; i++) {
+            int cell = bodies[base + ((heads[env] - i) & bodyMask)];
+            observations.put(obs + BODY_PLANE * cells + cell, 0f);
+            observations.put(obs + HEAD_PLANE * cells + cell, 0f);
+        }
+        if (foods[env] >= 0) {
+            observations.put(obs + FOOD_PLANE * cells + foods[env], 0f);
+        }
+    
+        int free = env * cells;
+        for (int i = 0; i < cells; i++) {
+            freeCells[free + i] = i;
+            positions[free + i] = i;
+        }
+        freeCounts[env] = cells;
+        heads[env] = bodyMask;
+        lengths[env] = 0;
+        scores[env] = 0;
+        steps[env] = 0;
+        addHead(env, (height / 2) * width + width / 2);
+        spawnFood(env);
+    }
+    
+    private void addHead(int env, int cell) {
+        heads[env] = (heads[env] + 1) & bodyMask;
+        bodies[env * bodyCapacity + heads[env]] = cell;
+        lengths[env]++;
+        removeFree(env, cell);
+        int obs = env * PLANES * cells;
+        observations.put(obs + BODY_PLANE * cells + cell, 1f);
+        observations.put(obs + HEAD_PLANE * cells + cell, 1f);
+    }
+    
+    private int popTail(int env) {
+        int cell = bodies[env * bodyCapacity + ((heads[env] - lengths[env] + 1) & bodyMask)];
+        lengths[env]--;
+        return cell;
+    }
+    
+    // FreeCellIndex.remove and add over the env's slice; the order of free cells must
+    // match for food to land on the same cells
+    private void removeFree(int env, int cell) {
+        int free = env * cells;
+        int index = positions[free + cell];
+        int last = freeCells[free + --freeCounts[env]];
+        freeCells[free + index] = last;
+        positions[free + last] = index;
+        positions[free + cell] = -1;
+    }
+    
+    private void addFree(int env, int cell) {
+        int free = env * cells;
+        freeCells[free + freeCounts[env]] = cell;
+        positions[free + cell] = freeCounts[env]++;
+    }
+    
+    // Mirrors SnakeEngine.placeFood; returns false when the board is full
+    private boolean spawnFood(int env) {
+        if (freeCounts[env] == 0) {
+            foods[env] = -1;
+            return false;
+        }
+        int food = freeCells[env * cells + nextInt(env, freeCounts[env])];
+        foods[env] = food;
+        observations.put(env * PLANES * cells + FOOD_PLANE * cells + food, 1f);
+        return true;
+    }
+    
+    // java.util.Random's algorithms over the env's state, as GameRandom does
+    private void setSeed(int env, long seed) {
+        randoms[env] = (seed ^ MULTIPLIER) & MASK;
+    }
+    
+    private int next(int env, int bits) {
+        long state = (randoms[env] * MULTIPLIER + ADDEND) & MASK;
+        randoms[env] = state;
+        return (int) (state >>> (48 - bits));
+    }
+    
+    private int nextInt(int env, int bound) {
+        int r = next(env, 31);
+        int m = bound - 1;
+        if ((bound & m) == 0) {
+            return (int) ((bound * (long) r) >> 31);
+        }
+        int u = r;
+        while (u - (r = u % bound) + m < 0) {
+            u = next(env, 31);
+        }
+        return r;
+    }
+    
+    private long nextLong(int env) {
+        return ((long) next(env, 32) << 32) + next(env, 32);
+    }
+    
+    // Per-env accessors, mainly for checking envs against SnakeEngine
+    public int getScore(int env) {
+        return scores[env];
+    }
+    
+    public int getLength(int env) {
+        return lengths[env];
+    }
+    
+    // Cell of the segment at index, 0 being the head; cells are packed as y * width + x
+    public int getCell(int env, int index) {
+        return bodies[env * bodyCapacity + ((heads[env] - index) & bodyMask)];
+    }
+    
+    public int getFoodCell(int env) {
+        return foods[env];
+    }
+    
+    public int getFreeCellCount(int env) {
+        return freeCounts[env];
+    }
+    
+    private class Chunk extends RecursiveAction {
+        private final int from;
+        private final int to;
+    
+        Chunk(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+    
+        @Override
+        protected void compute() {
+            stepRange(from, to);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+import java.nio.ByteBuffer;
+
+// Binary protocol between ArenaServer and its clients. Varints are unsigned LEB128.
+//
+// Client to server, two bytes per message:
+//   TURN direction-ordinal | RESPAWN 0
+//
+// Server to client, each message prefixed with its varint length:
+//   WELCOME varint width, varint height, varint your snake, varint tick,
+//           varint n, n x (varint cell, varint snake), varint m, m x varint food cell
+//   DELTA   varint tick, varint n, n x varint (cell << 2 | kind) [varint snake if kind is SNAKE]
+// A delta carries the new contents of every cell the tick changed: a new head, a removed
+// tail or body, eaten or spawned food.
+final class Wire {
+    static final byte TURN = 1;
+    static final byte RESPAWN = 2;
+    
+    static final byte WELCOME = 1;
+    static final byte DELTA = 2;
+    
+    static final int EMPTY = 0;
+    static final int FOOD = 1;
+    static final int SNAKE = 2;
+    
+    private Wire() {
+    }
+    
+    static void putVarint(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+    
+    static int getVarint(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Varint too long");
+    }
+    
+    static int varintSize(int value) {
+        int size = 1;
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+    
+    // Reads a length-prefixed message if all of it has arrived; returns its length and
+    // leaves the position at the payload, or returns -1 and leaves the buffer untouched
+    static int nextMessage(ByteBuffer buffer) {
+        int start = buffer.position();
+        int length = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            if (!buffer.hasRemaining()) {
+                buffer.position(start);
+                return -1;
+            }
+            byte b = buffer.get();
+            length |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                if (buffer.remaining() < length) {
+                    buffer.position(start);
+                    return -1;
+                }
+                return length;
+            }
+        }
+        throw new IllegalArgumentException("Message length too long");
+    }
+}
@@ -0,0 +1,168 @@
+import org.junit.jupiter.api.Test;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArenaEngineTest {
+    private static final int WIDTH = 10;
+    
+    private int cell(int x, int y) {
+        return y * WIDTH + x;
+    }
+    
+    // Two snakes with no food, placed by the test
+    private ArenaEngine twoSnakes() {
+        return new ArenaEngine(WIDTH, WIDTH, 2, 0, new Random(1));
+    }
+    
+    @Test
+    void testHeadsMeetingOnOneCellBothDie() {
+        ArenaEngine engine = twoSnakes();
+        engine.place(0, cell(2, 5), Direction.RIGHT);
+        engine.place(1, cell(4, 5), Direction.LEFT);
+        
+        assertEquals(2, engine.step(null));
+        assertFalse(engine.isAlive(0));
+        assertFalse(engine.isAlive(1));
+        assertEquals(-1, engine.getOwner(cell(3, 5)));
+        assertEquals(-1, engine.getOwner(cell(2, 5)));
+    }
+    
+    @Test
+    void testHeadsSwappingCellsBothDie() {
+        ArenaEngine engine = twoSnakes();
+        engine.place(0, cell(2, 5), Direction.RIGHT);
+        engine.place(1, cell(3, 5), Direction.LEFT);
+        
+        assertEquals(2, engine.step(null));
+    }
+    
+    @Test
+    void testHeadIntoBodyKillsOnlyTheMover() {
+        ArenaEngine engine = twoSnakes();
+        // Snake 1 grows to length 3 along row 5
+        engine.place(1, cell(3, 5), Direction.RIGHT);
+        engine.setFood(cell(4, 5));
+        engine.setFood(cell(5, 5));
+        engine.place(0, cell(4, 2), Direction.DOWN);
+        engine.step(null);
+        engine.step(null);
+        assertEquals(3, engine.getLength(1));
+        
+        // Snake 0 came down column 4 and now runs into snake 1's body
+        assertEquals(cell(4, 4), engine.getCell(0, 0));
+        assertEquals(1, engine.step(null));
+        assertFalse(engine.isAlive(0));
+        assertTrue(engine.isAlive(1));
+        assertEquals(1, engine.getOwner(cell(5, 5)));
+    }
+    
+    @Test
+    void testWallKillsAndRespawnRestoresLengthOne() {
+        ArenaEngine engine = twoSnakes();
+        engine.place(0, cell(9, 0), Direction.RIGHT);
+        engine.place(1, cell(0, 9), Direction.UP);
+        assertEquals(1, engine.step(null));
+        assertFalse(engine.isAlive(0));
+        
+        assertTrue(engine.respawn(0));
+        assertTrue(engine.isAlive(0));
+        assertEquals(1, engine.getLength(0));
+        assertEquals(0, engine.getOwner(engine.getCell(0, 0)));
+    }
+    
+    @Test
+    void testEatingGrowsAndFoodIsReplenished() {
+        ArenaEngine engine = new ArenaEngine(WIDTH, WIDTH, 1, 3, new Random(2));
+        assertEquals(3, engine.getFoodCount());
+        engine.place(0, cell(1, 1), Direction.RIGHT);
+        engine.setFood(cell(2, 1));
+        int foodBefore = engine.getFoodCount();
+        
+        engine.step(new Direction[] {Direction.RIGHT});
+        assertEquals(2, engine.getLength(0));
+        assertEquals(1, engine.getScore(0));
+        assertEquals(foodBefore, engine.getFoodCount());
+        assertFalse(engine.isFood(cell(2, 1)));
+    }
+    
+    @Test
+    void testGridStaysConsistentWithBots() {
+        int snakes = 40;
+        ArenaEngine engine = new ArenaEngine(30, 30, snakes, 30, new Random(3));
+        ArenaBots bots = new ArenaBots(snakes, new Random(4));
+        Direction[] moves = new Direction[snakes];
+        for (int tick = 0; tick < 2_000; tick++) {
+            bots.decide(engine, moves, 0, snakes);
+            engine.step(moves);
+            for (int i = 0; i < snakes; i++) {
+                if (!engine.isAlive(i)) {
+                    engine.respawn(i);
+                }
+            }
+        }
+        
+        int owned = 0;
+        int food = 0;
+        for (int cell = 0; cell < 30 * 30; cell++) {
+            int owner = engine.getOwner(cell);
+            if (owner >= 0) {
+                owned++;
+                assertTrue(engine.isAlive(owner));
+                assertFalse(engine.isFood(cell));
+            } else if (engine.isFood(cell)) {
+                food++;
+            }
+        }
+        int lengths = 0;
+        for (int i = 0; i < snakes; i++) {
+            lengths += engine.getLength(i);
+            for (int j = 0; j < engine.getLength(i); j++) {
+                assertEquals(i, engine.getOwner(engine.getCell(i, j)));
+            }
+        }
+        assertEquals(lengths, owned);
+        assertEquals(engine.getFoodCount(), food);
+    }
+    
+    @Test
+    void testThousandBotsOnLargeBoardStayWithinSixtyTicksPerSecond() {
+        int snakes = 1_000;
+        ArenaEngine engine = new ArenaEngine(1000, 1000, snakes, 2_000, new Random(5));
+        ArenaBots bots = new ArenaBots(snakes, new Random(6));
+        Direction[] moves = new Direction[snakes];
+        long start = 0;
+        for (int tick = 0; tick < 600; tick++) {
+            // The first 300 ticks are warm-up
+            if (tick == 300) {
+                start = System.nanoTime();
+            }
+            bots.decide(engine, moves, 0, snakes);
+            engine.step(moves);
+            for (int i = 0; i < snakes; i++) {
+                if (!engine.isAlive(i)) {
+                    engine.respawn(i);
+                }
+            }
+        }
+        long perTick = (System.nanoTime() - start) / 300;
+        assertTrue(perTick < 16_666_666 / 4, "Tick took " + perTick / 1000 + " us");
+    }
+    
+    @Test
+    void testNextTurnSkipsReversalsOnceTheSnakeHasGrown() {
+        ArenaEngine engine = twoSnakes();
+        engine.place(0, cell(2, 5), Direction.RIGHT);
+        InputQueue input = new InputQueue(8);
+        input.offer(Direction.LEFT, 0);
+        assertEquals(Direction.LEFT, engine.nextTurn(0, input));
+        
+        engine.setFood(cell(3, 5));
+        engine.step(null);
+        input.offer(Direction.RIGHT, 0);
+        input.offer(Direction.LEFT, 0);
+        input.offer(Direction.UP, 0);
+        assertEquals(Direction.UP, engine.nextTurn(0, input));
+        assertNull(engine.nextTurn(0, input));
+    }
+}
@@ -0,0 +1,161 @@
+import org.junit.jupiter.api.Test;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArenaServerTest {
+    private static final BoardSize BOARD = new BoardSize(100, 100);
+    
+    @Test
+    void testVarintRoundTrip() {
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        int[] values = {0, 1, 127, 128, 16_383, 16_384, 4_000_000, Integer.MAX_VALUE};
+        for (int value : values) {
+            Wire.putVarint(buffer, value);
+        }
+        buffer.flip();
+        for (int value : values) {
+            int before = buffer.position();
+            assertEquals(value, Wire.getVarint(buffer));
+            assertEquals(Wire.varintSize(value), buffer.position() - before);
+        }
+    }
+    
+    @Test
+    void testIncompleteMessageIsLeftInBuffer() {
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        Wire.putVarint(buffer, 3);
+        buffer.put((byte) 1).put((byte) 2);
+        buffer.flip();
+        
+        assertEquals(-1, Wire.nextMessage(buffer));
+        assertEquals(0, buffer.position());
+    }
+    
+    @Test
+    void testHandshakeReadsWelcome() throws IOException {
+        ArenaServer server = new ArenaServer(BOARD, 2, 0, 10, 20_000_000L, new Random(1));
+        server.start(0);
+        ClientState state = new ClientState();
+        try (SocketChannel channel = ClientPanel.handshake("localhost", server.getPort(), state, 5_000)) {
+            assertTrue(state.isReady());
+            assertEquals(BOARD.getWidth(), state.getWidth());
+            assertTrue(channel.isBlocking());
+        } finally {
+            server.close();
+        }
+    }
+    
+    @Test
+    void testHandshakeGivesUpOnSilentServer() throws IOException {
+        // Accepts connections through the backlog but never sends a welcome
+        try (ServerSocketChannel silent = ServerSocketChannel.open()) {
+            silent.bind(new InetSocketAddress("localhost", 0));
+            int port = ((InetSocketAddress) silent.getLocalAddress()).getPort();
+            long start = System.nanoTime();
+            
+            assertThrows(IOException.class, () -> ClientPanel.handshake("localhost", port, new ClientState(), 200));
+            assertTrue(System.nanoTime() - start < 5_000_000_000L);
+        }
+    }
+    
+    @Test
+    void testFiveHundredClientsStayInSyncOverLoopback() throws Exception {
+        int clientCount = 500;
+        ArenaServer server = new ArenaServer(BOARD, clientCount, 0, 200, 20_000_000L, new Random(1));
+        server.start(0);
+        Random random = new Random(2);
+        Selector selector = Selector.open();
+        List<SocketChannel> channels = new ArrayList<>();
+        List<ClientState> states = new ArrayList<>();
+        ByteBuffer input = ByteBuffer.allocate(2);
+        try {
+            for (int i = 0; i < clientCount; i++) {
+                SocketChannel channel = SocketChannel.open(new InetSocketAddress("localhost", server.getPort()));
+                channel.configureBlocking(false);
+                ClientState state = new ClientState();
+                channel.register(selector, SelectionKey.OP_READ, state);
+                channels.add(channel);
+                states.add(state);
+            }
+            
+            // Every client steers at random and asks to respawn now and then
+            long deadline = System.nanoTime() + 30_000_000_000L;
+            while (server.getTickCount() < 150 && System.nanoTime() < deadline) {
+                readAll(selector);
+                for (int i = 0; i < clientCount; i++) {
+                    int roll = random.nextInt(100);
+                    if (roll < 2) {
+                        send(channels.get(i), input, Wire.RESPAWN, 0);
+                    } else if (roll < 10) {
+                        send(channels.get(i), input, Wire.TURN, random.nextInt(4));
+                    }
+                }
+                Thread.sleep(5);
+            }
+            assertEquals(clientCount, server.getConnectedCount());
+            
+            // Close from another thread while this one keeps reading what is still queued
+            Thread closer = new Thread(server::close);
+            closer.start();
+            int open = clientCount;
+            while (open > 0 && System.nanoTime() < deadline) {
+                open -= readAll(selector);
+            }
+            closer.join();
+            assertEquals(0, open);
+        } finally {
+            server.close();
+            for (SocketChannel channel : channels) {
+                channel.close();
+            }
+            selector.close();
+        }
+        
+        ArenaEngine engine = server.getEngine();
+        for (int i = 0; i < clientCount; i++) {
+            ClientState state = states.get(i);
+            assertTrue(state.isReady());
+            assertEquals(server.getTickCount(), state.getTick());
+            for (int cell = 0; cell < BOARD.getWidth() * BOARD.getHeight(); cell++) {
+                assertEquals(engine.getOwner(cell), state.getOwner(cell), "client " + i + " cell " + cell);
+                assertEquals(engine.isFood(cell), state.isFood(cell), "client " + i + " cell " + cell);
+            }
+        }
+        assertTrue(engine.getAliveCount() > 0);
+        
+        // Deltas, not board dumps: well under one byte per cell even with 500 snakes moving
+        assertTrue(server.getBytesPerClientTick() < BOARD.getWidth() * BOARD.getHeight() / 2, server.getStats());
+        // Only a sanity bound of five 20 ms ticks; a shared CI machine can stretch a tick a lot
+        assertTrue(server.getTickCpu().getPercentile(50) < 100_000_000L, server.getStats());
+    }
+    
+    // Applies whatever has arrived; returns how many clients reached end of stream
+    private static int readAll(Selector selector) throws IOException {
+        int closed = 0;
+        selector.select(10);
+        for (SelectionKey key : selector.selectedKeys()) {
+            if (((ClientState) key.attachment()).read((SocketChannel) key.channel()) < 0) {
+                key.cancel();
+                closed++;
+            }
+        }
+        selector.selectedKeys().clear();
+        return closed;
+    }
+    
+    private static void send(SocketChannel channel, ByteBuffer buffer, byte type, int value) throws IOException {
+        buffer.clear();
+        buffer.put(type).put((byte) value).flip();
+        channel.write(buffer);
+    }
+}
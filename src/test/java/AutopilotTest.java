@@ -0,0 +1,105 @@
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AutopilotTest {
+    
+    @Test
+    void testCycleVisitsEveryCellThroughNeighbours() {
+        int[][] sizes = {{2, 2}, {4, 3}, {3, 4}, {20, 20}, {15, 10}, {2, 7}};
+        for (int[] size : sizes) {
+            int width = size[0];
+            int height = size[1];
+            int[] cells = Autopilot.buildCycle(width, height);
+            assertNotNull(cells, width + "x" + height);
+            boolean[] seen = new boolean[width * height];
+            for (int i = 0; i < cells.length; i++) {
+                assertFalse(seen[cells[i]], "Cell visited twice on " + width + "x" + height);
+                seen[cells[i]] = true;
+                int next = cells[(i + 1) % cells.length];
+                int distance = Math.abs(cells[i] % width - next % width) + Math.abs(cells[i] / width - next / width);
+                assertEquals(1, distance, "Cycle jumps on " + width + "x" + height);
+            }
+        }
+    }
+    
+    @Test
+    void testNoCycleWhenBothSidesAreOdd() {
+        assertNull(Autopilot.buildCycle(9, 9));
+        assertNull(Autopilot.buildCycle(5, 1));
+    }
+    
+    @Test
+    void testWinsEveryGameOnBoardsWithACycle() {
+        for (BoardSize board : new BoardSize[] {new BoardSize(10, 10), new BoardSize(12, 7), new BoardSize(2, 2)}) {
+            BatchRunner runner = new BatchRunner(Autopilot::new, Difficulty.NORMAL, board, 1_000_000);
+            BatchResult result = runner.run(0, 50);
+            assertEquals(50, result.getWins(), board + ": " + result);
+        }
+    }
+    
+    @Test
+    void testScoresWellWithoutACycle() {
+        BoardSize board = new BoardSize(9, 9);
+        BatchRunner runner = new BatchRunner(Autopilot::new, Difficulty.NORMAL, board, 100_000);
+        BatchResult result = runner.run(0, 50);
+        assertTrue(result.getMeanScore() > board.getCellCount() / 2, result.toString());
+    }
+    
+    @Test
+    void testTakesOverAGameInProgress() {
+        SnakeEngine engine = new SnakeEngine(10, 10, new GameRandom(3));
+        // A shape that does not follow the cycle
+        engine.setFood(6, 5);
+        engine.step(Direction.RIGHT);
+        engine.setFood(6, 6);
+        engine.step(Direction.DOWN);
+        engine.setFood(5, 6);
+        engine.step(Direction.LEFT);
+        
+        Autopilot autopilot = new Autopilot();
+        int steps = 0;
+        while (engine.isRunning() && steps < 1_000_000) {
+            engine.step(autopilot.choose(engine));
+            steps++;
+        }
+        assertTrue(engine.getScore() > 50, "Score " + engine.getScore());
+    }
+    
+    @Test
+    void testFirstFoodIsReachedInAboutItsManhattanDistance() {
+        int[][] sizes = {{20, 20}, {1000, 1000}, {999, 999}};
+        for (int[] size : sizes) {
+            for (long seed = 0; seed < 20; seed++) {
+                SnakeEngine engine = new SnakeEngine(size[0], size[1], new GameRandom(seed));
+                int distance = Math.abs(engine.getFoodX() - engine.getX(0)) + Math.abs(engine.getFoodY() - engine.getY(0));
+                Autopilot autopilot = new Autopilot();
+                int steps = 0;
+                while (engine.getScore() == 0 && steps < distance + 4) {
+                    assertFalse(engine.step(autopilot.choose(engine)).isGameOver());
+                    steps++;
+                }
+                assertEquals(1, engine.getScore(), size[0] + "x" + size[1] + " seed " + seed + ": " + steps + " steps");
+            }
+        }
+    }
+    
+    @Test
+    void testDecisionsAreFastOnLargeBoards() {
+        // With and without a cycle
+        for (int size : new int[] {1000, 999}) {
+            SnakeEngine engine = new SnakeEngine(size, size, new GameRandom(7));
+            Autopilot autopilot = new Autopilot();
+            long steps = 0;
+            long start = System.nanoTime();
+            while (engine.getScore() < 200) {
+                StepResult result = engine.step(autopilot.choose(engine));
+                assertFalse(result.isGameOver());
+                steps++;
+            }
+            long perStep = (System.nanoTime() - start) / steps;
+            // Searches stop at a fixed number of cells, whatever the board size
+            assertTrue(perStep < 100_000, size + "x" + size + ": average step took " + perStep + " ns");
+        }
+    }
+}
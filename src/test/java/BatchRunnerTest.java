@@ -0,0 +1,117 @@
+import org.junit.jupiter.api.Test;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchRunnerTest {
+    private static final BoardSize BOARD = new BoardSize(10, 10);
+    
+    // Heads for the food when it safely can, otherwise takes any safe turn
+    private static class GreedyPolicy implements Policy {
+        @Override
+        public Direction choose(SnakeEngine engine) {
+            int x = engine.getX(0);
+            int y = engine.getY(0);
+            Direction preferred;
+            if (engine.getFoodX() > x) {
+                preferred = Direction.RIGHT;
+            } else if (engine.getFoodX() < x) {
+                preferred = Direction.LEFT;
+            } else {
+                preferred = engine.getFoodY() > y ? Direction.DOWN : Direction.UP;
+            }
+            if (isSafe(engine, preferred)) {
+                return preferred;
+            }
+            for (Direction direction : Direction.values()) {
+                if (isSafe(engine, direction)) {
+                    return direction;
+                }
+            }
+            return engine.getDirection();
+        }
+        
+        private boolean isSafe(SnakeEngine engine, Direction direction) {
+            if (engine.getLength() > 1 && direction == engine.getDirection().opposite()) {
+                return false;
+            }
+            int x = engine.getX(0) + direction.getDx();
+            int y = engine.getY(0) + direction.getDy();
+            return x >= 0 && y >= 0 && x < engine.getWidth() && y < engine.getHeight() && !engine.isOccupied(x, y);
+        }
+    }
+    
+    private void assertSameResult(BatchResult expected, BatchResult actual) {
+        assertEquals(expected.getGames(), actual.getGames());
+        assertEquals(expected.getWins(), actual.getWins());
+        assertEquals(expected.getWallDeaths(), actual.getWallDeaths());
+        assertEquals(expected.getSelfDeaths(), actual.getSelfDeaths());
+        assertEquals(expected.getUnfinished(), actual.getUnfinished());
+        assertEquals(expected.getTotalScore(), actual.getTotalScore());
+        assertEquals(expected.getTotalSteps(), actual.getTotalSteps());
+        assertEquals(expected.getScores().getPercentile(50), actual.getScores().getPercentile(50));
+        assertEquals(expected.getSteps().getMax(), actual.getSteps().getMax());
+    }
+    
+    @Test
+    void testPlaysEveryGameToTheEnd() {
+        BatchRunner runner = new BatchRunner(GreedyPolicy::new, Difficulty.NORMAL, BOARD, 100_000);
+        BatchResult result = runner.run(0, 200);
+        assertEquals(200, result.getGames());
+        assertEquals(200, result.getWins() + result.getWallDeaths() + result.getSelfDeaths());
+        assertEquals(0, result.getUnfinished());
+        assertEquals(200, result.getScores().getCount());
+        assertTrue(result.getMeanScore() > 5, "Greedy play should eat some food: " + result);
+    }
+    
+    @Test
+    void testResultDoesNotDependOnParallelism() {
+        BatchRunner runner = new BatchRunner(GreedyPolicy::new, Difficulty.HARD, BOARD, 100_000);
+        ForkJoinPool single = new ForkJoinPool(1);
+        ForkJoinPool many = new ForkJoinPool(4);
+        try {
+            BatchResult sequential = runner.run(1000, 300, single);
+            assertSameResult(sequential, runner.run(1000, 300, many));
+            assertSameResult(sequential, runner.run(1000, 300, many));
+        } finally {
+            single.shutdown();
+            many.shutdown();
+        }
+    }
+    
+    @Test
+    void testGameMatchesStandaloneEngineWithSameSeed() {
+        BatchRunner runner = new BatchRunner(GreedyPolicy::new, Difficulty.EASY, BOARD, 100_000);
+        for (long seed = 40; seed < 60; seed++) {
+            SnakeEngine engine = new SnakeEngine(BOARD.getWidth(), BOARD.getHeight(), new GameRandom(seed));
+            Policy policy = new GreedyPolicy();
+            int steps = 0;
+            while (engine.isRunning()) {
+                engine.step(policy.choose(engine));
+                steps++;
+            }
+            BatchResult alone = runner.run(seed, 1);
+            assertEquals(engine.getScore(), alone.getTotalScore(), "seed " + seed);
+            assertEquals(steps, alone.getTotalSteps(), "seed " + seed);
+            
+            // Also as the last game of a leaf, played on an engine that was reset
+            long withPrevious = runner.run(seed - 3, 4).getTotalSteps();
+            long previous = runner.run(seed - 3, 3).getTotalSteps();
+            assertEquals(steps, withPrevious - previous, "seed " + seed);
+        }
+    }
+    
+    @Test
+    void testStepCapEndsGames() {
+        BatchRunner runner = new BatchRunner(() -> engine -> Direction.RIGHT, Difficulty.NORMAL, new BoardSize(20, 20), 5);
+        BatchResult result = runner.run(0, 10);
+        assertEquals(10, result.getUnfinished());
+        assertEquals(50, result.getTotalSteps());
+    }
+    
+    @Test
+    void testRejectsNonPositiveStepCap() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new BatchRunner(GreedyPolicy::new, Difficulty.NORMAL, BOARD, 0));
+    }
+}
@@ -0,0 +1,56 @@
+import org.junit.jupiter.api.Test;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoardRendererTest {
+    
+    private static final int TILE = 10;
+    
+    private int pixel(BoardRenderer renderer, int x, int y) {
+        return ((BufferedImage) renderer.getImage()).getRGB(x * TILE + TILE / 2, y * TILE + TILE / 2) & 0xFFFFFF;
+    }
+    
+    @Test
+    void testFirstUpdateRedrawsEverything() {
+        SnakeEngine engine = new SnakeEngine(20, 20, new Random(1));
+        BoardRenderer renderer = new BoardRenderer(BoardSize.DEFAULT, TILE);
+        
+        assertTrue(renderer.update(engine));
+        assertEquals(BoardRenderer.HEAD_COLOR.getRGB() & 0xFFFFFF, pixel(renderer, 10, 10));
+    }
+    
+    @Test
+    void testStepMarksOnlyChangedCellsDirty() {
+        SnakeEngine engine = new SnakeEngine(20, 20, new Random(1));
+        engine.setFood(0, 0);
+        BoardRenderer renderer = new BoardRenderer(BoardSize.DEFAULT, TILE);
+        renderer.renderAll(engine);
+        
+        engine.step(Direction.RIGHT);
+        
+        assertFalse(renderer.update(engine));
+        assertEquals(2, renderer.getDirtyCount());
+        assertEquals(10 * 20 + 10, renderer.getDirtyCell(0));
+        assertEquals(10 * 20 + 11, renderer.getDirtyCell(1));
+        assertEquals(BoardRenderer.BACKGROUND.getRGB() & 0xFFFFFF, pixel(renderer, 10, 10));
+        assertEquals(BoardRenderer.HEAD_COLOR.getRGB() & 0xFFFFFF, pixel(renderer, 11, 10));
+    }
+    
+    @Test
+    void testEatingRedrawsBodyAndNewFood() {
+        SnakeEngine engine = new SnakeEngine(20, 20, new Random(1));
+        engine.setFood(11, 10);
+        BoardRenderer renderer = new BoardRenderer(BoardSize.DEFAULT, TILE);
+        renderer.renderAll(engine);
+        
+        engine.step(Direction.RIGHT);
+        renderer.update(engine);
+        
+        // Previous head, new head and the new food
+        assertEquals(3, renderer.getDirtyCount());
+        assertEquals(BoardRenderer.BODY_COLOR.getRGB() & 0xFFFFFF, pixel(renderer, 10, 10));
+        assertEquals(0xFF0000, pixel(renderer, engine.getFoodX(), engine.getFoodY()));
+    }
+}
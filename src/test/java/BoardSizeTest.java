@@ -0,0 +1,36 @@
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoardSizeTest {
+    
+    @Test
+    void testDefaultBoard() {
+        assertEquals(20, BoardSize.DEFAULT.getWidth());
+        assertEquals(20, BoardSize.DEFAULT.getHeight());
+        assertEquals(25, BoardSize.DEFAULT.tileSizeFor(500));
+    }
+    
+    @Test
+    void testParse() {
+        BoardSize size = BoardSize.parse("100x80");
+        
+        assertEquals(100, size.getWidth());
+        assertEquals(80, size.getHeight());
+        assertEquals(8000, size.getCellCount());
+        assertEquals(size, new BoardSize(100, 80));
+    }
+    
+    @Test
+    void testTileSizeScalesDown() {
+        assertEquals(5, new BoardSize(100, 50).tileSizeFor(500));
+        assertEquals(1, new BoardSize(1000, 1000).tileSizeFor(500));
+    }
+    
+    @Test
+    void testRejectsUnsupportedSizes() {
+        assertThrows(IllegalArgumentException.class, () -> new BoardSize(0, 10));
+        assertThrows(IllegalArgumentException.class, () -> new BoardSize(1001, 10));
+        assertThrows(IllegalArgumentException.class, () -> BoardSize.parse("20"));
+    }
+}
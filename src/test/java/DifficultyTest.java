@@ -33,4 +33,20 @@ class DifficultyTest {
         assertTrue(difficulties[1].getDelay() > difficulties[2].getDelay());
         assertTrue(difficulties[2].getDelay() > difficulties[3].getDelay());
     }
+    
+    @Test
+    void testSpeedCurvesStartAtDelayAndOnlySpeedUp() {
+        for (Difficulty difficulty : Difficulty.values()) {
+            SpeedCurve curve = difficulty.getSpeedCurve();
+            assertEquals(difficulty.getDelay() * 1_000_000L, curve.stepNanos(0));
+            for (int score = 1; score < 500; score++) {
+                assertTrue(curve.stepNanos(score) <= curve.stepNanos(score - 1));
+            }
+        }
+    }
+    
+    @Test
+    void testExtremeReachesTurboSpeed() {
+        assertTrue(Difficulty.EXTREME.getSpeedCurve().stepNanos(1_000) < 10_000_000);
+    }
 }
@@ -0,0 +1,136 @@
+import org.junit.jupiter.api.Test;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameLoopTest {
+    
+    @Test
+    void testRunsAtFixedRate() throws InterruptedException {
+        AtomicInteger steps = new AtomicInteger();
+        GameLoop loop = new GameLoop("test-loop", TimeUnit.MILLISECONDS.toNanos(5), steps::incrementAndGet);
+        
+        long start = System.nanoTime();
+        loop.start();
+        Thread.sleep(500);
+        loop.stop();
+        long elapsed = System.nanoTime() - start;
+        
+        // Deadlines are absolute, so the loop can never get ahead of the clock. How far it
+        // falls behind depends on the machine, so only a busy one is ruled out.
+        long expected = elapsed / TimeUnit.MILLISECONDS.toNanos(5);
+        assertTrue(steps.get() <= expected + 1, "expected at most " + (expected + 1) + " steps but ran " + steps.get());
+        assertTrue(steps.get() >= expected / 2, "expected about " + expected + " steps but ran " + steps.get());
+        assertEquals(steps.get(), loop.getStepCount());
+        assertTrue(loop.getJitter().getCount() > 0);
+    }
+    
+    @Test
+    void testStopFromInsideStep() throws InterruptedException {
+        CountDownLatch stopped = new CountDownLatch(1);
+        AtomicInteger steps = new AtomicInteger();
+        GameLoop[] holder = new GameLoop[1];
+        holder[0] = new GameLoop("test-loop", TimeUnit.MILLISECONDS.toNanos(1), () -> {
+            if (steps.incrementAndGet() == 3) {
+                holder[0].stop();
+                stopped.countDown();
+            }
+        });
+        
+        holder[0].start();
+        assertTrue(stopped.await(1, TimeUnit.SECONDS));
+        Thread.sleep(20);
+        
+        assertFalse(holder[0].isRunning());
+        assertEquals(3, steps.get());
+    }
+    
+    @Test
+    void testStopWaitsForTheStepInProgress() throws InterruptedException {
+        CountDownLatch inStep = new CountDownLatch(1);
+        AtomicInteger finished = new AtomicInteger();
+        GameLoop loop = new GameLoop("test-loop", TimeUnit.MILLISECONDS.toNanos(1), () -> {
+            inStep.countDown();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            finished.incrementAndGet();
+        });
+        
+        loop.start();
+        assertTrue(inStep.await(1, TimeUnit.SECONDS));
+        loop.stop();
+        // The step that was running has completed and no further step starts
+        int steps = finished.get();
+        assertTrue(steps >= 1);
+        assertEquals(steps, loop.getStepCount());
+        Thread.sleep(20);
+        assertEquals(steps, finished.get());
+    }
+    
+    @Test
+    void testCatchesUpAfterSlowStep() throws InterruptedException {
+        AtomicInteger steps = new AtomicInteger();
+        GameLoop loop = new GameLoop("test-loop", TimeUnit.MILLISECONDS.toNanos(10), () -> {
+            if (steps.incrementAndGet() == 1) {
+                // Stall long enough to miss three deadlines
+                try {
+                    Thread.sleep(35);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        
+        long start = System.nanoTime();
+        loop.start();
+        Thread.sleep(200);
+        loop.stop();
+        long elapsed = System.nanoTime() - start;
+        
+        // Missed steps are made up, so the count still tracks wall-clock time
+        long expected = elapsed / TimeUnit.MILLISECONDS.toNanos(10);
+        assertTrue(Math.abs(steps.get() - expected) <= 2,
+                "expected about " + expected + " steps but ran " + steps.get());
+    }
+    
+    @Test
+    void testChangingRateFollowsTheNewStep() throws InterruptedException {
+        // Ramps from 10 ms down to 2 ms like a speed curve, changing the rate from inside the step
+        SpeedCurve curve = SpeedCurve.ramp(TimeUnit.MILLISECONDS.toNanos(10), TimeUnit.MILLISECONDS.toNanos(2), 0.99);
+        int count = 400;
+        long[] started = new long[count];
+        long[] scheduled = new long[count];
+        CountDownLatch done = new CountDownLatch(1);
+        GameLoop[] holder = new GameLoop[1];
+        AtomicInteger steps = new AtomicInteger();
+        holder[0] = new GameLoop("test-loop", curve.stepNanos(0), () -> {
+            int i = steps.getAndIncrement();
+            started[i] = System.nanoTime();
+            if (i == count - 1) {
+                holder[0].stop();
+                done.countDown();
+                return;
+            }
+            scheduled[i] = curve.stepNanos(i + 1);
+            holder[0].setStepNanos(scheduled[i]);
+        });
+        
+        holder[0].start();
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+        
+        long expected = 0;
+        for (int i = 0; i < count - 1; i++) {
+            expected += scheduled[i];
+        }
+        long actual = started[count - 1] - started[0];
+        // Kept at the old rate the run would take over twice as long; a loaded machine only
+        // adds a little on top of the schedule
+        assertTrue(actual >= expected / 2 && actual < expected * 3 / 2,
+                "took " + actual / 1_000_000 + " ms for a " + expected / 1_000_000 + " ms schedule");
+    }
+}
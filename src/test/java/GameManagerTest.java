@@ -1,4 +1,5 @@
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.io.TempDir;
 import java.io.File;
@@ -15,13 +16,20 @@ import static org.junit.jupiter.api.Assertions.*;
 
 class SnakeGameTest {
     
+    @TempDir
+    Path dir;
     private GameManager gameManager;
     private JFrame testFrame;
     
     @BeforeEach
     void setUp() {
         testFrame = new JFrame("Test");
-        gameManager = new GameManager(testFrame);
+        gameManager = new GameManager(testFrame, dir);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        gameManager.shutdown();
     }
     
     @Test
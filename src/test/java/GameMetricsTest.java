@@ -0,0 +1,71 @@
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameMetricsTest {
+    
+    @TempDir
+    Path dir;
+    
+    @Test
+    void testSummarisesOncePerSecond() {
+        GameMetrics metrics = new GameMetrics();
+        metrics.setEnabled(true, 0);
+        for (int i = 1; i <= 100; i++) {
+            metrics.recordTick(i * 1_000L);
+            metrics.recordFrame(i * 10_000L);
+        }
+        assertFalse(metrics.roll(999_999_999L));
+        assertTrue(metrics.roll(2_000_000_000L));
+        
+        assertEquals(50_000, metrics.getTickP50(), 50_000 * 0.07);
+        assertEquals(99_000, metrics.getTickP99(), 99_000 * 0.07);
+        assertEquals(500_000, metrics.getFrameP50(), 500_000 * 0.07);
+        assertEquals(50.0, metrics.getTicksPerSecond(), 1e-9);
+        
+        // The next window starts empty
+        assertTrue(metrics.roll(3_000_000_000L));
+        assertEquals(0, metrics.getTickP99());
+        assertEquals(0.0, metrics.getTicksPerSecond(), 1e-9);
+    }
+    
+    @Test
+    void testDoesNotRollWhileDisabled() {
+        GameMetrics metrics = new GameMetrics();
+        metrics.recordTick(1_000);
+        assertFalse(metrics.roll(10_000_000_000L));
+        assertEquals(0, metrics.getTickP50());
+    }
+    
+    @Test
+    void testFoodSpawnEventsAreRecorded() throws IOException {
+        Path file = dir.resolve("spawns.jfr");
+        SnakeEngine engine = new SnakeEngine(10, 10, new Random(1));
+        try (Recording recording = new Recording()) {
+            recording.enable(FoodSpawnEvent.class);
+            recording.start();
+            // Eat four times heading right from the centre
+            for (int i = 0; i < 4; i++) {
+                engine.setFood(engine.getX(0) + 1, engine.getY(0));
+                engine.step(Direction.RIGHT);
+            }
+            recording.stop();
+            recording.dump(file);
+        }
+        
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        events.removeIf(e -> !e.getEventType().getName().equals("FoodSpawn"));
+        assertEquals(4, events.size());
+        // The last spawn happened with five cells under the snake
+        int fewestFree = events.stream().mapToInt(e -> e.getInt("freeCells")).min().getAsInt();
+        assertEquals(100 - 5, fewestFree);
+    }
+}
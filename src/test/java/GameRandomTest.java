@@ -0,0 +1,41 @@
+import org.junit.jupiter.api.Test;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameRandomTest {
+    
+    @Test
+    void testMatchesJavaUtilRandom() {
+        Random expected = new Random(123);
+        GameRandom actual = new GameRandom(123);
+        
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(expected.nextInt(400), actual.nextInt(400));
+            assertEquals(expected.nextLong(), actual.nextLong());
+        }
+    }
+    
+    @Test
+    void testSetSeedMatchesConstructor() {
+        GameRandom reseeded = new GameRandom();
+        reseeded.setSeed(99);
+        GameRandom fresh = new GameRandom(99);
+        
+        assertEquals(fresh.getState(), reseeded.getState());
+        assertEquals(fresh.nextInt(), reseeded.nextInt());
+    }
+    
+    @Test
+    void testRestoreState() {
+        GameRandom random = new GameRandom(5);
+        random.nextInt();
+        long state = random.getState();
+        int next = random.nextInt(1000);
+        
+        random.nextInt();
+        random.setState(state);
+        
+        assertEquals(next, random.nextInt(1000));
+    }
+}
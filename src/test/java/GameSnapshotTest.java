@@ -0,0 +1,170 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameSnapshotTest {
+    
+    @TempDir
+    Path dir;
+    
+    @Test
+    void testRestoredGameContinuesIdentically() throws IOException {
+        SnakeEngine original = new SnakeEngine(20, 20, new GameRandom(7));
+        Autopilot pilot = new Autopilot();
+        for (int i = 0; i < 3_000; i++) {
+            original.step(pilot.choose(original));
+        }
+        assertTrue(original.getLength() > 5);
+        Path file = dir.resolve("session.snks");
+        GameSnapshot.capture(Difficulty.HARD, original).save(file);
+        
+        GameSnapshot loaded = GameSnapshot.load(file);
+        assertEquals(Difficulty.HARD, loaded.getDifficulty());
+        assertEquals(new BoardSize(20, 20), loaded.getBoardSize());
+        SnakeEngine restored = new SnakeEngine(20, 20, new GameRandom(99));
+        loaded.restore(restored);
+        assertSameState(original, restored);
+        assertEquals(original.getDirection(), restored.getDirection());
+        
+        // Same moves from here on, including food spawned from the restored RNG
+        Autopilot first = new Autopilot();
+        Autopilot second = new Autopilot();
+        while (original.isRunning()) {
+            assertEquals(original.step(first.choose(original)), restored.step(second.choose(restored)));
+            assertSameState(original, restored);
+        }
+    }
+    
+    @Test
+    void testRejectsCorruptAndUnknownFiles() throws IOException {
+        Path file = dir.resolve("session.snks");
+        GameSnapshot.capture(Difficulty.EASY, new SnakeEngine(10, 10, new GameRandom(1))).save(file);
+        byte[] bytes = Files.readAllBytes(file);
+        
+        bytes[bytes.length / 2] ^= 1;
+        Files.write(file, bytes);
+        assertThrows(IOException.class, () -> GameSnapshot.load(file));
+        
+        bytes[bytes.length / 2] ^= 1;
+        bytes[4] = 99;
+        Files.write(file, bytes);
+        assertThrows(IOException.class, () -> GameSnapshot.load(file));
+        
+        Files.write(file, new byte[] {1, 2, 3});
+        assertThrows(IOException.class, () -> GameSnapshot.load(file));
+    }
+    
+    @Test
+    void testRejectsOutOfRangeFieldsWithValidChecksum() throws IOException {
+        Path file = dir.resolve("session.snks");
+        GameSnapshot.capture(Difficulty.EASY, new SnakeEngine(10, 10, new GameRandom(1))).save(file);
+        byte[] bytes = Files.readAllBytes(file);
+        // Offsets: width 6-9, then the engine state from 14: direction 18, food 20-23, length 33-36, head 37-40
+        int[][] corruptions = {{9, 1}, {18, 9}, {22, 0x7F}, {34, 0x7F}, {38, 0x7F}, {bytes.length - 8, 0x7F}};
+        for (int[] corruption : corruptions) {
+            byte[] corrupt = bytes.clone();
+            corrupt[corruption[0]] = (byte) corruption[1];
+            Files.write(file, withChecksum(corrupt));
+            assertThrows(IOException.class, () -> GameSnapshot.load(file));
+        }
+    }
+    
+    @Test
+    void testBadStateLeavesEngineUntouched() {
+        SnakeEngine engine = new SnakeEngine(10, 10, new GameRandom(1));
+        engine.step(Direction.UP);
+        engine.step(Direction.LEFT);
+        ByteBuffer state = ByteBuffer.allocate(engine.stateSize());
+        engine.writeState(state);
+        state.flip();
+        // The head one row below the board
+        state.putInt(23, 10 * 10 + 5);
+        SnakeEngine target = new SnakeEngine(10, 10, new GameRandom(2));
+        SnakeEngine untouched = new SnakeEngine(10, 10, new GameRandom(2));
+        
+        assertThrows(IllegalArgumentException.class, () -> target.readState(state));
+        assertSameState(untouched, target);
+        assertEquals(untouched.getDirection(), target.getDirection());
+    }
+    
+    @Test
+    void testRestoreChecksBoardSize() {
+        GameSnapshot snapshot = GameSnapshot.capture(Difficulty.EASY, new SnakeEngine(10, 10, new Random(1)));
+        
+        assertThrows(IllegalArgumentException.class, () -> snapshot.restore(new SnakeEngine(12, 10, new Random(1))));
+    }
+    
+    @Test
+    void testBoardFillingSnakeSavesAndLoadsWellUnderAMillisecond() throws IOException {
+        int size = 100;
+        SnakeEngine engine = new SnakeEngine(size, size, new GameRandom(3));
+        // Up to the top-left corner, then eat along a serpentine over every row
+        for (int y = size / 2; y > 0; y--) {
+            engine.step(Direction.UP);
+        }
+        for (int x = size / 2; x > 0; x--) {
+            engine.step(Direction.LEFT);
+        }
+        for (int y = 0; y < size; y++) {
+            Direction along = y % 2 == 0 ? Direction.RIGHT : Direction.LEFT;
+            for (int i = 1; i < size; i++) {
+                eat(engine, along);
+            }
+            eat(engine, Direction.DOWN);
+        }
+        assertTrue(engine.getLength() > size * size - size, "length " + engine.getLength());
+        Path file = dir.resolve("full.snks");
+        SnakeEngine restored = new SnakeEngine(size, size, new GameRandom(4));
+        // Two bits per segment plus the few free cells
+        assertTrue(GameSnapshot.capture(Difficulty.NORMAL, engine).size() < engine.getLength() / 4 + 4 * size + 64);
+        
+        long elapsed = 0;
+        int rounds = 200;
+        for (int i = 0; i < 2 * rounds; i++) {
+            long start = System.nanoTime();
+            GameSnapshot.capture(Difficulty.NORMAL, engine).save(file);
+            GameSnapshot.load(file).restore(restored);
+            // The first half warms up
+            if (i >= rounds) {
+                elapsed += System.nanoTime() - start;
+            }
+        }
+        assertSameState(engine, restored);
+        assertTrue(elapsed / rounds < 1_000_000, "save and load took " + elapsed / rounds / 1000 + " us");
+    }
+    
+    private byte[] withChecksum(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length - 4);
+        ByteBuffer.wrap(bytes).putInt(bytes.length - 4, (int) crc.getValue());
+        return bytes;
+    }
+    
+    // Steps with food placed on the target cell so the snake grows
+    private void eat(SnakeEngine engine, Direction direction) {
+        int x = engine.getX(0) + direction.getDx();
+        int y = engine.getY(0) + direction.getDy();
+        if (x >= 0 && y >= 0 && x < engine.getWidth() && y < engine.getHeight() && !engine.isOccupied(x, y)) {
+            engine.setFood(x, y);
+            engine.step(direction);
+        }
+    }
+    
+    private void assertSameState(SnakeEngine expected, SnakeEngine actual) {
+        assertEquals(expected.getLength(), actual.getLength());
+        for (int i = 0; i < expected.getLength(); i++) {
+            assertEquals(expected.getX(i), actual.getX(i));
+            assertEquals(expected.getY(i), actual.getY(i));
+        }
+        assertEquals(expected.getFoodCell(), actual.getFoodCell());
+        assertEquals(expected.getScore(), actual.getScore());
+        assertEquals(expected.isRunning(), actual.isRunning());
+    }
+}
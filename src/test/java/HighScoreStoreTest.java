@@ -0,0 +1,148 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HighScoreStoreTest {
+    
+    @TempDir
+    Path dir;
+    
+    private HighScoreStore open(Path directory) throws IOException {
+        HighScoreStore store = new HighScoreStore(directory, 3);
+        store.load();
+        return store;
+    }
+    
+    @Test
+    void testKeepsTopScoresPerDifficulty() throws IOException {
+        HighScoreStore store = open(dir);
+        assertTrue(store.record(Difficulty.EASY, 5, 1));
+        assertTrue(store.record(Difficulty.EASY, 9, 2));
+        assertTrue(store.record(Difficulty.EASY, 7, 3));
+        assertTrue(store.record(Difficulty.EASY, 8, 4));
+        assertFalse(store.record(Difficulty.EASY, 1, 5), "Below the top 3");
+        assertTrue(store.record(Difficulty.HARD, 2, 6));
+        
+        List<ScoreEntry> easy = store.getTopScores(Difficulty.EASY);
+        assertEquals(3, easy.size());
+        assertEquals(9, easy.get(0).getScore());
+        assertEquals(8, easy.get(1).getScore());
+        assertEquals(7, easy.get(2).getScore());
+        assertEquals(9, store.getBest(Difficulty.EASY));
+        assertEquals(2, store.getBest(Difficulty.HARD));
+        assertEquals(0, store.getBest(Difficulty.NORMAL));
+        assertEquals(9, store.getBest());
+        store.close();
+    }
+    
+    @Test
+    void testEarlierScoreWinsTies() throws IOException {
+        HighScoreStore store = open(dir);
+        store.record(Difficulty.NORMAL, 4, 20);
+        store.record(Difficulty.NORMAL, 4, 10);
+        assertEquals(10, store.getTopScores(Difficulty.NORMAL).get(0).getTimestamp());
+        store.close();
+    }
+    
+    @Test
+    void testScoresSurviveReopening() throws IOException {
+        HighScoreStore store = open(dir);
+        store.record(Difficulty.EXTREME, 12, 100);
+        store.record(Difficulty.NORMAL, 3, 200);
+        store.close();
+        
+        HighScoreStore reopened = open(dir);
+        assertEquals(12, reopened.getBest(Difficulty.EXTREME));
+        assertEquals(100, reopened.getTopScores(Difficulty.EXTREME).get(0).getTimestamp());
+        assertEquals(3, reopened.getBest(Difficulty.NORMAL));
+        reopened.close();
+    }
+    
+    @Test
+    void testLoadCompactsJournalIntoSnapshot() throws IOException {
+        HighScoreStore store = open(dir);
+        for (int i = 0; i < 10; i++) {
+            store.record(Difficulty.HARD, i, i);
+        }
+        store.close();
+        assertEquals(3, store.getTopScores(Difficulty.HARD).size());
+        
+        HighScoreStore compacted = open(dir);
+        compacted.flush();
+        assertEquals(0, Files.size(dir.resolve(HighScoreStore.JOURNAL_FILE)));
+        assertTrue(Files.exists(dir.resolve(HighScoreStore.SNAPSHOT_FILE)));
+        assertFalse(Files.exists(dir.resolve(HighScoreStore.SNAPSHOT_FILE + ".tmp")));
+        compacted.record(Difficulty.HARD, 8, 50);
+        compacted.close();
+        
+        HighScoreStore reopened = open(dir);
+        List<ScoreEntry> hard = reopened.getTopScores(Difficulty.HARD);
+        assertEquals(3, hard.size());
+        assertEquals(9, hard.get(0).getScore());
+        assertEquals(8, hard.get(1).getScore());
+        assertEquals(8, hard.get(2).getScore());
+        reopened.close();
+    }
+    
+    @Test
+    void testIgnoresTornJournalRecord() throws IOException {
+        HighScoreStore store = open(dir);
+        store.record(Difficulty.EASY, 6, 1);
+        store.close();
+        // A crash in the middle of an append leaves a partial record behind
+        Path journal = dir.resolve(HighScoreStore.JOURNAL_FILE);
+        byte[] bytes = Files.readAllBytes(journal);
+        byte[] torn = new byte[bytes.length + 5];
+        System.arraycopy(bytes, 0, torn, 0, bytes.length);
+        torn[bytes.length] = (byte) Difficulty.EASY.ordinal();
+        Files.write(journal, torn);
+        
+        HighScoreStore reopened = open(dir);
+        assertEquals(1, reopened.getTopScores(Difficulty.EASY).size());
+        assertEquals(6, reopened.getBest(Difficulty.EASY));
+        reopened.close();
+    }
+    
+    @Test
+    void testRejectsCorruptSnapshot() throws IOException {
+        HighScoreStore store = open(dir);
+        store.record(Difficulty.EASY, 6, 1);
+        store.close();
+        open(dir).close();
+        Path snapshot = dir.resolve(HighScoreStore.SNAPSHOT_FILE);
+        byte[] bytes = Files.readAllBytes(snapshot);
+        bytes[12] ^= 1;
+        Files.write(snapshot, bytes);
+        
+        assertThrows(IOException.class, () -> new HighScoreStore(dir, 3).load());
+    }
+    
+    @Test
+    void testLoadsLargeJournalQuickly() throws IOException {
+        // 100k games of history, as a journal that was never compacted
+        int records = 100_000;
+        ByteBuffer buffer = ByteBuffer.allocate(records * 13);
+        for (int i = 0; i < records; i++) {
+            buffer.put((byte) (i % 4)).putInt(i % 1000).putLong(i);
+        }
+        byte[] journal = buffer.array();
+        
+        long best = Long.MAX_VALUE;
+        for (int run = 0; run < 30; run++) {
+            Path runDir = Files.createDirectory(dir.resolve("run" + run));
+            Files.write(runDir.resolve(HighScoreStore.JOURNAL_FILE), journal);
+            long start = System.nanoTime();
+            HighScoreStore store = open(runDir);
+            best = Math.min(best, System.nanoTime() - start);
+            assertEquals(999, store.getBest());
+            store.close();
+        }
+        assertTrue(best < 5_000_000, "Load took " + best / 1000 + " us");
+    }
+}
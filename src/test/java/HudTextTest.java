@@ -0,0 +1,48 @@
+import org.junit.jupiter.api.Test;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HudTextTest {
+    
+    private static final Font FONT = new Font("Arial", Font.BOLD, 16);
+    
+    @Test
+    void testRasterisesOnlyWhenTextChanges() {
+        HudText text = new HudText(FONT, Color.WHITE);
+        
+        text.setText("Score: 1");
+        text.setText("Score: 1");
+        text.setText(new String("Score: 1"));
+        assertEquals(1, text.getRenderCount());
+        
+        text.setText("Score: 2");
+        assertEquals(2, text.getRenderCount());
+        assertEquals("Score: 2", text.getText());
+    }
+    
+    @Test
+    void testDrawsTextAboveBaseline() {
+        HudText text = new HudText(FONT, Color.WHITE);
+        text.setText("MMMM");
+        BufferedImage target = new BufferedImage(100, 40, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = target.createGraphics();
+        
+        text.draw(g, 10, 30);
+        g.dispose();
+        
+        int lit = 0;
+        for (int y = 0; y < target.getHeight(); y++) {
+            for (int x = 0; x < target.getWidth(); x++) {
+                if ((target.getRGB(x, y) & 0xFFFFFF) != 0) {
+                    assertTrue(y < 30 && x >= 10, "pixel at " + x + "," + y);
+                    lit++;
+                }
+            }
+        }
+        assertTrue(lit > 0);
+    }
+}
@@ -0,0 +1,69 @@
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InputQueueTest {
+    
+    @Test
+    void testPollsInOfferOrder() {
+        InputQueue queue = new InputQueue(4);
+        assertTrue(queue.offer(Direction.UP, 10));
+        assertTrue(queue.offer(Direction.LEFT, 20));
+        
+        assertEquals(Direction.UP, queue.poll());
+        assertEquals(10, queue.getPolledTimestamp());
+        assertEquals(Direction.LEFT, queue.poll());
+        assertEquals(20, queue.getPolledTimestamp());
+        assertNull(queue.poll());
+    }
+    
+    @Test
+    void testDropsInputWhenFull() {
+        InputQueue queue = new InputQueue(3);
+        assertEquals(4, queue.capacity());
+        for (int i = 0; i < 4; i++) {
+            assertTrue(queue.offer(Direction.DOWN, i));
+        }
+        assertFalse(queue.offer(Direction.UP, 4));
+        assertEquals(4, queue.size());
+        
+        queue.poll();
+        assertTrue(queue.offer(Direction.UP, 5));
+    }
+    
+    @Test
+    void testClearDiscardsPendingInput() {
+        InputQueue queue = new InputQueue(8);
+        queue.offer(Direction.UP, 1);
+        queue.offer(Direction.DOWN, 2);
+        queue.clear();
+        assertEquals(0, queue.size());
+        assertNull(queue.poll());
+    }
+    
+    @Test
+    void testHandsOverEveryEntryBetweenThreads() throws InterruptedException {
+        InputQueue queue = new InputQueue(8);
+        int total = 20_000;
+        Direction[] values = Direction.values();
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < total; i++) {
+                while (!queue.offer(values[i & 3], i)) {
+                    Thread.yield();
+                }
+            }
+        });
+        producer.start();
+        
+        for (int i = 0; i < total; i++) {
+            Direction direction;
+            while ((direction = queue.poll()) == null) {
+                Thread.yield();
+            }
+            assertEquals(values[i & 3], direction);
+            assertEquals(i, queue.getPolledTimestamp());
+        }
+        producer.join();
+        assertNull(queue.poll());
+    }
+}
@@ -0,0 +1,60 @@
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+    
+    @Test
+    void testSmallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 10; i++) {
+            histogram.record(i);
+        }
+        
+        assertEquals(10, histogram.getCount());
+        assertEquals(5, histogram.getPercentile(50));
+        assertEquals(10, histogram.getPercentile(100));
+    }
+    
+    @Test
+    void testPercentilesWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 100_000; i++) {
+            histogram.record(i * 1_000L);
+        }
+        
+        long p50 = histogram.getPercentile(50);
+        long p99 = histogram.getPercentile(99);
+        assertTrue(Math.abs(p50 - 50_000_000L) <= 50_000_000L / 16, "p50 was " + p50);
+        assertTrue(Math.abs(p99 - 99_000_000L) <= 99_000_000L / 16, "p99 was " + p99);
+        assertEquals(100_000_000L, histogram.getMax());
+    }
+    
+    @Test
+    void testBucketsAreContiguous() {
+        for (long value = 0; value < 100_000; value++) {
+            int index = LatencyHistogram.indexOf(value);
+            assertTrue(LatencyHistogram.upperBoundOf(index) >= value);
+            if (index > 0) {
+                assertTrue(LatencyHistogram.upperBoundOf(index - 1) < value);
+            }
+        }
+        assertTrue(LatencyHistogram.indexOf(Long.MAX_VALUE) >= 0);
+    }
+    
+    @Test
+    void testAddAndReset() {
+        LatencyHistogram a = new LatencyHistogram();
+        LatencyHistogram b = new LatencyHistogram();
+        a.record(100);
+        b.record(200);
+        a.add(b);
+        
+        assertEquals(2, a.getCount());
+        assertEquals(200, a.getMax());
+        
+        a.reset();
+        assertEquals(0, a.getCount());
+        assertEquals(0, a.getPercentile(99));
+    }
+}
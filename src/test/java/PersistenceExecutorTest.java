@@ -0,0 +1,77 @@
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistenceExecutorTest {
+    
+    @Test
+    void testRunsTasksInOrder() {
+        PersistenceExecutor executor = new PersistenceExecutor("test-writer");
+        List<Integer> ran = Collections.synchronizedList(new ArrayList<>());
+        for (int i = 0; i < 100; i++) {
+            int value = i;
+            executor.submit(() -> ran.add(value));
+        }
+        executor.flush();
+        assertEquals(100, ran.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(Integer.valueOf(i), ran.get(i));
+        }
+        executor.close();
+    }
+    
+    @Test
+    void testCoalescesPendingTasksWithSameKey() throws InterruptedException {
+        PersistenceExecutor executor = new PersistenceExecutor("test-writer");
+        // Hold the worker so the next submissions stay pending
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        executor.submit(() -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        started.await();
+        
+        List<String> ran = Collections.synchronizedList(new ArrayList<>());
+        Object key = new Object();
+        executor.submit(key, () -> ran.add("first"));
+        executor.submit(() -> ran.add("other"));
+        executor.submit(key, () -> ran.add("second"));
+        release.countDown();
+        executor.flush();
+        
+        assertEquals(List.of("second", "other"), ran);
+        executor.close();
+    }
+    
+    @Test
+    void testKeepsRunningAfterFailedTask() {
+        PersistenceExecutor executor = new PersistenceExecutor("test-writer");
+        List<String> ran = Collections.synchronizedList(new ArrayList<>());
+        executor.submit(() -> {
+            throw new IllegalStateException("Expected by the test");
+        });
+        executor.submit(() -> ran.add("after"));
+        executor.flush();
+        assertEquals(List.of("after"), ran);
+        executor.close();
+    }
+    
+    @Test
+    void testCloseRunsPendingTasks() {
+        PersistenceExecutor executor = new PersistenceExecutor("test-writer");
+        List<String> ran = Collections.synchronizedList(new ArrayList<>());
+        executor.submit(() -> ran.add("pending"));
+        executor.close();
+        assertEquals(List.of("pending"), ran);
+        assertThrows(IllegalStateException.class, () -> executor.submit(() -> { }));
+    }
+}
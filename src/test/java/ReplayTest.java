@@ -0,0 +1,146 @@
+import org.junit.jupiter.api.Test;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplayTest {
+    
+    // Plays a game with pseudo-random turns that avoid walls and the body when they can,
+    // recording it like SnakeGame does
+    private Replay recordGame(long seed) {
+        BoardSize board = new BoardSize(12, 12);
+        SnakeEngine engine = new SnakeEngine(board.getWidth(), board.getHeight(), new GameRandom(seed));
+        ReplayRecorder recorder = new ReplayRecorder(seed, Difficulty.HARD, board);
+        Random input = new Random(seed + 1);
+        Direction direction = Direction.RIGHT;
+        while (engine.isRunning() && recorder.getTick() < 5_000) {
+            if (input.nextInt(4) == 0 || !isSafe(engine, direction)) {
+                int first = input.nextInt(4);
+                for (int i = 0; i < 4; i++) {
+                    Direction turn = Direction.values()[(first + i) % 4];
+                    if (turn != direction.opposite() && isSafe(engine, turn)) {
+                        direction = turn;
+                        break;
+                    }
+                }
+            }
+            recorder.record(direction);
+            engine.step(direction);
+        }
+        return recorder.finish(engine.getScore());
+    }
+    
+    private boolean isSafe(SnakeEngine engine, Direction direction) {
+        int x = engine.getX(0) + direction.getDx();
+        int y = engine.getY(0) + direction.getDy();
+        return x >= 0 && y >= 0 && x < engine.getWidth() && y < engine.getHeight() && !engine.isOccupied(x, y);
+    }
+    
+    @Test
+    void testReplayReproducesGame() {
+        for (long seed = 1; seed <= 20; seed++) {
+            Replay replay = recordGame(seed);
+            
+            assertTrue(ReplayPlayer.verify(replay), "seed " + seed);
+        }
+    }
+    
+    @Test
+    void testBinaryRoundTrip() throws IOException {
+        Replay replay = recordGame(7);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        replay.write(out);
+        
+        Replay read = Replay.read(new ByteArrayInputStream(out.toByteArray()));
+        
+        assertEquals(replay, read);
+        assertEquals(Difficulty.HARD, read.getDifficulty());
+        assertEquals(new BoardSize(12, 12), read.getBoardSize());
+        // Header plus about two bytes per direction change
+        assertTrue(out.size() <= 30 + replay.getChangeCount() * 3);
+    }
+    
+    @Test
+    void testRejectsGarbage() {
+        assertThrows(IOException.class, () -> Replay.read(new ByteArrayInputStream(new byte[] {1, 2, 3, 4, 5})));
+    }
+    
+    @Test
+    void testRejectsTruncatedAndCorruptReplays() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        recordGame(7).write(out);
+        byte[] bytes = out.toByteArray();
+    
+        assertThrows(IOException.class, () -> Replay.read(new ByteArrayInputStream(Arrays.copyOf(bytes, bytes.length / 2))));
+        // Header offsets: difficulty at 13, width at 14-15, height at 16-17, then the varints
+        assertThrows(IOException.class, () -> Replay.read(new ByteArrayInputStream(corrupt(bytes, 13, 99))));
+        assertThrows(IOException.class, () -> Replay.read(new ByteArrayInputStream(corrupt(bytes, 15, 1))));
+        assertThrows(IOException.class, () -> Replay.read(new ByteArrayInputStream(corrupt(bytes, 16, 0x7F))));
+        // A change count far beyond what the remaining bytes can hold
+        byte[] header = Arrays.copyOf(bytes, 24);
+        header[18] = 1;
+        header[19] = 0;
+        header[20] = (byte) 0xFF;
+        header[21] = (byte) 0xFF;
+        header[22] = (byte) 0xFF;
+        header[23] = 0x07;
+        assertThrows(IOException.class, () -> Replay.read(new ByteArrayInputStream(header)));
+    }
+    
+    private byte[] corrupt(byte[] bytes, int offset, int value) {
+        byte[] copy = bytes.clone();
+        copy[offset] = (byte) value;
+        return copy;
+    }
+    
+    @Test
+    void testSeekMatchesPlayingForward() {
+        Replay replay = null;
+        for (long seed = 1; seed < 1_000 && (replay == null || replay.getTickCount() < 3 * ReplayPlayer.SNAPSHOT_INTERVAL); seed++) {
+            replay = recordGame(seed);
+        }
+        assertTrue(replay.getTickCount() >= 3 * ReplayPlayer.SNAPSHOT_INTERVAL);
+        int target = replay.getTickCount() - 10;
+        ReplayPlayer forward = new ReplayPlayer(replay);
+        while (forward.getTick() < target) {
+            forward.step();
+        }
+        
+        ReplayPlayer seeking = new ReplayPlayer(replay, true);
+        seeking.seek(replay.getTickCount());
+        seeking.seek(5);
+        seeking.seek(target);
+        
+        assertEquals(target, seeking.getTick());
+        assertSameState(forward.getEngine(), seeking.getEngine());
+        
+        // Both continue identically, including the food spawned from the restored RNG
+        forward.runToEnd();
+        seeking.runToEnd();
+        assertSameState(forward.getEngine(), seeking.getEngine());
+        assertEquals(replay.getFinalScore(), seeking.getEngine().getScore());
+        assertTrue(seeking.getSnapshotCount() >= 3);
+        // Playing forward keeps only the snapshot of the start
+        assertEquals(1, forward.getSnapshotCount());
+        
+        // Seeking back still works without the periodic snapshots, from the start
+        forward.seek(target);
+        seeking.seek(target);
+        assertSameState(seeking.getEngine(), forward.getEngine());
+    }
+    
+    private void assertSameState(SnakeEngine expected, SnakeEngine actual) {
+        assertEquals(expected.getLength(), actual.getLength());
+        for (int i = 0; i < expected.getLength(); i++) {
+            assertEquals(expected.getX(i), actual.getX(i));
+            assertEquals(expected.getY(i), actual.getY(i));
+        }
+        assertEquals(expected.getFoodCell(), actual.getFoodCell());
+        assertEquals(expected.getScore(), actual.getScore());
+        assertEquals(expected.isRunning(), actual.isRunning());
+    }
+}
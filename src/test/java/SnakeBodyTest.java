@@ -0,0 +1,66 @@
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnakeBodyTest {
+    
+    @Test
+    void testPushHeadAndPopTail() {
+        SnakeBody body = new SnakeBody(4);
+        body.pushHead(1);
+        body.pushHead(2);
+        body.pushHead(3);
+        
+        assertEquals(3, body.size());
+        assertEquals(3, body.head());
+        assertEquals(1, body.tail());
+        assertEquals(2, body.get(1));
+        assertEquals(1, body.popTail());
+        assertEquals(2, body.size());
+        assertEquals(2, body.tail());
+    }
+    
+    @Test
+    void testWrapsAroundCapacity() {
+        SnakeBody body = new SnakeBody(4);
+        for (int i = 0; i < 100; i++) {
+            body.pushHead(i);
+            if (body.size() > 3) {
+                body.popTail();
+            }
+        }
+        
+        assertEquals(3, body.size());
+        assertEquals(99, body.get(0));
+        assertEquals(98, body.get(1));
+        assertEquals(97, body.get(2));
+    }
+    
+    @Test
+    void testGrowsKeepingOrder() {
+        SnakeBody body = new SnakeBody(2);
+        body.pushHead(0);
+        body.popTail();
+        for (int i = 1; i <= 50; i++) {
+            body.pushHead(i);
+        }
+        
+        assertEquals(50, body.size());
+        for (int i = 0; i < 50; i++) {
+            assertEquals(50 - i, body.get(i));
+        }
+        assertEquals(1, body.popTail());
+    }
+    
+    @Test
+    void testClear() {
+        SnakeBody body = new SnakeBody();
+        body.pushHead(5);
+        body.clear();
+        
+        assertEquals(0, body.size());
+        body.pushHead(6);
+        assertEquals(6, body.head());
+        assertEquals(6, body.tail());
+    }
+}
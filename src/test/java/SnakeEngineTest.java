@@ -0,0 +1,177 @@
+import org.junit.jupiter.api.Test;
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnakeEngineTest {
+    
+    @Test
+    void testEngineStartsAtCenter() {
+        SnakeEngine engine = new SnakeEngine(20, 20, new Random(1));
+        
+        assertTrue(engine.isRunning());
+        assertEquals(0, engine.getScore());
+        assertEquals(1, engine.getLength());
+        assertEquals(10, engine.getX(0));
+        assertEquals(10, engine.getY(0));
+        assertEquals(Direction.RIGHT, engine.getDirection());
+    }
+    
+    @Test
+    void testStepMovesHead() {
+        SnakeEngine engine = new SnakeEngine(20, 20, new Random(1));
+        engine.setFood(0, 0);
+        
+        assertEquals(StepResult.MOVED, engine.step(Direction.DOWN));
+        assertEquals(10, engine.getX(0));
+        assertEquals(11, engine.getY(0));
+        assertEquals(Direction.DOWN, engine.getDirection());
+    }
+    
+    @Test
+    void testStepEatsFood() {
+        SnakeEngine engine = new SnakeEngine(20, 20, new Random(1));
+        engine.setFood(11, 10);
+        
+        assertEquals(StepResult.ATE, engine.step(Direction.RIGHT));
+        assertEquals(1, engine.getScore());
+        assertEquals(2, engine.getLength());
+        assertEquals(10, engine.getX(1));
+    }
+    
+    @Test
+    void testStepHitsWall() {
+        SnakeEngine engine = new SnakeEngine(20, 20, new Random(1));
+        engine.setFood(0, 0);
+        
+        StepResult result = StepResult.MOVED;
+        for (int i = 0; i <= 10 && !result.isGameOver(); i++) {
+            result = engine.step(Direction.UP);
+        }
+        
+        assertEquals(StepResult.HIT_WALL, result);
+        assertFalse(engine.isRunning());
+    }
+    
+    @Test
+    void testStepHitsSelf() {
+        SnakeEngine engine = new SnakeEngine(20, 20, new Random(1));
+        // Grow to length 5 in a straight line
+        for (int i = 1; i <= 4; i++) {
+            engine.setFood(10 + i, 10);
+            assertEquals(StepResult.ATE, engine.step(Direction.RIGHT));
+        }
+        engine.setFood(0, 0);
+        
+        engine.step(Direction.DOWN);
+        engine.step(Direction.LEFT);
+        
+        assertEquals(StepResult.HIT_SELF, engine.step(Direction.UP));
+        assertFalse(engine.isRunning());
+    }
+    
+    @Test
+    void testSameSeedGivesSameGame() {
+        SnakeEngine a = new SnakeEngine(20, 20, new Random(7));
+        SnakeEngine b = new SnakeEngine(20, 20, new Random(7));
+        
+        assertEquals(a.getFoodX(), b.getFoodX());
+        assertEquals(a.getFoodY(), b.getFoodY());
+    }
+    
+    @Test
+    void testResetRestoresInitialState() {
+        SnakeEngine engine = new SnakeEngine(20, 20, new Random(1));
+        engine.setFood(11, 10);
+        engine.step(Direction.RIGHT);
+        
+        engine.reset();
+        
+        assertTrue(engine.isRunning());
+        assertEquals(0, engine.getScore());
+        assertEquals(1, engine.getLength());
+        assertEquals(10, engine.getX(0));
+    }
+    
+    @Test
+    void testOccupancyFollowsBody() {
+        SnakeEngine engine = new SnakeEngine(20, 20, new Random(1));
+        engine.setFood(11, 10);
+        engine.step(Direction.RIGHT);
+        engine.setFood(0, 0);
+        
+        assertTrue(engine.isOccupied(11, 10));
+        assertTrue(engine.isOccupied(10, 10));
+        
+        engine.step(Direction.RIGHT);
+        
+        assertTrue(engine.isOccupied(12, 10));
+        assertFalse(engine.isOccupied(10, 10));
+    }
+    
+    @Test
+    void testStepDoesNotAllocate() {
+        SnakeEngine engine = new SnakeEngine(20, 20, new Random(1));
+        engine.setFood(0, 0);
+        Direction[] square = {Direction.RIGHT, Direction.DOWN, Direction.LEFT, Direction.UP};
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        
+        // Warm up so class loading and JIT compilation are not measured
+        for (int i = 0; i < 10_000; i++) {
+            engine.step(square[i & 3]);
+        }
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 10_000; i++) {
+            engine.step(square[i & 3]);
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+        
+        assertTrue(engine.isRunning());
+        assertEquals(0, allocated, "bytes allocated over 10k steps");
+    }
+    
+    @Test
+    void testFillingBoardWins() {
+        SnakeEngine engine = new SnakeEngine(2, 1, new Random(1));
+        
+        assertEquals(0, engine.getFoodX());
+        assertEquals(StepResult.WON, engine.step(Direction.LEFT));
+        assertFalse(engine.isRunning());
+        assertTrue(engine.hasWon());
+        assertEquals(2, engine.getLength());
+    }
+    
+    @Test
+    void testFoodNeverSpawnsOnSnake() {
+        SnakeEngine engine = new SnakeEngine(2, 3, new Random(5));
+        // Walk a loop through every cell of the 2x3 board, eating as food appears
+        Direction[] cycle = {
+            Direction.UP, Direction.LEFT, Direction.DOWN, Direction.DOWN, Direction.RIGHT, Direction.UP
+        };
+        StepResult result = StepResult.MOVED;
+        int steps = 0;
+        while (!result.isGameOver() && steps < 10_000) {
+            assertFalse(engine.isOccupied(engine.getFoodX(), engine.getFoodY()));
+            result = engine.step(cycle[steps % cycle.length]);
+            steps++;
+        }
+        
+        assertEquals(StepResult.WON, result);
+    }
+    
+    @Test
+    void testLargeBoard() {
+        SnakeEngine engine = new SnakeEngine(1000, 1000, new Random(3));
+        engine.setFood(0, 0);
+        
+        for (int i = 0; i < 499; i++) {
+            assertEquals(StepResult.MOVED, engine.step(Direction.RIGHT));
+        }
+        
+        assertEquals(999, engine.getX(0));
+        assertEquals(StepResult.HIT_WALL, engine.step(Direction.RIGHT));
+    }
+}
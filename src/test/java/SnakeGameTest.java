@@ -1,7 +1,14 @@
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.io.TempDir;
 import javax.swing.JFrame;
+import java.awt.Graphics;
 import java.awt.Point;
+import java.awt.event.KeyEvent;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Random;
 
@@ -9,13 +16,20 @@ import static org.junit.jupiter.api.Assertions.*;
 
 class SnakeGameTest {
     
+    @TempDir
+    Path dir;
     private GameManager gameManager;
     private JFrame testFrame;
     
     @BeforeEach
     void setUp() {
         testFrame = new JFrame("Test");
-        gameManager = new GameManager(testFrame);
+        gameManager = new GameManager(testFrame, dir);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        gameManager.shutdown();
     }
     
     @Test
@@ -133,4 +147,165 @@ class SnakeGameTest {
         assertTrue(easyGame.isRunning());
         assertTrue(hardGame.isRunning());
     }
+    
+    @Test
+    void testQuickTurnsWithinOneTickAreKept() {
+        SnakeGame game = new SnakeGame(gameManager, Difficulty.EXTREME, new Random(42));
+        game.stop();
+        Point start = game.getSnake().get(0);
+        
+        // Both presses land before the next step while moving right
+        game.handleKeyPress(KeyEvent.VK_UP);
+        game.handleKeyPress(KeyEvent.VK_LEFT);
+        game.move();
+        assertEquals("UP", game.getDirection());
+        game.move();
+        assertEquals("LEFT", game.getDirection());
+        
+        assertEquals(new Point(start.x - 1, start.y - 1), game.getSnake().get(0));
+        assertEquals(2, game.getInputLatency().getCount());
+    }
+    
+    @Test
+    void testReversalIsCheckedAgainstAppliedDirection() {
+        SnakeGame game = new SnakeGame(gameManager, Difficulty.EXTREME, new Random(42));
+        game.stop();
+        
+        // DOWN is only a reversal once UP has been applied, and LEFT never is here
+        game.handleKeyPress(KeyEvent.VK_DOWN);
+        game.handleKeyPress(KeyEvent.VK_LEFT);
+        game.move();
+        assertEquals("DOWN", game.getDirection());
+        game.move();
+        assertEquals("LEFT", game.getDirection());
+        
+        game.handleKeyPress(KeyEvent.VK_RIGHT);
+        game.move();
+        assertEquals("LEFT", game.getDirection());
+        assertTrue(game.isRunning());
+    }
+    
+    @Test
+    void testAutopilotSteersUntilArrowKey() {
+        SnakeGame game = new SnakeGame(gameManager, Difficulty.NORMAL, new Random(42));
+        game.stop();
+        game.setAutopilot(true);
+        
+        for (int i = 0; i < 2_000; i++) {
+            game.move();
+        }
+        assertTrue(game.isRunning());
+        assertTrue(game.getScore() > 5);
+        
+        game.handleKeyPress(KeyEvent.VK_UP);
+        assertFalse(game.isAutopilot());
+    }
+    
+    @Test
+    void testF3TogglesMetricsOverlay() {
+        SnakeGame game = new SnakeGame(gameManager, Difficulty.NORMAL, new Random(42));
+        game.stop();
+        game.setSize(game.getPreferredSize());
+        BufferedImage image = new BufferedImage(game.getWidth(), game.getHeight(), BufferedImage.TYPE_INT_RGB);
+        
+        game.handleKeyPress(KeyEvent.VK_F3);
+        assertTrue(game.isOverlayVisible());
+        assertTrue(game.getMetrics().isEnabled());
+        Graphics g = image.getGraphics();
+        game.paintComponent(g);
+        g.dispose();
+        
+        game.handleKeyPress(KeyEvent.VK_F3);
+        assertFalse(game.isOverlayVisible());
+        assertFalse(game.getMetrics().isEnabled());
+    }
+    
+    @Test
+    void testPauseStopsTheLoopUntilResumed() {
+        SnakeGame game = new SnakeGame(gameManager, Difficulty.EXTREME, new Random(42));
+        
+        game.handleKeyPress(KeyEvent.VK_P);
+        assertTrue(game.isPaused());
+        Point head = game.getSnake().get(0);
+        // Turns pressed while paused are ignored
+        game.handleKeyPress(KeyEvent.VK_UP);
+        
+        game.handleKeyPress(KeyEvent.VK_P);
+        assertFalse(game.isPaused());
+        game.stop();
+        game.move();
+        assertEquals("RIGHT", game.getDirection());
+        assertTrue(game.getSnake().get(0).x >= head.x + 1);
+    }
+    
+    @Test
+    void testSuspendedGameResumesPausedWhereItLeftOff() {
+        SnakeGame game = new SnakeGame(gameManager, Difficulty.HARD, new Random(42));
+        game.stop();
+        Point head = game.getSnake().get(0);
+        game.setFood(new Point(head.x + 1, head.y));
+        game.move();
+        game.setDirection("DOWN");
+        game.move();
+        
+        SnakeGame resumed = new SnakeGame(gameManager, game.suspend());
+        resumed.stop();
+        
+        assertTrue(resumed.isPaused());
+        assertEquals(game.getSnake(), resumed.getSnake());
+        assertEquals(game.getFood(), resumed.getFood());
+        assertEquals(1, resumed.getScore());
+        assertEquals("DOWN", resumed.getDirection());
+    }
+    
+    @Test
+    void testEatingSpeedsUpAlongTheDifficultyCurve() {
+        SnakeGame game = new SnakeGame(gameManager, Difficulty.EXTREME, new Random(42));
+        game.stop();
+        SpeedCurve curve = Difficulty.EXTREME.getSpeedCurve();
+        assertEquals(curve.stepNanos(0), game.getStepNanos());
+        
+        Point head = game.getSnake().get(0);
+        game.setFood(new Point(head.x + 1, head.y));
+        game.move();
+        assertEquals(curve.stepNanos(1), game.getStepNanos());
+        
+        // A new game starts at the slow end again, also on a reused panel
+        game.reset(Difficulty.EASY);
+        game.stop();
+        assertEquals(Difficulty.EASY.getSpeedCurve().stepNanos(0), game.getStepNanos());
+    }
+    
+    @Test
+    void testTickAndPaintDoNotAllocate() {
+        SnakeGame game = new SnakeGame(gameManager, Difficulty.EXTREME, new Random(42));
+        game.stop();
+        game.setFood(new Point(0, 0));
+        game.setSize(game.getPreferredSize());
+        BufferedImage image = new BufferedImage(game.getWidth(), game.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics g = image.getGraphics();
+        String[] square = {"RIGHT", "DOWN", "LEFT", "UP"};
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        
+        // Warm up so class loading and JIT compilation are not measured
+        for (int i = 0; i < 10_000; i++) {
+            game.setDirection(square[i & 3]);
+            game.move();
+            game.paintComponent(g);
+        }
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 10_000; i++) {
+            game.setDirection(square[i & 3]);
+            game.move();
+            game.paintComponent(g);
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+        g.dispose();
+        
+        assertTrue(game.isRunning());
+        // Java2D occasionally allocates a few bytes internally, so allow far less than one object per tick
+        assertTrue(allocated < 1_000, "allocated " + allocated + " bytes over 10k ticks");
+    }
 }
@@ -0,0 +1,30 @@
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpeedCurveTest {
+    
+    @Test
+    void testFixedCurveIgnoresScore() {
+        SpeedCurve curve = SpeedCurve.fixed(5_000_000);
+        assertEquals(5_000_000, curve.stepNanos(0));
+        assertEquals(5_000_000, curve.stepNanos(1_000));
+    }
+    
+    @Test
+    void testRampSpeedsUpPerFoodDownToMinimum() {
+        SpeedCurve curve = SpeedCurve.ramp(100_000_000, 10_000_000, 0.5);
+        assertEquals(100_000_000, curve.stepNanos(0));
+        assertEquals(50_000_000, curve.stepNanos(1));
+        assertEquals(25_000_000, curve.stepNanos(2));
+        assertEquals(10_000_000, curve.stepNanos(4));
+        assertEquals(10_000_000, curve.stepNanos(Integer.MAX_VALUE));
+    }
+    
+    @Test
+    void testRampRejectsBadArguments() {
+        assertThrows(IllegalArgumentException.class, () -> SpeedCurve.ramp(10, 20, 0.5));
+        assertThrows(IllegalArgumentException.class, () -> SpeedCurve.ramp(10, 0, 0.5));
+        assertThrows(IllegalArgumentException.class, () -> SpeedCurve.ramp(10, 5, 1.5));
+        assertThrows(IllegalArgumentException.class, () -> SpeedCurve.fixed(0));
+    }
+}
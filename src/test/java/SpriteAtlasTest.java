@@ -0,0 +1,56 @@
+import org.junit.jupiter.api.Test;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpriteAtlasTest {
+    
+    private static final int TILE = 10;
+    
+    private int pixel(BufferedImage image, int sprite, int x, int y) {
+        return image.getRGB(sprite * TILE + x, y) & 0xFFFFFF;
+    }
+    
+    @Test
+    void testSpritesMatchBoardColours() {
+        SpriteAtlas atlas = new SpriteAtlas(TILE);
+        BufferedImage image = atlas.getImage();
+        
+        assertEquals(BoardRenderer.BACKGROUND.getRGB() & 0xFFFFFF, pixel(image, SpriteAtlas.EMPTY, 5, 5));
+        assertEquals(BoardRenderer.HEAD_COLOR.getRGB() & 0xFFFFFF, pixel(image, SpriteAtlas.HEAD, 5, 5));
+        assertEquals(BoardRenderer.BODY_COLOR.getRGB() & 0xFFFFFF, pixel(image, SpriteAtlas.BODY, 5, 5));
+        assertEquals(0xFF0000, pixel(image, SpriteAtlas.FOOD, 5, 5));
+        // Segments keep a background edge and food is round on a background tile
+        assertEquals(BoardRenderer.BACKGROUND.getRGB() & 0xFFFFFF, pixel(image, SpriteAtlas.HEAD, 0, 0));
+        assertEquals(BoardRenderer.BACKGROUND.getRGB() & 0xFFFFFF, pixel(image, SpriteAtlas.FOOD, 0, 0));
+    }
+    
+    @Test
+    void testDrawCopiesOneTile() {
+        SpriteAtlas atlas = new SpriteAtlas(TILE);
+        BufferedImage target = new BufferedImage(3 * TILE, TILE, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = target.createGraphics();
+        g.setColor(Color.BLUE);
+        g.fillRect(0, 0, target.getWidth(), target.getHeight());
+        
+        atlas.draw(g, SpriteAtlas.HEAD, TILE, 0);
+        g.dispose();
+        
+        assertEquals(0x0000FF, target.getRGB(TILE / 2, TILE / 2) & 0xFFFFFF);
+        assertEquals(BoardRenderer.HEAD_COLOR.getRGB() & 0xFFFFFF, target.getRGB(TILE + TILE / 2, TILE / 2) & 0xFFFFFF);
+        assertEquals(0x0000FF, target.getRGB(2 * TILE + TILE / 2, TILE / 2) & 0xFFFFFF);
+    }
+    
+    @Test
+    void testFallsBackToBufferedImageWithoutScreen() {
+        SpriteAtlas atlas = new SpriteAtlas(TILE, null);
+        BoardRenderer renderer = new BoardRenderer(BoardSize.DEFAULT, TILE, null);
+        
+        assertFalse(atlas.isAccelerated());
+        assertFalse(atlas.contentsLost());
+        assertFalse(renderer.isAccelerated());
+        assertTrue(renderer.getImage() instanceof BufferedImage);
+    }
+}
@@ -1,14 +1,26 @@
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import javax.swing.JFrame;
+import java.nio.file.Path;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 class StartMenuTest {
     
+    @TempDir
+    Path dir;
+    private GameManager manager;
+    
+    @AfterEach
+    void tearDown() {
+        manager.shutdown();
+    }
+    
     @Test
     void testStartMenuCreation() {
         JFrame frame = new JFrame("Test");
-        GameManager manager = new GameManager(frame);
+        manager = new GameManager(frame, dir);
         
         assertDoesNotThrow(() -> {
             StartMenu menu = new StartMenu(manager, 0);
@@ -19,7 +31,7 @@ class StartMenuTest {
     @Test
     void testStartMenuWithHighScore() {
         JFrame frame = new JFrame("Test");
-        GameManager manager = new GameManager(frame);
+        manager = new GameManager(frame, dir);
         
         StartMenu menu = new StartMenu(manager, 100);
         assertNotNull(menu);
@@ -28,10 +40,57 @@ class StartMenuTest {
     @Test
     void testStartMenuDimensions() {
         JFrame frame = new JFrame("Test");
-        GameManager manager = new GameManager(frame);
+        manager = new GameManager(frame, dir);
         StartMenu menu = new StartMenu(manager, 0);
         
         assertEquals(500, menu.getPreferredSize().width);
         assertEquals(600, menu.getPreferredSize().height);
     }
+    
+    @Test
+    void testScreensAreReusedAcrossTransitions() {
+        JFrame frame = new JFrame("Test");
+        manager = new GameManager(frame, dir);
+        StartMenu menu = manager.getStartMenu();
+        
+        manager.startGame(Difficulty.EASY);
+        SnakeGame game = manager.getSnakeGame();
+        game.stop();
+        manager.showStartMenu();
+        manager.startGame(Difficulty.HARD);
+        manager.getSnakeGame().stop();
+        manager.showStartMenu();
+        
+        assertSame(menu, manager.getStartMenu());
+        assertSame(game, manager.getSnakeGame());
+        assertTrue(game.isRunning());
+        
+        // A different board needs a new game screen
+        manager.startGame(Difficulty.HARD, new BoardSize(30, 30));
+        manager.getSnakeGame().stop();
+        assertNotSame(game, manager.getSnakeGame());
+    }
+    
+    @Test
+    void testMenuGameRoundTripTakesLessThanAFrame() {
+        JFrame frame = new JFrame("Test");
+        manager = new GameManager(frame, dir);
+        frame.pack();
+        
+        // Warm up, then time menu -> game -> menu
+        for (int i = 0; i < 50; i++) {
+            manager.startGame(Difficulty.NORMAL);
+            manager.getSnakeGame().stop();
+            manager.showStartMenu();
+        }
+        int rounds = 200;
+        long start = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            manager.startGame(Difficulty.NORMAL);
+            manager.getSnakeGame().stop();
+            manager.showStartMenu();
+        }
+        long perRound = (System.nanoTime() - start) / rounds;
+        assertTrue(perRound < 16_666_666, "round trip took " + perRound / 1000 + " us");
+    }
 }
@@ -0,0 +1,98 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TelemetryLogTest {
+    // Four records per segment, so a few games rotate through several
+    private static final int SEGMENT_SIZE = 4 * TelemetryLog.RECORD_SIZE;
+    
+    @TempDir
+    Path dir;
+    
+    private TelemetryLog open(PersistenceExecutor writer) {
+        TelemetryLog log = new TelemetryLog(dir, SEGMENT_SIZE, writer);
+        log.awaitReady();
+        return log;
+    }
+    
+    @Test
+    void testRecordsReadBackInOrderAcrossSegments() throws IOException {
+        PersistenceExecutor writer = new PersistenceExecutor("test-writer");
+        TelemetryLog log = open(writer);
+        for (int tick = 0; tick < 10; tick++) {
+            log.append(1_000 + tick, Difficulty.HARD, tick, TelemetryLog.TURN, tick % 4);
+            // The next segment is mapped in the background; wait so nothing is dropped
+            log.awaitReady();
+        }
+        log.close();
+        writer.close();
+        
+        TelemetryReader reader = new TelemetryReader(dir);
+        assertEquals(3, reader.segments().size());
+        List<Integer> ticks = new ArrayList<>();
+        long records = reader.scan((timestamp, difficulty, tick, type, value) -> {
+            assertEquals(1_000 + tick, timestamp);
+            assertEquals(Difficulty.HARD, difficulty);
+            assertEquals(TelemetryLog.TURN, type);
+            assertEquals(tick % 4, value);
+            ticks.add(tick);
+        });
+        assertEquals(10, records);
+        assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), ticks);
+        assertEquals(0, log.getDroppedCount());
+    }
+    
+    @Test
+    void testCountsDeathsByCausePerDifficulty() throws IOException {
+        PersistenceExecutor writer = new PersistenceExecutor("test-writer");
+        TelemetryLog log = open(writer);
+        log.append(Difficulty.EASY, 0, TelemetryLog.START, 0);
+        log.append(Difficulty.EASY, 5, TelemetryLog.DEATH, StepResult.HIT_WALL.ordinal());
+        log.close();
+        // A later session continues with new segments in the same directory
+        log = open(writer);
+        log.append(Difficulty.EASY, 0, TelemetryLog.START, 0);
+        log.append(Difficulty.EASY, 3, TelemetryLog.FOOD, 0);
+        log.append(Difficulty.EASY, 9, TelemetryLog.DEATH, StepResult.HIT_SELF.ordinal());
+        log.append(Difficulty.EXTREME, 2, TelemetryLog.DEATH, StepResult.HIT_WALL.ordinal());
+        log.close();
+        writer.close();
+        
+        long[][] deaths = new TelemetryReader(dir).countDeaths();
+        assertEquals(1, deaths[Difficulty.EASY.ordinal()][StepResult.HIT_WALL.ordinal()]);
+        assertEquals(1, deaths[Difficulty.EASY.ordinal()][StepResult.HIT_SELF.ordinal()]);
+        assertEquals(1, deaths[Difficulty.EXTREME.ordinal()][StepResult.HIT_WALL.ordinal()]);
+        assertEquals(0, deaths[Difficulty.NORMAL.ordinal()][StepResult.HIT_WALL.ordinal()]);
+    }
+    
+    @Test
+    void testAppendDropsInsteadOfWaitingForTheDisk() throws InterruptedException {
+        PersistenceExecutor writer = new PersistenceExecutor("test-writer");
+        CountDownLatch release = new CountDownLatch(1);
+        writer.submit(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        
+        // The first segment is queued behind the stalled task
+        TelemetryLog log = new TelemetryLog(dir, SEGMENT_SIZE, writer);
+        log.append(Difficulty.NORMAL, 0, TelemetryLog.START, 0);
+        assertEquals(1, log.getDroppedCount());
+        
+        release.countDown();
+        log.awaitReady();
+        log.append(Difficulty.NORMAL, 0, TelemetryLog.START, 0);
+        assertEquals(1, log.getDroppedCount());
+        log.close();
+        writer.close();
+    }
+}
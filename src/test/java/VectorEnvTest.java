@@ -0,0 +1,133 @@
+import org.junit.jupiter.api.Test;
+import java.lang.management.ManagementFactory;
+import java.nio.FloatBuffer;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VectorEnvTest {
+    private static final BoardSize BOARD = new BoardSize(6, 5);
+    private static final Direction[] DIRECTIONS = Direction.values();
+    
+    // Mostly keeps going, so games last long enough to eat, wrap the free-cell index and win
+    private static void chooseActions(VectorEnv env, Random random, int[] actions) {
+        for (int i = 0; i < actions.length; i++) {
+            actions[i] = random.nextInt(8) < 6 ? actions[i] : random.nextInt(4);
+        }
+    }
+    
+    private static void assertSameGame(SnakeEngine engine, VectorEnv env, int i) {
+        assertEquals(engine.getScore(), env.getScore(i));
+        assertEquals(engine.getLength(), env.getLength(i));
+        assertEquals(engine.getFoodCell(), env.getFoodCell(i));
+        for (int j = 0; j < engine.getLength(); j++) {
+            assertEquals(engine.getY(j) * engine.getWidth() + engine.getX(j), env.getCell(i, j));
+        }
+        
+        // The observation shows the same board
+        FloatBuffer obs = env.getObservations();
+        int cells = env.getWidth() * env.getHeight();
+        int base = i * env.getObservationSize();
+        int head = env.getCell(i, 0);
+        for (int cell = 0; cell < cells; cell++) {
+            boolean body = engine.isOccupied(cell % env.getWidth(), cell / env.getWidth());
+            assertEquals(body ? 1f : 0f, obs.get(base + cell));
+            assertEquals(cell == head ? 1f : 0f, obs.get(base + cells + cell));
+            assertEquals(cell == engine.getFoodCell() ? 1f : 0f, obs.get(base + 2 * cells + cell));
+        }
+    }
+    
+    @Test
+    void testEveryEnvPlaysTheSameGamesAsSnakeEngine() {
+        int count = 600;
+        VectorEnv env = new VectorEnv(count, BOARD, 200, new ForkJoinPool(3));
+        env.reset(1_000);
+        GameRandom[] randoms = new GameRandom[count];
+        SnakeEngine[] engines = new SnakeEngine[count];
+        for (int i = 0; i < count; i++) {
+            randoms[i] = new GameRandom(1_000 + i);
+            engines[i] = new SnakeEngine(BOARD.getWidth(), BOARD.getHeight(), randoms[i]);
+            assertSameGame(engines[i], env, i);
+        }
+        
+        Random policy = new Random(7);
+        int[] actions = new int[count];
+        int finished = 0;
+        for (int t = 0; t < 500; t++) {
+            chooseActions(env, policy, actions);
+            env.step(actions);
+            for (int i = 0; i < count; i++) {
+                StepResult result = engines[i].step(DIRECTIONS[actions[i]]);
+                float reward = result == StepResult.ATE || result == StepResult.WON ? VectorEnv.FOOD_REWARD
+                        : result.isGameOver() ? VectorEnv.DEATH_REWARD : 0f;
+                assertEquals(reward, env.getRewards()[i]);
+                if (result.isGameOver()) {
+                    assertEquals(VectorEnv.TERMINATED, env.getDones()[i]);
+                } else if (env.getDones()[i] != VectorEnv.TRUNCATED) {
+                    assertEquals(VectorEnv.RUNNING, env.getDones()[i]);
+                }
+                if (env.getDones()[i] != VectorEnv.RUNNING) {
+                    // The next game is reseeded from the last one, as SnakeGame does
+                    long seed = randoms[i].nextLong();
+                    randoms[i].setSeed(seed);
+                    engines[i].reset();
+                    finished++;
+                }
+                assertSameGame(engines[i], env, i);
+            }
+        }
+        assertTrue(finished > count, "only " + finished + " games finished");
+    }
+    
+    @Test
+    void testGamesEndAtMaxStepsAndResetRestoresSeeds() {
+        VectorEnv env = new VectorEnv(2, BOARD, 2);
+        // Two steps down from the centre stop just short of the wall
+        int[] actions = {Direction.DOWN.ordinal(), Direction.UP.ordinal()};
+        env.reset(5);
+        int food = env.getFoodCell(1);
+        env.step(actions);
+        assertEquals(VectorEnv.RUNNING, env.getDones()[0]);
+        env.step(actions);
+        assertEquals(VectorEnv.TRUNCATED, env.getDones()[0]);
+        assertEquals(1, env.getLength(0));
+        
+        env.reset(5);
+        assertEquals(food, env.getFoodCell(1));
+        assertThrows(IllegalArgumentException.class, () -> env.step(new int[] {0}));
+        assertThrows(IllegalArgumentException.class, () -> env.step(new int[] {0, 4}));
+    }
+    
+    @Test
+    void testStepDoesNotAllocatePerEnv() {
+        VectorEnv env = new VectorEnv(1_000, BOARD, 1_000, new ForkJoinPool(2));
+        Random policy = new Random(3);
+        int[][] actions = new int[64][1_000];
+        for (int[] row : actions) {
+            chooseActions(env, policy, row);
+        }
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        for (int t = 0; t < 2_000; t++) {
+            env.step(actions[t & 63]);
+        }
+        
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int t = 0; t < 2_000; t++) {
+            env.step(actions[t & 63]);
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+        // Waiting for the fork-join tasks may cost a small node per step, but never anything per env
+        assertTrue(allocated < 64 * 2_000, "allocated " + allocated + " bytes over 2k steps");
+    }
+    
+    @Test
+    void testRejectsBatchesTooLargeToIndex() {
+        BoardSize board = new BoardSize(BoardSize.MAX_DIMENSION, BoardSize.MAX_DIMENSION);
+        // 12 MB of observations per env, so 200 envs pass 2 GB
+        assertThrows(IllegalArgumentException.class, () -> new VectorEnv(200, board, 10));
+        assertThrows(IllegalArgumentException.class, () -> new VectorEnv(Integer.MAX_VALUE, BoardSize.DEFAULT, 10));
+    }
+}